@@ -2,8 +2,10 @@ package ma.estfbs.pfe_management;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PfeManagementApplication {
 
 	public static void main(String[] args) {
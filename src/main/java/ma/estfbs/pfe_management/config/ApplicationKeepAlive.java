@@ -3,20 +3,22 @@ package ma.estfbs.pfe_management.config;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Component
 public class ApplicationKeepAlive implements CommandLineRunner {
     @Override
     public void run(String... args) throws Exception {
         // Print a message that the application is running
-        System.out.println("APPLICATION IS NOW RUNNING - DO NOT CLOSE THIS WINDOW");
+        log.info("APPLICATION IS NOW RUNNING - DO NOT CLOSE THIS WINDOW");
         
         // Keep the application running
         Thread keepAliveThread = new Thread(() -> {
             while (true) {
                 try {
                     Thread.sleep(60000); // Sleep for 1 minute
-                    System.out.println("Application still running... " + 
-                        new java.util.Date());
+                    log.info("Application still running...");
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     break;
@@ -0,0 +1,30 @@
+package ma.estfbs.pfe_management.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine caches for reference data (filières, salles, pourcentages).
+ * Evictions are deferred until the surrounding transaction commits, so a
+ * concurrent reader cannot put the old value back in the cache.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String FILIERES = "filieres";
+    public static final String SALLES = "salles";
+    public static final String POURCENTAGE = "pourcentage";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${application.cache.reference-data.spec}") String spec) {
+        CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager(FILIERES, SALLES, POURCENTAGE);
+        caffeineCacheManager.setCacheSpecification(spec);
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+}
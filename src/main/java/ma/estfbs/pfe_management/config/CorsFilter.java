@@ -19,7 +19,8 @@ public class CorsFilter extends OncePerRequestFilter {
         
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Authorization, Content-Type, X-Requested-With");
+        response.setHeader("Access-Control-Allow-Headers", "Authorization, Content-Type, X-Requested-With, X-Correlation-Id");
+        response.setHeader("Access-Control-Expose-Headers", "X-Correlation-Id");
         response.setHeader("Access-Control-Max-Age", "3600");
         
         if ("OPTIONS".equals(request.getMethod())) {
@@ -0,0 +1,57 @@
+package ma.estfbs.pfe_management.config;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.model.Utilisateur;
+
+/**
+ * Moves the table-based id generators past the rows already in the database.
+ *
+ * Tables created before the switch from IDENTITY keep their auto-increment ids;
+ * without this, a fresh generator row would hand out ids that are already taken.
+ * Runs once the schema is up to date (after the EntityManagerFactory) and before
+ * the application serves requests.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class IdGeneratorInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        advance("utilisateur", Utilisateur.ID_GENERATOR, Utilisateur.ID_ALLOCATION_SIZE);
+    }
+
+    /**
+     * Make sure the next block handed out by the generator starts after the highest id of the table
+     */
+    void advance(String table, String generator, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        // A pooled generator hands out the block ending at the stored value
+        long floor = maxId + allocationSize;
+
+        int updated = jdbcTemplate.update(
+                "UPDATE id_generator SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                floor, generator, floor);
+        if (updated == 0) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_generator WHERE sequence_name = ?", Integer.class, generator);
+            if (existing == 0) {
+                jdbcTemplate.update("INSERT INTO id_generator (sequence_name, next_val) VALUES (?, ?)",
+                        generator, floor);
+                updated = 1;
+            }
+        }
+        if (updated > 0) {
+            log.info("Générateur d'identifiants {} positionné après l'id {}", generator, maxId);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package ma.estfbs.pfe_management.config;
 
 import java.io.IOException;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -10,18 +14,26 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import ma.estfbs.pfe_management.service.JwtService;
+import ma.estfbs.pfe_management.service.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService utilisateurDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${application.security.stateless-auth:true}")
+    private boolean statelessAuth;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -30,32 +42,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt;
         final String userEmail;
         
-        System.out.println("Request path: " + request.getRequestURI());
-        
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("No valid auth header found for: " + request.getRequestURI());
+            log.trace("No bearer token for {}", request.getRequestURI());
             filterChain.doFilter(request, response);
             return;
         }
         
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        System.out.println("Extracted email: " + userEmail);
-        
-        // AJOUT: Logs supplémentaires pour déboguer
-        System.out.println("Extracted user ID: " + jwtService.extractUserId(jwt));
-        System.out.println("Extracted user role: " + jwtService.extractUserRole(jwt));
+        // Parsed once; the services read the same claims through JwtService for the rest of the request
+        final Claims claims = jwtService.extractAllClaims(jwt);
+        userEmail = claims.getSubject();
+        if (log.isDebugEnabled()) {
+            log.debug("Token for {} (user ID: {}, role: {}) on {}", userEmail,
+                    claims.get("userId", Long.class), claims.get("role", String.class), request.getRequestURI());
+        }
         
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (statelessAuth) {
+            authenticateFromClaims(claims, request);
+        } else if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             UserDetails userDetails = this.utilisateurDetailsService.loadUserByUsername(userEmail);
-            
-            // Debugging - Print roles and authorities
-            System.out.println("User roles from UserDetails: " + userDetails.getAuthorities());
-            System.out.println("Role from JWT: " + jwtService.extractUserRole(jwt));
-            
-            // AJOUT: Vérifier si le token est valide et afficher le résultat
-            boolean isValid = jwtService.isTokenValid(jwt, userDetails);
-            System.out.println("Is token valid? " + isValid);
+            boolean isValid = jwtService.isTokenValid(claims, userDetails);
             
             if (isValid) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -67,11 +73,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-                System.out.println("Authentication set in SecurityContext");
+                log.debug("Authenticated {} with {}", userEmail, userDetails.getAuthorities());
             } else {
-                System.out.println("Token validation failed!");
+                log.debug("Invalid token for {}", userEmail);
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Build the authentication from the verified claims, without loading the user
+     */
+    private void authenticateFromClaims(Claims claims, HttpServletRequest request) {
+        if (SecurityContextHolder.getContext().getAuthentication() != null) {
+            return;
+        }
+
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        // Tokens without user id or role (password reset, refresh) do not authenticate requests
+        if (claims.getSubject() == null || userId == null || role == null) {
+            log.debug("Token without user claims, not authenticated");
+            return;
+        }
+        if (!tokenRevocationService.isCurrent(userId, claims.get("ver", Integer.class))) {
+            log.debug("Token revoked for user ID: {}", userId);
+            return;
+        }
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+            claims.getSubject(),
+            null,
+            List.of(new SimpleGrantedAuthority("ROLE_" + role))
+        );
+        authToken.setDetails(
+            new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        log.debug("Authenticated {} from token claims", claims.getSubject());
+    }
+}
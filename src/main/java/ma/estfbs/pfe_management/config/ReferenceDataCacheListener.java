@@ -0,0 +1,51 @@
+package ma.estfbs.pfe_management.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Pourcentage;
+import ma.estfbs.pfe_management.model.Salle;
+
+/**
+ * Evicts the reference data caches whenever a Filiere, Salle or Pourcentage is
+ * written, whether through the services or the Spring Data REST endpoints.
+ */
+@RequiredArgsConstructor
+public class ReferenceDataCacheListener {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        String cacheName = cacheNameFor(entity);
+        CacheManager manager = cacheManager.getIfAvailable();
+        if (cacheName == null || manager == null) {
+            return;
+        }
+        Cache cache = manager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private String cacheNameFor(Object entity) {
+        if (entity instanceof Filiere) {
+            return CacheConfig.FILIERES;
+        }
+        if (entity instanceof Salle) {
+            return CacheConfig.SALLES;
+        }
+        if (entity instanceof Pourcentage) {
+            return CacheConfig.POURCENTAGE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,85 @@
+package ma.estfbs.pfe_management.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Virtual-thread request execution (profile "virtual-threads", see application-virtual-threads.properties).
+ *
+ * Spring Boot switches Tomcat, @Async and @Scheduled to virtual threads itself; this only reports,
+ * through Java Flight Recorder, the virtual threads pinned to their carrier for longer than the
+ * threshold (blocking inside a synchronized block or a native call), with the frame of our code involved.
+ *
+ * A virtual thread that blocks while holding a monitor stays pinned to its carrier, so the locks our
+ * services hold across database calls or waits (activity feed, dashboard counters, planning) are
+ * java.util.concurrent locks rather than synchronized blocks.
+ */
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "ma.estfbs.pfe_management";
+
+    @Value("${application.virtual-threads.pinning-threshold-ms}")
+    private long pinningThresholdMillis;
+
+    private RecordingStream pinning;
+
+    @PostConstruct
+    void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("Profil virtual-threads actif sur Java {}: les threads virtuels nécessitent Java 21 "
+                    + "(mvn -Pjava21), les requêtes restent traitées par des threads classiques",
+                    Runtime.version().feature());
+            return;
+        }
+        pinning = new RecordingStream();
+        pinning.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(pinningThresholdMillis)).withStackTrace();
+        pinning.onEvent(PINNED_EVENT, this::report);
+        pinning.startAsync();
+        log.info("Threads virtuels actifs, blocages de plus de {} ms signalés", pinningThresholdMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pinning != null) {
+            pinning.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        log.warn("Thread virtuel bloqué sur son thread porteur pendant {} ms dans {}",
+                event.getDuration().toMillis(), applicationFrame(event));
+    }
+
+    /**
+     * First frame of our code in the stack of the event, else its top frame
+     */
+    private static String applicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "une méthode inconnue";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return describe(event.getStackTrace().getFrames().get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -1,26 +1,53 @@
 package ma.estfbs.pfe_management.controller;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeAddRequest;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeDTO;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeEditRequest;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeManagementResponse;
+import ma.estfbs.pfe_management.dto.CacheStatsDTO;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteAddRequest;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteDTO;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteEditRequest;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteImportResultDTO;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteManagementResponse;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.EtudiantImportRow;
 import ma.estfbs.pfe_management.dto.FiliereDTO;
 import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardDTO;
 import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.StatsDriftDTO;
 import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.ConsolidationResultDTO;
 import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteDTO;
 import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteManagementResponse;
+import ma.estfbs.pfe_management.dto.PasswordHashingStatsDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ImportReportDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningStatusDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceAddRequest;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceUpdateRequest;
@@ -30,12 +57,25 @@ import ma.estfbs.pfe_management.dto.SujetManagementResponse;
 import ma.estfbs.pfe_management.dto.SujetRequestDTOs.SujetAddRequest;
 import ma.estfbs.pfe_management.dto.SujetRequestDTOs.SujetEditRequest;
 import ma.estfbs.pfe_management.dto.SujetSuggestionDTO;
+import ma.estfbs.pfe_management.model.ProposerSujets.Status;
 import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.service.ActivityFeedService;
 import ma.estfbs.pfe_management.service.BinomeManagementService;
+import ma.estfbs.pfe_management.service.CacheStatsService;
+import ma.estfbs.pfe_management.service.CompteImportService;
+import ma.estfbs.pfe_management.service.CompteImportService.PreparedImport;
 import ma.estfbs.pfe_management.service.CompteManagementService;
+import ma.estfbs.pfe_management.service.DashboardAssemblyService;
+import ma.estfbs.pfe_management.service.DashboardStatsService;
+import ma.estfbs.pfe_management.service.DashboardStreamService;
+import ma.estfbs.pfe_management.service.GradeConsolidationService;
+import ma.estfbs.pfe_management.service.GradeExportService;
 import ma.estfbs.pfe_management.service.HODDashboardService;
 import ma.estfbs.pfe_management.service.NoteManagementService;
+import ma.estfbs.pfe_management.service.PasswordHashingService;
+import ma.estfbs.pfe_management.service.SoutenanceImportService;
 import ma.estfbs.pfe_management.service.SoutenanceManagementService;
+import ma.estfbs.pfe_management.service.SoutenancePlanningService;
 import ma.estfbs.pfe_management.service.SujetManagementService;
 import ma.estfbs.pfe_management.service.SujetSuggestionService;
 
@@ -50,9 +90,21 @@ public class ChefDepartementController {
     private final SujetSuggestionService sujetSuggestionService;
     private final BinomeManagementService binomeManagementService;
     private final CompteManagementService compteManagementService;
+    private final CompteImportService compteImportService;
     private final SoutenanceManagementService soutenanceManagementService;
+    private final SoutenancePlanningService soutenancePlanningService;
+    private final SoutenanceImportService soutenanceImportService;
     private final NoteManagementService noteManagementService;
     private final HODDashboardService hodDashboardService;
+    private final DashboardStatsService dashboardStatsService;
+    private final DashboardAssemblyService dashboardAssemblyService;
+    private final ActivityFeedService activityFeedService;
+    private final DashboardStreamService dashboardStreamService;
+    private final GradeExportService gradeExportService;
+    private final GradeConsolidationService gradeConsolidationService;
+    private final CacheStatsService cacheStatsService;
+    private final PasswordHashingService passwordHashingService;
+    private final ObjectMapper objectMapper;
     
     // ============= SUJET MANAGEMENT ENDPOINTS =============
     
@@ -64,6 +116,17 @@ public class ChefDepartementController {
         return ResponseEntity.ok(sujetManagementService.getAllSujetsAndFilieres());
     }
     
+    /**
+     * Get one page of subjects (cursor, size, sort=id|titre, direction)
+     */
+    @GetMapping("/sujets/page")
+    public ResponseEntity<KeysetPageDTO<SujetDTO>> getSujetsPage(
+            @RequestParam(required = false) Long filiereId,
+            @RequestParam(required = false) String search,
+            KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(sujetManagementService.getSujetsPage(filiereId, search, pageRequest));
+    }
+    
     /**
      * Add new subject
      */
@@ -101,6 +164,17 @@ public class ChefDepartementController {
         return ResponseEntity.ok(sujetSuggestionService.getAllSuggestions());
     }
     
+    /**
+     * Get one page of sujet suggestions (cursor, size, sort=id|titre, direction)
+     */
+    @GetMapping("/sujet-suggestions/page")
+    public ResponseEntity<KeysetPageDTO<SujetSuggestionDTO>> getSuggestionsPage(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Long filiereId,
+            KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(sujetSuggestionService.getSuggestionsPage(status, filiereId, pageRequest));
+    }
+    
     /**
      * Accept a sujet suggestion
      */
@@ -130,6 +204,16 @@ public class ChefDepartementController {
         return ResponseEntity.ok(binomeManagementService.getBinomeManagementData(filiereId));
     }
     
+    /**
+     * Get one page of binomes (cursor, size, sort=id, direction)
+     */
+    @GetMapping("/binomes/page")
+    public ResponseEntity<KeysetPageDTO<BinomeDTO>> getBinomesPage(
+            @RequestParam(required = false) Long filiereId,
+            KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(binomeManagementService.getBinomesPage(filiereId, pageRequest));
+    }
+    
     /**
      * Add a new binome
      */
@@ -169,11 +253,52 @@ public class ChefDepartementController {
     }
     
     /**
-     * Add a new account
+     * Get one page of accounts (cursor, size, sort=id|nom|email, direction)
+     */
+    @GetMapping("/comptes/page")
+    public ResponseEntity<KeysetPageDTO<CompteDTO>> getComptesPage(
+            @RequestParam(required = false) Role role,
+            @RequestParam(required = false) String search,
+            KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(compteManagementService.getComptesPage(role, search, pageRequest));
+    }
+    
+    /**
+     * Add a new account, returned with its generated password
      */
     @PostMapping("/comptes")
     public ResponseEntity<CompteDTO> addCompte(@RequestBody CompteAddRequest request) {
-        return ResponseEntity.ok(compteManagementService.addCompte(request));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(compteManagementService.addCompte(request));
+    }
+    
+    /**
+     * Create the student accounts of a whole promotion; one JSON result per row is streamed
+     * back (application/x-ndjson) as the accounts are committed, with the generated password
+     * of each created account
+     */
+    @PostMapping(value = "/comptes/import", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> importEtudiants(@RequestBody List<EtudiantImportRow> rows) {
+        // Checked before the response starts, so that a rejected import is a plain error response
+        PreparedImport preparedImport = compteImportService.prepareImport(rows);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .cacheControl(CacheControl.noStore())
+                .body(outputStream -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                    compteImportService.executeImport(preparedImport, results -> {
+                        try {
+                            for (CompteImportResultDTO result : results) {
+                                writer.write(objectMapper.writeValueAsString(result));
+                                writer.write('\n');
+                            }
+                            writer.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                });
     }
     
     /**
@@ -205,6 +330,17 @@ public class ChefDepartementController {
         return ResponseEntity.ok(soutenanceManagementService.getAllSoutenances());
     }
     
+    /**
+     * Get one page of soutenances (cursor, size, sort=date|id, direction)
+     */
+    @GetMapping("/soutenances/page")
+    public ResponseEntity<KeysetPageDTO<SoutenanceDTO>> getSoutenancesPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(soutenanceManagementService.getSoutenancesPage(from, to, pageRequest));
+    }
+    
     /**
      * Get soutenance by ID
      */
@@ -261,6 +397,47 @@ public class ChefDepartementController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Check a whole schedule (spreadsheet rows) against the current one, without saving it
+     */
+    @PostMapping("/soutenances/import/validate")
+    public ResponseEntity<ImportReportDTO> validateSoutenanceImport(@RequestBody List<SoutenanceAddRequest> rows) {
+        return ResponseEntity.ok(soutenanceImportService.validateImport(rows));
+    }
+    
+    /**
+     * Import a whole schedule (spreadsheet rows); nothing is saved unless every row is valid
+     */
+    @PostMapping("/soutenances/import")
+    public ResponseEntity<ImportReportDTO> importSoutenances(@RequestBody List<SoutenanceAddRequest> rows) {
+        ImportReportDTO report = soutenanceImportService.importSoutenances(rows);
+        return report.getErrors().isEmpty() ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
+    }
+    
+    /**
+     * Start the automatic planning of every binome without a soutenance (runs in the background)
+     */
+    @PostMapping("/soutenances/planning")
+    public ResponseEntity<PlanningStatusDTO> startPlanning(@RequestBody PlanningRequest request) {
+        return ResponseEntity.accepted().body(soutenancePlanningService.startPlanning(request));
+    }
+    
+    /**
+     * Get the progress, then the proposed schedule, of an automatic planning
+     */
+    @GetMapping("/soutenances/planning/{id}")
+    public ResponseEntity<PlanningStatusDTO> getPlanning(@PathVariable String id) {
+        return ResponseEntity.ok(soutenancePlanningService.getPlanning(id));
+    }
+    
+    /**
+     * Create the soutenances of a finished automatic planning
+     */
+    @PostMapping("/soutenances/planning/{id}/apply")
+    public ResponseEntity<PlanningStatusDTO> applyPlanning(@PathVariable String id) {
+        return ResponseEntity.ok(soutenancePlanningService.applyPlanning(id));
+    }
+    
     // ============= NOTE MANAGEMENT ENDPOINTS =============
     
     /**
@@ -287,14 +464,63 @@ public class ChefDepartementController {
         return ResponseEntity.ok(noteManagementService.getNotesByFiliere(filiereId));
     }
 
+    /**
+     * Export all student notes as CSV (streamed)
+     */
+    @GetMapping("/notes/export")
+    public ResponseEntity<StreamingResponseBody> exportNotes() {
+        return csvAttachment("notes.csv", outputStream -> gradeExportService.exportCsv(null, outputStream));
+    }
+
+    /**
+     * Export the notes of a filiere as CSV (streamed)
+     */
+    @GetMapping("/notes/filiere/{filiereId}/export")
+    public ResponseEntity<StreamingResponseBody> exportNotesByFiliere(@PathVariable Long filiereId) {
+        gradeExportService.checkFiliere(filiereId);
+        return csvAttachment("notes-filiere-" + filiereId + ".csv",
+                outputStream -> gradeExportService.exportCsv(filiereId, outputStream));
+    }
+
+    /**
+     * Recompute the final grades of all students and store them in NoteFinale
+     */
+    @PostMapping("/notes/consolidate")
+    public ResponseEntity<ConsolidationResultDTO> consolidateNotes() {
+        return ResponseEntity.ok(gradeConsolidationService.consolidate());
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvAttachment(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
     // ============= DASHBOARD ENDPOINTS =============
 
+    /**
+     * Get the whole dashboard (statistics, upcoming soutenances, recent activities) at once
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardDTO> getDashboard() {
+        return ResponseEntity.ok(dashboardAssemblyService.getDashboard());
+    }
+
     /**
      * Get dashboard statistics
      */
     @GetMapping("/dashboard/stats")
     public ResponseEntity<DashboardStatsDTO> getDashboardStats() {
-        return ResponseEntity.ok(hodDashboardService.getDashboardStats());
+        return ResponseEntity.ok(dashboardStatsService.getDashboardStats());
+    }
+
+    /**
+     * Compare the cached dashboard statistics with the database
+     */
+    @GetMapping("/dashboard/stats/drift")
+    public ResponseEntity<StatsDriftDTO> getDashboardStatsDrift() {
+        return ResponseEntity.ok(dashboardStatsService.getDrift());
     }
 
     /**
@@ -309,7 +535,41 @@ public class ChefDepartementController {
      * Get recent activities for the dashboard
      */
     @GetMapping("/dashboard/activities")
-    public ResponseEntity<List<ActivityDTO>> getRecentActivities() {
-        return ResponseEntity.ok(hodDashboardService.getRecentActivities());
+    public ResponseEntity<List<ActivityDTO>> getRecentActivities(@RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(activityFeedService.getRecentActivities(limit));
+    }
+
+    /**
+     * Live dashboard (Server-Sent Events): the whole dashboard, then its changes
+     */
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard() {
+        return dashboardStreamService.subscribe();
+    }
+
+    /**
+     * Get one page of older activities, newest first (cursor, size)
+     */
+    @GetMapping("/dashboard/activities/page")
+    public ResponseEntity<KeysetPageDTO<ActivityDTO>> getActivitiesPage(KeysetPageRequest pageRequest) {
+        return ResponseEntity.ok(activityFeedService.getActivitiesPage(pageRequest));
+    }
+
+    // ============= CACHE ENDPOINTS =============
+
+    /**
+     * Get hit/miss statistics of the reference data caches
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getCacheStats());
+    }
+
+    /**
+     * Get the BCrypt cost and the load (queue depth, rejections) of the password hashing pool
+     */
+    @GetMapping("/password-hashing/stats")
+    public ResponseEntity<PasswordHashingStatsDTO> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
     }
-}
\ No newline at end of file
+}
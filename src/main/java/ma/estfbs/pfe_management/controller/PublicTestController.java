@@ -1,6 +1,7 @@
 package ma.estfbs.pfe_management.controller;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import ma.estfbs.pfe_management.dto.EtudiantBinomeDTOs.*;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.DemandeBinome;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/public")
 @CrossOrigin(origins = "*")
@@ -40,14 +42,13 @@ public class PublicTestController {
     
     @PostMapping("/binome/solo")
     public ResponseEntity<BinomeDTO> createSoloBinome() {
-        System.out.println("Public solo binome endpoint called");
+        log.debug("Public solo binome endpoint called");
         try {
             BinomeDTO result = etudiantBinomeService.createSoloBinome();
-            System.out.println("Solo binome created successfully");
+            log.debug("Solo binome created successfully");
             return ResponseEntity.ok(result);
         } catch (Exception e) {
-            System.err.println("Error in public createSoloBinome endpoint: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error in public createSoloBinome endpoint: {}", e.getMessage());
             throw e;
         }
     }
@@ -60,7 +61,7 @@ public class PublicTestController {
         }
         
         try {
-            System.out.println("Creating direct solo binome for email: " + email);
+            log.debug("Creating direct solo binome for email: {}", email);
             
             // Get user by email
             Utilisateur student = utilisateurRepository.findByEmail(email)
@@ -89,7 +90,7 @@ public class PublicTestController {
             
             return ResponseEntity.ok("Binome solo créé pour " + email);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Public test endpoint failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body("Erreur: " + e.getMessage());
         }
     }
@@ -102,7 +103,7 @@ public class PublicTestController {
         }
         
         try {
-            System.out.println("Checking binome status for email: " + email);
+            log.debug("Checking binome status for email: {}", email);
             
             Utilisateur currentUser = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -134,7 +135,7 @@ public class PublicTestController {
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Public test endpoint failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
@@ -147,7 +148,7 @@ public class PublicTestController {
         }
         
         try {
-            System.out.println("Getting available students for email: " + email);
+            log.debug("Getting available students for email: {}", email);
             
             Utilisateur currentUser = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -171,46 +172,31 @@ public class PublicTestController {
                 ));
             }
             
-            // Get all students in the same filiere
-            List<Etudiant> filiereStudents = etudiantRepository.findByFiliere(currentEtudiant.getFiliere());
-            System.out.println("Found " + filiereStudents.size() + " students in the same filiere");
-            
-            // Get students already in binomes
-            List<Utilisateur> studentsInBinomes = new ArrayList<>();
-            binomeRepository.findAll().forEach(binome -> {
-                studentsInBinomes.add(binome.getEtudiant1());
-                if (binome.getEtudiant2() != null) {
-                    studentsInBinomes.add(binome.getEtudiant2());
-                }
-            });
-            System.out.println("Found " + studentsInBinomes.size() + " students already in binomes");
-            
-            // Get students who rejected current user's request
-            List<DemandeBinome> rejectedRequests = demandeBinomeRepository.findByDemandeurAndStatut(
-                currentUser, DemandeBinome.Statut.REFUSER);
-            List<Long> rejectedStudentIds = rejectedRequests.stream()
-                .map(demande -> demande.getDemande().getId())
+            // Same filière, not in a binome, without self and the students who refused this user's requests
+            List<StudentDTO> availableStudents = utilisateurRepository.findAvailableStudentsInFiliere(
+                    currentEtudiant.getFiliere().getId(), currentUser.getId()).stream()
+                .map(student -> StudentDTO.builder()
+                    .id(student.getId())
+                    .nom(student.getNom())
+                    .prenom(student.getPrenom())
+                    .email(student.getEmail())
+                    .cne(student.getCne())
+                    .filiereName(student.getFiliereNom())
+                    .build())
                 .collect(Collectors.toList());
-            System.out.println("Found " + rejectedStudentIds.size() + " students who rejected this user's requests");
             
-            // Filter available students
-            List<StudentDTO> availableStudents = filiereStudents.stream()
-                .map(Etudiant::getUtilisateur)
-                .filter(user -> !user.getId().equals(currentUser.getId())) // Exclude self
-                .filter(user -> !studentsInBinomes.contains(user)) // Exclude students already in binomes
-                .filter(user -> !rejectedStudentIds.contains(user.getId())) // Exclude students who rejected
-                .map(this::mapToStudentDTO)
-                .collect(Collectors.toList());
+            List<Long> rejectedStudentIds = demandeBinomeRepository.findDemandeIdsByDemandeurIdAndStatut(
+                currentUser.getId(), DemandeBinome.Statut.REFUSER);
             
-            System.out.println("Final available students count: " + availableStudents.size());
+            log.debug("Final available students count: {}", availableStudents.size());
             
             return ResponseEntity.ok(Map.of(
                 "availableStudents", availableStudents,
-                "hasRejectedRequests", !rejectedRequests.isEmpty(),
+                "hasRejectedRequests", !rejectedStudentIds.isEmpty(),
                 "rejectedStudentIds", rejectedStudentIds
             ));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Public test endpoint failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
@@ -223,7 +209,7 @@ public class PublicTestController {
         }
         
         try {
-            System.out.println("Getting pending requests for email: " + email);
+            log.debug("Getting pending requests for email: {}", email);
             
             Utilisateur currentUser = utilisateurRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -232,7 +218,7 @@ public class PublicTestController {
             List<DemandeBinome> pendingRequests = demandeBinomeRepository.findByDemandeAndStatut(
                 currentUser, DemandeBinome.Statut.EN_ATTENTE);
             
-            System.out.println("Found " + pendingRequests.size() + " pending requests");
+            log.debug("Found {} pending requests", pendingRequests.size());
             
             // Map to DTOs
             List<Map<String, Object>> requestDTOs = pendingRequests.stream()
@@ -241,7 +227,7 @@ public class PublicTestController {
             
             return ResponseEntity.ok(Map.of("pendingRequests", requestDTOs));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Public test endpoint failed: {}", e.getMessage(), e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
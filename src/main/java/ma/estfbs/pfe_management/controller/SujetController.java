@@ -44,7 +44,7 @@ public class SujetController {
      * Propose a new subject
      */
     @PostMapping("/proposer-sujet")
-    public ResponseEntity<SujetDTO> proposerSujet(@RequestBody ProposerSujetRequest request) {
+    public ResponseEntity<PropositionDTO> proposerSujet(@RequestBody ProposerSujetRequest request) {
         return ResponseEntity.ok(sujetService.proposerSujet(request));
     }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ public class CompteManagementDTOs {
         private Date dateNaissance;
         private Utilisateur.Role role;
         private String filiereName; // Only for students
+        private String motDePasse; // Generated password, only returned to the chef who created the account
     }
     
 
@@ -64,4 +65,28 @@ public class CompteManagementDTOs {
         private List<CompteDTO> comptes;
         private List<FiliereDTO> filieres;
     }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class EtudiantImportRow {
+        private String nom;
+        private String prenom;
+        private String cne;
+        private Date dateNaissance;
+        private Long filiereId;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class CompteImportResultDTO {
+        private int ligne; // 1-based position in the import
+        private Long id; // Set when the account was created
+        private String email;
+        private String motDePasse; // Generated password, only returned to the chef who ran the import
+        private String error;
+    }
 }
@@ -43,6 +43,27 @@ public class HODDashboardDTOs {
         private List<FiliereStatsDTO> filieres;
     }
     
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class StatsDriftDTO {
+        private boolean inSync;
+        private String checkedAt;
+        private String lastReconciledAt;
+        private List<DriftEntryDTO> differences;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DriftEntryDTO {
+        private String field;
+        private String cached;
+        private String actual;
+    }
+    
     @Data
     @Builder
     @AllArgsConstructor
@@ -119,4 +140,19 @@ public class HODDashboardDTOs {
         private String icon;
         private String type;
     }
+    
+    /**
+     * Everything the chef dashboard shows, in one response
+     */
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DashboardDTO {
+        private DashboardStatsDTO stats;
+        private List<UpcomingSoutenanceDTO> upcomingSoutenances;
+        private List<ActivityDTO> activities;
+        // Parts that failed or timed out and hold their last known value (combined endpoint only)
+        private List<String> degraded;
+    }
 }
@@ -0,0 +1,21 @@
+package ma.estfbs.pfe_management.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a keyset-paginated listing; nextCursor is null on the last page
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageDTO<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,21 @@
+package ma.estfbs.pfe_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Paging parameters of the listings (query string): cursor returned by the
+ * previous page, page size, sort key and direction (asc/desc)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetPageRequest {
+    private String cursor;
+    private Integer size;
+    private String sort;
+    private String direction;
+}
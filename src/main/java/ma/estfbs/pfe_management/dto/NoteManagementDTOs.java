@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class NoteManagementDTOs {
@@ -18,6 +19,7 @@ public class NoteManagementDTOs {
         private Integer noteRapport;
         private Integer noteSoutenance;
         private Integer noteEncadrant;
+        private Double noteFinale;
         private Long filiereId;
         private String filiereName;
     }
@@ -52,4 +54,18 @@ public class NoteManagementDTOs {
         private List<FiliereDTO> filieres;
         private PourcentageDTO pourcentages;
     }
-}
\ No newline at end of file
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ConsolidationResultDTO {
+        private int processed;
+        private int inserted;
+        private int updated;
+        private int deleted;
+        private int unchanged;
+        private int skipped;
+        private LocalDateTime finishedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package ma.estfbs.pfe_management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PasswordHashingStatsDTO {
+    private int cost;
+    private int threads;
+    private int activeCount;
+    private int queueSize;
+    private int queueCapacity;
+    private long completedCount;
+    private long rejectedCount;
+}
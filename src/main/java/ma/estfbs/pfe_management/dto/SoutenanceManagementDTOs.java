@@ -5,8 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 
 public class SoutenanceManagementDTOs {
 
@@ -18,6 +20,7 @@ public class SoutenanceManagementDTOs {
         private Long id;
         private LocalDate date;
         private LocalTime heure;
+        private Integer duree;
         private SalleDTO salle;
         private BinomeDTO binome;
         private JuryDTO jury1;
@@ -31,6 +34,7 @@ public class SoutenanceManagementDTOs {
     public static class SoutenanceAddRequest {
         private LocalDate date;
         private String heure;
+        private Integer duree;
         private Long salleId;
         private Long binomeId;
         private Long jury1Id;
@@ -45,6 +49,7 @@ public class SoutenanceManagementDTOs {
         private Long id;
         private LocalDate date;
         private String heure;
+        private Integer duree;
         private Long salleId;
         private Long binomeId;
         private Long jury1Id;
@@ -137,4 +142,88 @@ public class SoutenanceManagementDTOs {
     public static class SalleManagementResponse {
         private List<SalleDTO> salles;
     }
-}
\ No newline at end of file
+    
+    // ============= AUTOMATIC PLANNING =============
+    
+    public enum PlanningStatus {
+        EN_COURS, TERMINE, ECHEC, APPLIQUE
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PlanningRequest {
+        private LocalDate from;
+        private LocalDate to;
+        // First and last minute of the day available for soutenances (HH:mm)
+        private String heureDebut;
+        private String heureFin;
+        private Integer duree;
+        // Restrict the planning to these salles / jury members (all of them when empty)
+        private List<Long> salleIds;
+        private List<Long> juryIds;
+        // Days on which a jury member cannot sit, by jury id
+        private Map<Long, List<LocalDate>> juryIndisponibilites;
+        // Sundays are never planned, Saturdays only on request
+        private boolean samedi;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PlannedSoutenanceDTO {
+        private Long binomeId;
+        private LocalDate date;
+        private LocalTime heure;
+        private Integer duree;
+        private Long salleId;
+        private Long jury1Id;
+        private Long jury2Id;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PlanningStatusDTO {
+        private String id;
+        private PlanningStatus status;
+        // Percentage of solver runs completed
+        private int progress;
+        private String message;
+        private int planned;
+        private List<Long> unplannedBinomeIds;
+        // Soutenances per jury member in the window, existing ones included
+        private int minJuryLoad;
+        private int maxJuryLoad;
+        private List<PlannedSoutenanceDTO> soutenances;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+    }
+    
+    // ============= SPREADSHEET IMPORT =============
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ImportReportDTO {
+        private int total;
+        private int valid;
+        // Rows are only inserted when the whole batch is valid
+        private int inserted;
+        private List<ImportRowErrorDTO> errors;
+    }
+    
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ImportRowErrorDTO {
+        // 1-based position of the row in the batch
+        private int ligne;
+        private List<ValidationError> errors;
+    }
+}
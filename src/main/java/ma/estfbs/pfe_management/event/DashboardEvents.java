@@ -0,0 +1,120 @@
+package ma.estfbs.pfe_management.event;
+
+import java.time.LocalDate;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.model.ProposerSujets;
+import ma.estfbs.pfe_management.model.Utilisateur;
+
+/**
+ * Domain events published by the management services after a write.
+ * They are consumed after commit to keep the dashboard counters and the live
+ * dashboard up to date.
+ */
+public class DashboardEvents {
+
+    /**
+     * An account was created (filiereId is only set for students)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CompteCreated {
+        private final Utilisateur.Role role;
+        private final Long filiereId;
+    }
+
+    /**
+     * An account was deleted (filiereId is only set for students)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CompteDeleted {
+        private final Utilisateur.Role role;
+        private final Long filiereId;
+    }
+
+    /**
+     * A student was moved from one filière to another
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class EtudiantFiliereChanged {
+        private final Long oldFiliereId;
+        private final Long newFiliereId;
+    }
+
+    /**
+     * A binome was formed
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class BinomeCreated {
+        private final Long binomeId;
+    }
+
+    /**
+     * A binome was deleted
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class BinomeDeleted {
+        private final Long binomeId;
+        private final boolean hadSoutenance;
+    }
+
+    /**
+     * A soutenance was scheduled, moved or cancelled.
+     * oldDate is null for a new soutenance, newDate is null for a deleted one.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class SoutenanceChanged {
+        private final Long soutenanceId;
+        private final LocalDate oldDate;
+        private final LocalDate newDate;
+    }
+
+    /**
+     * A sujet was created (delta = 1) or deleted (delta = -1)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class SujetCountChanged {
+        private final int delta;
+    }
+
+    /**
+     * A sujet suggestion was proposed (oldStatus is null) or reviewed
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class SuggestionStatusChanged {
+        private final Long suggestionId;
+        private final ProposerSujets.Status oldStatus;
+        private final ProposerSujets.Status newStatus;
+    }
+
+    /**
+     * A final grade was saved. Old notes are null when the row was inserted.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class NoteFinaleSaved {
+        private final Long etudiantId;
+        private final Integer oldNoteRapport;
+        private final Integer oldNoteSoutenance;
+        private final Integer noteRapport;
+        private final Integer noteSoutenance;
+    }
+
+    /**
+     * An activity of the dashboard feed was committed
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class ActivityRecorded {
+        private final ActivityDTO activity;
+    }
+}
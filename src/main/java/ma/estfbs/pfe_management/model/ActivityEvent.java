@@ -0,0 +1,56 @@
+package ma.estfbs.pfe_management.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One entry of the dashboard activity feed. Rows are only ever inserted.
+ */
+@Entity
+@Immutable
+@Table(name = "activity_event", indexes = {
+    // Feed, newest first, and keyset pages of older events
+    @Index(name = "idx_activity_event_created_at", columnList = "created_at DESC, id DESC")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityEvent {
+
+    public enum Type {
+        USER("pi pi-user-plus"),
+        BINOME("pi pi-users"),
+        SUJET("pi pi-book"),
+        SUGGESTION("pi pi-file"),
+        SOUTENANCE("pi pi-calendar");
+
+        private final String icon;
+
+        Type(String icon) {
+            this.icon = icon;
+        }
+
+        public String getIcon() {
+            return icon;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Column(nullable = false, length = 500)
+    private String description;
+}
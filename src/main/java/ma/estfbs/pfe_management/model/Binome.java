@@ -6,7 +6,26 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Binome")
+@Table(name = "Binome", indexes = {
+    // Binome of a student (either member), of an encadrant, of a sujet
+    @Index(name = "idx_binome_etudiant1", columnList = "etudiant1_id"),
+    @Index(name = "idx_binome_etudiant2", columnList = "etudiant2_id"),
+    @Index(name = "idx_binome_encadrant", columnList = "encadrant_id"),
+    @Index(name = "idx_binome_sujet", columnList = "sujet_id")
+})
+@NamedEntityGraph(name = "Binome.details",
+        attributeNodes = {
+                @NamedAttributeNode("etudiant1"),
+                @NamedAttributeNode("etudiant2"),
+                @NamedAttributeNode("encadrant"),
+                @NamedAttributeNode(value = "sujet", subgraph = "sujet"),
+                @NamedAttributeNode(value = "etudiant1Profil", subgraph = "etudiant"),
+                @NamedAttributeNode(value = "soutenance", subgraph = "soutenance") },
+        subgraphs = {
+                @NamedSubgraph(name = "sujet", attributeNodes = @NamedAttributeNode("filiere")),
+                @NamedSubgraph(name = "etudiant", attributeNodes = @NamedAttributeNode("filiere")),
+                @NamedSubgraph(name = "soutenance", attributeNodes = {
+                        @NamedAttributeNode("salle"), @NamedAttributeNode("jury1"), @NamedAttributeNode("jury2") }) })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +40,13 @@ public class Binome {
     @JoinColumn(name = "etudiant1_id", nullable = false)
     private Utilisateur etudiant1;
     
+    // Student record of etudiant1 (same id), read-only: lets listings fetch the filière with the binome
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "etudiant1_id", insertable = false, updatable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Etudiant etudiant1Profil;
+    
     @ManyToOne
     @JoinColumn(name = "etudiant2_id")
     private Utilisateur etudiant2;
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "DemandeBinome")
+@Table(name = "DemandeBinome", indexes = {
+    // Requests sent / received by a student, per status
+    @Index(name = "idx_demande_binome_demandeur_statut", columnList = "demandeur_id, statut, demande_id"),
+    @Index(name = "idx_demande_binome_demande_statut", columnList = "demande_id, statut, demandeur_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
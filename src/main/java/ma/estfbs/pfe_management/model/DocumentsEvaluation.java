@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "DocumentsEvaluation")
+@Table(name = "DocumentsEvaluation", indexes = {
+    // Latest document of a binome
+    @Index(name = "idx_documents_evaluation_binome", columnList = "binome_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Etudiant")
+@Table(name = "Etudiant", indexes = {
+    // Students of a filière, in id order
+    @Index(name = "idx_etudiant_filiere", columnList = "filiere_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,9 +4,11 @@ import java.util.List;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ma.estfbs.pfe_management.config.ReferenceDataCacheListener;
 
 @Entity
 @Table(name = "Filiere")
+@EntityListeners(ReferenceDataCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
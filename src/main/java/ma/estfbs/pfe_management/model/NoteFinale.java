@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "NoteFinale")
+@Table(name = "NoteFinale", uniqueConstraints = @UniqueConstraint(columnNames = "etudiant_id"), indexes = {
+    // Final grades ranking
+    @Index(name = "idx_note_finale_classement", columnList = "note_rapport, note_soutenance")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +28,13 @@ public class NoteFinale {
     @Column(name = "note_soutenance", nullable = false)
     private Integer noteSoutenance;
     
+    @Column(name = "note_encadrant")
+    private Integer noteEncadrant;
+    
+    // Weighted with the Pourcentage configuration in force when the grades were consolidated
+    @Column(name = "note_finale")
+    private Double noteFinale;
+    
     // Note: The SQL has foreign key references to the 'note' columns in Rapport and NoteSoutenance
     // but in JPA this is better modeled with entity references rather than just the note values
     
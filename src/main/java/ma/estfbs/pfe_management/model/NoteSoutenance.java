@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "NoteSoutenance")
+@Table(name = "NoteSoutenance", indexes = {
+    // Per-soutenance lookups and averages, covering the jury of each note
+    @Index(name = "idx_note_soutenance_soutenance_jury", columnList = "soutenance_id, jury_id"),
+    // Notes given by a jury member
+    @Index(name = "idx_note_soutenance_jury", columnList = "jury_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,8 +27,8 @@ public class NoteSoutenance {
     @Column(nullable = false)
     private Integer note;
     
-    // You might want to add a relationship to the Soutenance
-    // @ManyToOne
-    // @JoinColumn(name = "soutenance_id", nullable = false)
-    // private Soutenance soutenance;
+    // Nullable so that notes recorded before the link existed stay valid
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "soutenance_id")
+    private Soutenance soutenance;
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package ma.estfbs.pfe_management.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ma.estfbs.pfe_management.config.ReferenceDataCacheListener;
 
 @Entity
 @Table(name = "Pourcentage")
+@EntityListeners(ReferenceDataCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,7 +4,12 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "proposer_sujets")
+@Table(name = "proposer_sujets", indexes = {
+    // Suggestions per status (moderation queue, dashboard counter), per student, per filière
+    @Index(name = "idx_proposer_sujets_status", columnList = "status, id"),
+    @Index(name = "idx_proposer_sujets_etudiant", columnList = "etudiant_id"),
+    @Index(name = "idx_proposer_sujets_filiere", columnList = "filiere_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Rapport")
+@Table(name = "Rapport", indexes = {
+    // Latest report of a binome
+    @Index(name = "idx_rapport_binome", columnList = "binome_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,9 +4,13 @@ import java.util.List;
 
 import jakarta.persistence.*;
 import lombok.*;
+import ma.estfbs.pfe_management.config.ReferenceDataCacheListener;
 
 @Entity
-@Table(name = "Salle")
+@Table(name = "Salle", indexes = {
+    @Index(name = "idx_salle_nom", columnList = "nom")
+})
+@EntityListeners(ReferenceDataCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -7,7 +7,29 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Soutenance")
+@Table(name = "Soutenance", indexes = {
+    // Chronological keyset pagination of the soutenance listing
+    @Index(name = "idx_soutenance_date_heure", columnList = "date, heure, id"),
+    // Conflict checks: salle or jury member busy at a date and time
+    @Index(name = "idx_soutenance_salle_date", columnList = "salle_id, date, heure"),
+    @Index(name = "idx_soutenance_jury1_date", columnList = "jury1_id, date, heure"),
+    @Index(name = "idx_soutenance_jury2_date", columnList = "jury2_id, date, heure")
+})
+@NamedEntityGraph(name = "Soutenance.details",
+        attributeNodes = {
+                @NamedAttributeNode("salle"),
+                @NamedAttributeNode("jury1"),
+                @NamedAttributeNode("jury2"),
+                @NamedAttributeNode(value = "binome", subgraph = "binome") },
+        subgraphs = {
+                @NamedSubgraph(name = "binome", attributeNodes = {
+                        @NamedAttributeNode("etudiant1"),
+                        @NamedAttributeNode("etudiant2"),
+                        @NamedAttributeNode("encadrant"),
+                        @NamedAttributeNode(value = "sujet", subgraph = "sujet"),
+                        @NamedAttributeNode(value = "etudiant1Profil", subgraph = "etudiant") }),
+                @NamedSubgraph(name = "sujet", attributeNodes = @NamedAttributeNode("filiere")),
+                @NamedSubgraph(name = "etudiant", attributeNodes = @NamedAttributeNode("filiere")) })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,6 +46,9 @@ public class Soutenance {
     @Column(nullable = false)
     private LocalTime heure;
     
+    // Length in minutes; rows created before durations existed use the configured default
+    private Integer duree;
+    
     @ManyToOne
     @JoinColumn(name = "salle_id", nullable = false)
     private Salle salle;
@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "Sujet")
+@Table(name = "Sujet", indexes = {
+    @Index(name = "idx_sujet_filiere", columnList = "filiere_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
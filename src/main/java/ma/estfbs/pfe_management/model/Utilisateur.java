@@ -12,15 +12,25 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "utilisateur")
+@Table(name = "utilisateur", indexes = {
+    // Account listing: filtered by role, keyset-paginated by name
+    @Index(name = "idx_utilisateur_role_nom", columnList = "role, nom, prenom, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Utilisateur implements UserDetails {
 
+    // Ids are reserved in blocks from the id_generator table so that account inserts can be
+    // sent as JDBC batches (IDENTITY needs one round trip per row to read the generated key)
+    public static final String ID_GENERATOR = "utilisateur";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "utilisateur_ids")
+    @TableGenerator(name = "utilisateur_ids", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = ID_GENERATOR, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String nom;
@@ -41,6 +51,10 @@ public class Utilisateur implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Carried by every JWT; incrementing it revokes all the tokens issued so far
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     // Enum for role type
     public enum Role {
         ADMIN, CHEF_DE_DEPARTEMENT, ETUDIANT, ENCADRANT, JURY
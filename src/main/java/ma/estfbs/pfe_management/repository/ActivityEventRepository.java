@@ -0,0 +1,22 @@
+package ma.estfbs.pfe_management.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import ma.estfbs.pfe_management.model.ActivityEvent;
+
+/**
+ * Activity feed store: events are appended and read, never changed (the entity is immutable)
+ */
+@RepositoryRestResource(exported = false)
+public interface ActivityEventRepository
+        extends Repository<ActivityEvent, Long>, JpaSpecificationExecutor<ActivityEvent> {
+
+    ActivityEvent save(ActivityEvent event);
+
+    List<ActivityEvent> findByOrderByCreatedAtDescIdDesc(Limit limit);
+}
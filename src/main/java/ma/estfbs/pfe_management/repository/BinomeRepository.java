@@ -1,16 +1,21 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.Sujet;
 import ma.estfbs.pfe_management.model.Utilisateur;
 
 @RepositoryRestResource(path = "binome")
-public interface BinomeRepository extends JpaRepository<Binome, Long> {
+public interface BinomeRepository extends JpaRepository<Binome, Long>, JpaSpecificationExecutor<Binome> {
     List<Binome> findByEtudiant1(Utilisateur etudiant);
     List<Binome> findByEtudiant2(Utilisateur etudiant);
     List<Binome> findByEncadrant(Utilisateur encadrant);
@@ -24,4 +29,52 @@ public interface BinomeRepository extends JpaRepository<Binome, Long> {
     
     // Find binome by both students
     Optional<Binome> findByEtudiant1AndEtudiant2(Utilisateur etudiant1, Utilisateur etudiant2);
+    
+    // Listings: the binome with its members, sujet, soutenance and filière in one statement
+    @EntityGraph("Binome.details")
+    @Query("SELECT b FROM Binome b ORDER BY b.id")
+    List<Binome> findAllWithDetails();
+    
+    @EntityGraph("Binome.details")
+    @Query("SELECT b FROM Binome b " +
+           "WHERE b.etudiant1.id IN (SELECT e.id FROM Etudiant e WHERE e.filiere.id = :filiereId) " +
+           "OR b.etudiant2.id IN (SELECT e.id FROM Etudiant e WHERE e.filiere.id = :filiereId) " +
+           "ORDER BY b.id")
+    List<Binome> findWithDetailsByFiliereId(@Param("filiereId") Long filiereId);
+    
+    // Dashboard aggregate: total binomes and how many already have a soutenance
+    @Query("SELECT COUNT(b) AS total, COUNT(s) AS withSoutenance FROM Binome b LEFT JOIN b.soutenance s")
+    BinomeStats aggregateStats();
+
+    // Binome membership without loading the binome graph, ordered so the first binome of a student wins
+    @Query("SELECT b.id AS id, b.etudiant1.id AS etudiant1Id, b.etudiant2.id AS etudiant2Id, " +
+           "b.encadrant.id AS encadrantId, s.id AS soutenanceId " +
+           "FROM Binome b LEFT JOIN b.soutenance s ORDER BY b.id")
+    List<BinomeMembers> findAllMembers();
+    
+    @Query("SELECT b.id AS id, b.etudiant1.id AS etudiant1Id, b.etudiant2.id AS etudiant2Id, " +
+           "b.encadrant.id AS encadrantId, s.id AS soutenanceId " +
+           "FROM Binome b LEFT JOIN b.soutenance s " +
+           "WHERE b.etudiant1.id IN (SELECT e.id FROM Etudiant e WHERE e.filiere.id = :filiereId) " +
+           "OR b.etudiant2.id IN (SELECT e.id FROM Etudiant e WHERE e.filiere.id = :filiereId) " +
+           "ORDER BY b.id")
+    List<BinomeMembers> findMembersByFiliereId(@Param("filiereId") Long filiereId);
+    
+    @Query("SELECT b.id AS id, b.etudiant1.id AS etudiant1Id, b.etudiant2.id AS etudiant2Id, " +
+           "b.encadrant.id AS encadrantId, s.id AS soutenanceId " +
+           "FROM Binome b LEFT JOIN b.soutenance s WHERE b.id IN :ids")
+    List<BinomeMembers> findMembersByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface BinomeMembers {
+        Long getId();
+        Long getEtudiant1Id();
+        Long getEtudiant2Id();
+        Long getEncadrantId();
+        Long getSoutenanceId();
+    }
+
+    interface BinomeStats {
+        long getTotal();
+        long getWithSoutenance();
+    }
 }
@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.DemandeBinome;
 import ma.estfbs.pfe_management.model.Utilisateur;
@@ -29,5 +31,10 @@ List<DemandeBinome> findByDemandeurAndStatut(Utilisateur demandeur, Statut statu
  */
 Optional<DemandeBinome> findByDemandeurAndDemande(Utilisateur demandeur, Utilisateur demande);
 
+    // Receivers of the requests sent by a student with a given status, without loading the requests
+    @Query("SELECT d.demande.id FROM DemandeBinome d WHERE d.demandeur.id = :demandeurId AND d.statut = :statut")
+    List<Long> findDemandeIdsByDemandeurIdAndStatut(@Param("demandeurId") Long demandeurId,
+            @Param("statut") Statut statut);
+
     
 }
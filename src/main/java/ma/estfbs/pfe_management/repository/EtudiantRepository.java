@@ -1,10 +1,18 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import jakarta.persistence.QueryHint;
 import ma.estfbs.pfe_management.model.Etudiant;
 import ma.estfbs.pfe_management.model.Filiere;
 import ma.estfbs.pfe_management.model.Utilisateur;
@@ -13,4 +21,70 @@ import ma.estfbs.pfe_management.model.Utilisateur;
 public interface EtudiantRepository extends JpaRepository<Etudiant, Long> {
     Optional<Etudiant> findByUtilisateur(Utilisateur utilisateur);
     List<Etudiant> findByFiliere(Filiere filiere);
+    
+    // Grade sheet rows: student identity and filière in a single statement
+    @Query("SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.cne AS cne, " +
+           "f.id AS filiereId, f.nom AS filiereNom " +
+           "FROM Etudiant e JOIN e.utilisateur u JOIN e.filiere f " +
+           "ORDER BY e.id")
+    List<EtudiantRow> findAllRows();
+    
+    @Query("SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.cne AS cne, " +
+           "f.id AS filiereId, f.nom AS filiereNom " +
+           "FROM Etudiant e JOIN e.utilisateur u JOIN e.filiere f " +
+           "WHERE f.id = :filiereId " +
+           "ORDER BY e.id")
+    List<EtudiantRow> findRowsByFiliereId(@Param("filiereId") Long filiereId);
+
+    // Filière names of a page of student accounts (Etudiant shares the Utilisateur id)
+    @Query("SELECT e.id AS id, f.nom AS filiereNom FROM Etudiant e JOIN e.filiere f WHERE e.id IN :ids")
+    List<FiliereNameRow> findFiliereNames(@Param("ids") Collection<Long> ids);
+
+    // Grade export: one forward-only row per student having a binome, with the latest rapport note.
+    // Must be consumed inside a transaction; the fetch size lets the driver stream instead of buffering.
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(GRADE_EXPORT_SELECT + "ORDER BY e.id")
+    Stream<GradeExportRow> streamGradeExportRows();
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(GRADE_EXPORT_SELECT + "AND f.id = :filiereId ORDER BY e.id")
+    Stream<GradeExportRow> streamGradeExportRowsByFiliereId(@Param("filiereId") Long filiereId);
+
+    String GRADE_EXPORT_SELECT =
+            "SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.cne AS cne, f.nom AS filiereNom, " +
+            "(SELECT AVG(n.note) FROM NoteSoutenance n WHERE n.soutenance.binome.id = b.id) AS noteSoutenance, " +
+            "(SELECT r.note FROM Rapport r WHERE r.id = " +
+            "(SELECT MAX(r2.id) FROM Rapport r2 WHERE r2.binome.id = b.id)) AS noteRapport " +
+            "FROM Etudiant e JOIN e.utilisateur u JOIN e.filiere f, Binome b " +
+            "WHERE b.id = (SELECT MIN(b2.id) FROM Binome b2 WHERE b2.etudiant1.id = u.id OR b2.etudiant2.id = u.id) ";
+
+    interface GradeExportRow {
+        Long getId();
+        String getNom();
+        String getPrenom();
+        String getCne();
+        String getFiliereNom();
+        Double getNoteSoutenance();
+        Integer getNoteRapport();
+    }
+
+    interface FiliereNameRow {
+        Long getId();
+        String getFiliereNom();
+    }
+
+    interface EtudiantRow {
+        Long getId();
+        String getNom();
+        String getPrenom();
+        String getCne();
+        Long getFiliereId();
+        String getFiliereNom();
+    }
 }
@@ -1,10 +1,26 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.Filiere;
 
 @RepositoryRestResource(path = "filiere")
 public interface FiliereRepository extends JpaRepository<Filiere, Long> {
     boolean existsByNom(String nom);
+    
+    // Dashboard aggregate: number of students per filière, largest first
+    @Query("SELECT f.id AS id, f.nom AS nom, COUNT(e) AS etudiantCount " +
+           "FROM Filiere f LEFT JOIN f.etudiants e " +
+           "GROUP BY f.id, f.nom " +
+           "ORDER BY COUNT(e) DESC")
+    List<FiliereCount> countEtudiantsGroupByFiliere();
+
+    interface FiliereCount {
+        Long getId();
+        String getNom();
+        long getEtudiantCount();
+    }
 }
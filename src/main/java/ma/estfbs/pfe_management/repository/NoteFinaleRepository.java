@@ -1,9 +1,12 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.NoteFinale;
 import ma.estfbs.pfe_management.model.Utilisateur;
@@ -12,4 +15,51 @@ import ma.estfbs.pfe_management.model.Utilisateur;
 public interface NoteFinaleRepository extends JpaRepository<NoteFinale, Long> {
     Optional<NoteFinale> findByEtudiant(Utilisateur etudiant);
     List<NoteFinale> findByOrderByNoteRapportDescNoteSoutenanceDesc();
+    
+    // Dashboard aggregate: average of (rapport + soutenance) / 2 and grade buckets.
+    // Buckets compare the sum against twice the threshold to stay in integer arithmetic.
+    @Query("SELECT COUNT(n) AS total, " +
+           "COALESCE(SUM(n.noteRapport + n.noteSoutenance), 0) AS pointSum, " +
+           "AVG((n.noteRapport + n.noteSoutenance) / 2.0) AS average, " +
+           "COALESCE(SUM(CASE WHEN n.noteRapport + n.noteSoutenance >= 32 THEN 1 ELSE 0 END), 0) AS honors, " +
+           "COALESCE(SUM(CASE WHEN n.noteRapport + n.noteSoutenance >= 28 " +
+           "AND n.noteRapport + n.noteSoutenance < 32 THEN 1 ELSE 0 END), 0) AS good, " +
+           "COALESCE(SUM(CASE WHEN n.noteRapport + n.noteSoutenance >= 20 " +
+           "AND n.noteRapport + n.noteSoutenance < 28 THEN 1 ELSE 0 END), 0) AS pass " +
+           "FROM NoteFinale n")
+    GradeStats aggregateGradeStats();
+
+    // Stored grades of every student, compared against freshly computed ones by the consolidation job
+    @Query("SELECT n.id AS id, n.etudiant.id AS etudiantId, n.noteRapport AS noteRapport, " +
+           "n.noteSoutenance AS noteSoutenance, n.noteEncadrant AS noteEncadrant, n.noteFinale AS noteFinale " +
+           "FROM NoteFinale n")
+    List<StoredNote> findAllStoredNotes();
+
+    // Consolidated final grade of each given student
+    @Query("SELECT n.etudiant.id AS etudiantId, n.noteFinale AS noteFinale FROM NoteFinale n " +
+           "WHERE n.etudiant.id IN :etudiantIds")
+    List<EtudiantNoteFinale> findNotesFinalesByEtudiantIds(@Param("etudiantIds") Collection<Long> etudiantIds);
+
+    interface StoredNote {
+        Long getId();
+        Long getEtudiantId();
+        Integer getNoteRapport();
+        Integer getNoteSoutenance();
+        Integer getNoteEncadrant();
+        Double getNoteFinale();
+    }
+
+    interface EtudiantNoteFinale {
+        Long getEtudiantId();
+        Double getNoteFinale();
+    }
+
+    interface GradeStats {
+        long getTotal();
+        long getPointSum();
+        Double getAverage();
+        long getHonors();
+        long getGood();
+        long getPass();
+    }
 }
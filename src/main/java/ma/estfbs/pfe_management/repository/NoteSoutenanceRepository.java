@@ -1,16 +1,29 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.NoteSoutenance;
+import ma.estfbs.pfe_management.model.Soutenance;
 import ma.estfbs.pfe_management.model.Utilisateur;
 
 @RepositoryRestResource(path = "note-soutenance")
 public interface NoteSoutenanceRepository extends JpaRepository<NoteSoutenance, Long> {
     List<NoteSoutenance> findByJury(Utilisateur jury);
+    List<NoteSoutenance> findBySoutenance(Soutenance soutenance);
+    boolean existsBySoutenance(Soutenance soutenance);
     
-    // You might want to add a relationship to Soutenance and then add:
-    // List<NoteSoutenance> findBySoutenance(Soutenance soutenance);
+    // Average jury note of each given soutenance, one row per graded soutenance
+    @Query("SELECT n.soutenance.id AS soutenanceId, AVG(n.note) AS average " +
+           "FROM NoteSoutenance n WHERE n.soutenance.id IN :soutenanceIds GROUP BY n.soutenance.id")
+    List<SoutenanceAverage> averageNotesBySoutenanceIds(@Param("soutenanceIds") Collection<Long> soutenanceIds);
+
+    interface SoutenanceAverage {
+        Long getSoutenanceId();
+        Double getAverage();
+    }
 }
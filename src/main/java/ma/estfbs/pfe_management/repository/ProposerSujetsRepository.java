@@ -3,14 +3,26 @@ package ma.estfbs.pfe_management.repository;
 import ma.estfbs.pfe_management.model.Filiere;
 import ma.estfbs.pfe_management.model.ProposerSujets;
 import ma.estfbs.pfe_management.model.Utilisateur;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProposerSujetsRepository extends JpaRepository<ProposerSujets, Long> {
+public interface ProposerSujetsRepository extends JpaRepository<ProposerSujets, Long>, JpaSpecificationExecutor<ProposerSujets> {
     List<ProposerSujets> findByEtudiant(Utilisateur etudiant);
     List<ProposerSujets> findByFiliere(Filiere filiere);
     List<ProposerSujets> findByStatus(ProposerSujets.Status status); // Modifié: findByStatut -> findByStatus, Statut -> Status
+    long countByStatus(ProposerSujets.Status status);
+    
+    // Listing: the suggestion with its binome and the binome's filière in one statement
+    @EntityGraph(attributePaths = { "filiere", "etudiant", "binomeProposerPar.etudiant1",
+            "binomeProposerPar.etudiant2", "binomeProposerPar.encadrant", "binomeProposerPar.sujet.filiere",
+            "binomeProposerPar.etudiant1Profil.filiere", "binomeProposerPar.soutenance.salle",
+            "binomeProposerPar.soutenance.jury1", "binomeProposerPar.soutenance.jury2" })
+    @Query("SELECT p FROM ProposerSujets p ORDER BY p.id")
+    List<ProposerSujets> findAllWithDetails();
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package ma.estfbs.pfe_management.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.Rapport;
@@ -14,4 +17,14 @@ public interface RapportRepository extends JpaRepository<Rapport, Long> {
     
     // Find the latest report for a binome
     Rapport findTopByBinomeOrderByIdDesc(Binome binome);
+    
+    // Note of the latest report of each given binome
+    @Query("SELECT r.binome.id AS binomeId, r.note AS note FROM Rapport r " +
+           "WHERE r.id IN (SELECT MAX(r2.id) FROM Rapport r2 WHERE r2.binome.id IN :binomeIds GROUP BY r2.binome.id)")
+    List<BinomeNote> findLatestNotesByBinomeIds(@Param("binomeIds") Collection<Long> binomeIds);
+
+    interface BinomeNote {
+        Long getBinomeId();
+        Integer getNote();
+    }
 }
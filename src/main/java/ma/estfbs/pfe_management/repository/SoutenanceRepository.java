@@ -5,7 +5,9 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
@@ -15,7 +17,7 @@ import ma.estfbs.pfe_management.model.Soutenance;
 import ma.estfbs.pfe_management.model.Utilisateur;
 
 @RepositoryRestResource(path = "soutenance")
-public interface SoutenanceRepository extends JpaRepository<Soutenance, Long> {
+public interface SoutenanceRepository extends JpaRepository<Soutenance, Long>, JpaSpecificationExecutor<Soutenance> {
     Optional<Soutenance> findByBinome(Binome binome);
     Optional<Soutenance> findByBinomeId(Long binomeId);
     List<Soutenance> findByDate(LocalDate date);
@@ -24,6 +26,15 @@ public interface SoutenanceRepository extends JpaRepository<Soutenance, Long> {
     List<Soutenance> findBySalle(Salle salle);
     List<Soutenance> findByJury1OrJury2(Utilisateur jury1, Utilisateur jury2);
     
+    // Listings: the soutenance with its salle, jury and binome (filière included) in one statement
+    @EntityGraph("Soutenance.details")
+    @Query("SELECT s FROM Soutenance s ORDER BY s.date, s.heure, s.id")
+    List<Soutenance> findAllWithDetails();
+    
+    @EntityGraph("Soutenance.details")
+    @Query("SELECT s FROM Soutenance s WHERE s.date BETWEEN :from AND :to ORDER BY s.date, s.heure, s.id")
+    List<Soutenance> findWithDetailsByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
     // Check if a salle is already booked for a specific date and time
     boolean existsBySalleAndDateAndHeure(Salle salle, LocalDate date, LocalTime heure);
     
@@ -38,4 +49,40 @@ public interface SoutenanceRepository extends JpaRepository<Soutenance, Long> {
     // Count soutenances using a specific salle
     @Query("SELECT COUNT(s) FROM Soutenance s WHERE s.salle.id = :salleId")
     long countBySalleId(@Param("salleId") Long salleId);
+    
+    // Dashboard aggregate: total soutenances and those planned from a given date onwards
+    @Query("SELECT COUNT(s) AS total, " +
+           "COALESCE(SUM(CASE WHEN s.date >= :today THEN 1 ELSE 0 END), 0) AS planned " +
+           "FROM Soutenance s")
+    SoutenanceStats aggregateStats(@Param("today") LocalDate today);
+
+    interface SoutenanceStats {
+        long getTotal();
+        long getPlanned();
+    }
+    
+    // Number of soutenances per day, used to seed the in-memory dashboard counters
+    @Query("SELECT s.date AS date, COUNT(s) AS total FROM Soutenance s GROUP BY s.date")
+    List<DateCount> countGroupByDate();
+
+    interface DateCount {
+        LocalDate getDate();
+        long getTotal();
+    }
+    
+    // Time slots of the soutenances in a date window, loaded into the scheduling conflict index
+    @Query("SELECT s.id AS id, s.date AS date, s.heure AS heure, s.duree AS duree, " +
+           "s.salle.id AS salleId, s.jury1.id AS jury1Id, s.jury2.id AS jury2Id " +
+           "FROM Soutenance s WHERE s.date BETWEEN :from AND :to")
+    List<ScheduledSlot> findScheduledSlots(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    interface ScheduledSlot {
+        Long getId();
+        LocalDate getDate();
+        LocalTime getHeure();
+        Integer getDuree();
+        Long getSalleId();
+        Long getJury1Id();
+        Long getJury2Id();
+    }
 }
\ No newline at end of file
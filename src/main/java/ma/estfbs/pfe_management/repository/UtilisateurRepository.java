@@ -3,13 +3,86 @@ package ma.estfbs.pfe_management.repository;
 import java.util.*;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ma.estfbs.pfe_management.model.Utilisateur;
 
-public interface UtilisateurRepository extends JpaRepository<Utilisateur,Long> {
+public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>, JpaSpecificationExecutor<Utilisateur> {
     Optional<Utilisateur> findByEmail(String email);
     
     Optional<Utilisateur> findByEmailAndDateNaissanceAndCni(String email, Date dateNaissance, String cni);
     Optional<Utilisateur> findByEmailAndDateNaissanceAndCne(String email, Date dateNaissance, String cne);
     boolean existsByCni(String cni);  
     boolean existsByCne(String cne);
+
+    // Dashboard aggregate: number of accounts per role, computed in the database
+    @Query("SELECT u.role AS role, COUNT(u) AS total FROM Utilisateur u GROUP BY u.role")
+    List<RoleCount> countGroupByRole();
+
+    // Token version of every account, loaded by the in-memory revocation list
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM Utilisateur u")
+    List<TokenVersion> findAllTokenVersions();
+    
+    // Ids of the accounts of a role, e.g. the jury members available to the automatic planning
+    @Query("SELECT u.id FROM Utilisateur u WHERE u.role = :role ORDER BY u.id")
+    List<Long> findIdsByRole(@Param("role") Utilisateur.Role role);
+    
+    // Which of these ids exist, checked in one query
+    @Query("SELECT u.id FROM Utilisateur u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Bulk account import: uniqueness checked in memory against these
+    @Query("SELECT u.cne FROM Utilisateur u WHERE u.cne IN :cnes")
+    List<String> findExistingCnes(@Param("cnes") Collection<String> cnes);
+    
+    @Query("SELECT u.email FROM Utilisateur u WHERE u.email IS NOT NULL")
+    List<String> findAllEmails();
+
+    // Emails already generated from a local part, read in one range scan of the unique email index
+    @Query("SELECT u.email FROM Utilisateur u WHERE u.email LIKE :#{escape(#prefix)}% ESCAPE :#{escapeCharacter()}")
+    List<String> findEmailsStartingWith(@Param("prefix") String prefix);
+
+    // Students without a binome, filtered by the database instead of loading users and binomes
+    @Query(AVAILABLE_STUDENT_SELECT + "ORDER BY u.id")
+    List<AvailableStudent> findAvailableStudents();
+
+    @Query(AVAILABLE_STUDENT_SELECT + "AND u.id <> :userId ORDER BY u.id")
+    List<AvailableStudent> findAvailableStudentsExcept(@Param("userId") Long userId);
+
+    // Same filière as the requester, without the students who refused one of their requests
+    @Query(AVAILABLE_STUDENT_SELECT + "AND f.id = :filiereId AND u.id <> :userId " +
+           "AND NOT EXISTS (SELECT 1 FROM DemandeBinome d WHERE d.demandeur.id = :userId AND d.demande.id = u.id " +
+           "AND d.statut = ma.estfbs.pfe_management.model.DemandeBinome.Statut.REFUSER) " +
+           "ORDER BY u.id")
+    List<AvailableStudent> findAvailableStudentsInFiliere(@Param("filiereId") Long filiereId,
+            @Param("userId") Long userId);
+
+    // One NOT EXISTS per column so each side can use its foreign key index
+    String AVAILABLE_STUDENT_SELECT =
+            "SELECT u.id AS id, u.nom AS nom, u.prenom AS prenom, u.email AS email, u.cne AS cne, " +
+            "f.nom AS filiereNom " +
+            "FROM Utilisateur u LEFT JOIN Etudiant e ON e.id = u.id LEFT JOIN e.filiere f " +
+            "WHERE u.role = ma.estfbs.pfe_management.model.Utilisateur.Role.ETUDIANT " +
+            "AND NOT EXISTS (SELECT 1 FROM Binome b1 WHERE b1.etudiant1.id = u.id) " +
+            "AND NOT EXISTS (SELECT 1 FROM Binome b2 WHERE b2.etudiant2.id = u.id) ";
+
+    interface AvailableStudent {
+        Long getId();
+        String getNom();
+        String getPrenom();
+        String getEmail();
+        String getCne();
+        String getFiliereNom();
+    }
+
+    interface TokenVersion {
+        Long getId();
+        int getTokenVersion();
+    }
+
+    interface RoleCount {
+        Utilisateur.Role getRole();
+        long getTotal();
+    }
 }
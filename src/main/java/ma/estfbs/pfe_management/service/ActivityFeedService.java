@@ -0,0 +1,199 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.event.DashboardEvents.ActivityRecorded;
+import ma.estfbs.pfe_management.model.ActivityEvent;
+import ma.estfbs.pfe_management.model.ActivityEvent.Type;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.ActivityEventRepository;
+
+/**
+ * Activity feed of the chef dashboard.
+ *
+ * The management services record an event in the transaction of the change it
+ * describes, so the feed never shows a change that was rolled back. The latest
+ * events are kept in a bounded in-memory buffer, filled once from the database
+ * and then fed as recording transactions commit: the dashboard reads it without
+ * any query. Older events are read by keyset pages from the append-only table.
+ * The buffer is reloaded periodically to pick up events of other instances.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityFeedService {
+
+    private static final int MAX_DESCRIPTION = 500;
+    private static final Map<String, List<String>> ACTIVITY_SORTS = Map.of("createdAt", List.of("createdAt"));
+
+    private final ActivityEventRepository activityEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${application.dashboard.activity.buffer-size:50}")
+    private int bufferSize;
+
+    private final DateTimeFormatter timestampFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Guards the latest events below, and their first load from the database
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Latest events, newest first
+    private final ArrayDeque<ActivityDTO> latest = new ArrayDeque<>();
+    private boolean loaded;
+
+    /**
+     * Record an activity in the caller's transaction; it shows in the feed once committed
+     */
+    @Transactional
+    public void record(Type type, String description) {
+        ActivityEvent event = activityEventRepository.save(ActivityEvent.builder()
+                .createdAt(LocalDateTime.now())
+                .type(type)
+                .description(description.length() > MAX_DESCRIPTION
+                        ? description.substring(0, MAX_DESCRIPTION - 1) + "…"
+                        : description)
+                .build());
+        ActivityDTO activity = mapToActivityDTO(event);
+        AfterCommit.run(() -> {
+            append(activity);
+            eventPublisher.publishEvent(new ActivityRecorded(activity));
+        });
+    }
+
+    /**
+     * Get the latest activities, newest first (at most buffer-size)
+     */
+    public List<ActivityDTO> getRecentActivities(Integer limit) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                reload();
+            }
+            int count = limit != null ? Math.max(0, Math.min(limit, latest.size())) : latest.size();
+            List<ActivityDTO> activities = new ArrayList<>(count);
+            for (ActivityDTO activity : latest) {
+                if (activities.size() == count) {
+                    break;
+                }
+                activities.add(activity);
+            }
+            return activities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get one page of the activity history, newest first (cursor, size)
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<ActivityDTO> getActivitiesPage(KeysetPageRequest pageRequest) {
+        Specification<ActivityEvent> all = (root, query, cb) -> null;
+        return KeysetPaging.page(activityEventRepository, all, pageRequest,
+                ACTIVITY_SORTS, "createdAt", Sort.Direction.DESC, this::mapToActivityDTO);
+    }
+
+    /**
+     * Periodically reload the buffer from the database
+     */
+    @Scheduled(
+        initialDelayString = "${application.dashboard.reconcile-interval-ms}",
+        fixedDelayString = "${application.dashboard.reconcile-interval-ms}")
+    public void reload() {
+        lock.lock();
+        try {
+            latest.clear();
+            for (ActivityEvent event : activityEventRepository.findByOrderByCreatedAtDescIdDesc(Limit.of(bufferSize))) {
+                latest.addLast(mapToActivityDTO(event));
+            }
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * "Prénom Nom" of a user, for activity descriptions
+     */
+    static String nomComplet(Utilisateur utilisateur) {
+        return utilisateur.getPrenom() + " " + utilisateur.getNom();
+    }
+
+    /**
+     * Members of a binome, "Prénom Nom et Prénom Nom"
+     */
+    static String membres(Binome binome) {
+        return binome.getEtudiant2() != null
+                ? nomComplet(binome.getEtudiant1()) + " et " + nomComplet(binome.getEtudiant2())
+                : nomComplet(binome.getEtudiant1());
+    }
+
+    /**
+     * Role name as shown in activity descriptions
+     */
+    static String roleName(Role role) {
+        switch (role) {
+            case ETUDIANT:
+                return "étudiant";
+            case ENCADRANT:
+                return "encadrant";
+            case JURY:
+                return "jury";
+            case CHEF_DE_DEPARTEMENT:
+                return "chef de département";
+            default:
+                return role.toString().toLowerCase();
+        }
+    }
+
+    private void append(ActivityDTO activity) {
+        lock.lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            // A reload that ran between the commit and now already has it
+            for (ActivityDTO existing : latest) {
+                if (existing.getId().equals(activity.getId())) {
+                    return;
+                }
+            }
+            latest.addFirst(activity);
+            while (latest.size() > bufferSize) {
+                latest.removeLast();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ActivityDTO mapToActivityDTO(ActivityEvent event) {
+        return ActivityDTO.builder()
+                .id(event.getId())
+                .description(event.getDescription())
+                .timestamp(event.getCreatedAt().format(timestampFormatter))
+                .icon(event.getType().getIcon())
+                .type(event.getType().name().toLowerCase())
+                .build();
+    }
+}
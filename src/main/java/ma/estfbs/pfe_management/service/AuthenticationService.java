@@ -2,6 +2,7 @@ package ma.estfbs.pfe_management.service;
 
 import java.text.Normalizer;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -13,6 +14,8 @@ import ma.estfbs.pfe_management.dto.PasswordResetConfirm;
 import ma.estfbs.pfe_management.dto.PasswordResetRequest;
 import ma.estfbs.pfe_management.dto.AuthResponse;
 import ma.estfbs.pfe_management.dto.RegisterRequest;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Utilisateur;
 import ma.estfbs.pfe_management.repository.UtilisateurRepository;
 
@@ -23,6 +26,9 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Generates standardized email for users based on their first and last name
@@ -70,6 +76,10 @@ public class AuthenticationService {
             .build();
         
         utilisateurRepository.save(utilisateur);
+        eventPublisher.publishEvent(new CompteCreated(utilisateur.getRole(), null));
+        activityFeedService.record(ActivityEvent.Type.USER, String.format("Nouveau compte %s créé pour %s",
+                ActivityFeedService.roleName(utilisateur.getRole()), ActivityFeedService.nomComplet(utilisateur)));
+        tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
         String jwtToken = jwtService.generateToken(utilisateur);
         return AuthResponse.builder().token(jwtToken).build();
     }
@@ -85,6 +95,7 @@ public class AuthenticationService {
         Utilisateur utilisateur = utilisateurRepository.findByEmail(request.getEmail())
             .orElseThrow(() -> new RuntimeException("User not found"));
         
+        tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
         String jwtToken = jwtService.generateToken(utilisateur);
         return AuthResponse.builder().token(jwtToken).build();
     }
@@ -136,9 +147,11 @@ public class AuthenticationService {
             throw new RuntimeException("Invalid or expired token");
         }
         
-        // Update password
+        // Update password and revoke the tokens issued with the old one
         utilisateur.setMotDePasse(passwordEncoder.encode(request.getNewPassword()));
+        utilisateur.setTokenVersion(utilisateur.getTokenVersion() + 1);
         utilisateurRepository.save(utilisateur);
+        tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
         
         // Generate a new regular token for the user
         String newToken = jwtService.generateToken(utilisateur);
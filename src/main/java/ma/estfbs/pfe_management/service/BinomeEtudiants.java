@@ -0,0 +1,30 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.Optional;
+
+import org.hibernate.Hibernate;
+
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+
+/**
+ * Student record (and so the filière) of a binome's first member, shared by the DTO mappers.
+ *
+ * The listing queries fetch it with the binome. A binome read any other way, or whose
+ * first member was just changed, falls back to a lookup by id.
+ */
+final class BinomeEtudiants {
+
+    private BinomeEtudiants() {
+    }
+
+    static Optional<Etudiant> etudiant1(Binome binome, EtudiantRepository etudiantRepository) {
+        Etudiant etudiant1 = binome.getEtudiant1Profil();
+        if (etudiant1 != null && Hibernate.isInitialized(etudiant1)
+                && etudiant1.getId().equals(binome.getEtudiant1().getId())) {
+            return Optional.of(etudiant1);
+        }
+        return etudiantRepository.findById(binome.getEtudiant1().getId());
+    }
+}
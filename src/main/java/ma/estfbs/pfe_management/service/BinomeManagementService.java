@@ -1,12 +1,19 @@
 package ma.estfbs.pfe_management.service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeAddRequest;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeDTO;
@@ -16,9 +23,13 @@ import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.EncadrantDTO;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.StudentDTO;
 import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.SujetDTO;
 import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeDeleted;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.Etudiant;
-import ma.estfbs.pfe_management.model.Filiere;
 import ma.estfbs.pfe_management.model.Sujet;
 import ma.estfbs.pfe_management.model.Utilisateur;
 import ma.estfbs.pfe_management.model.Utilisateur.Role;
@@ -36,7 +47,19 @@ public class BinomeManagementService {
     private final UtilisateurRepository utilisateurRepository;
     private final EtudiantRepository etudiantRepository;
     private final FiliereRepository filiereRepository;
+    private final ReferenceDataService referenceDataService;
     private final SujetRepository sujetRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+
+    // Sort keys accepted by the paginated listing
+    private static final Map<String, List<String>> BINOME_SORTS = Map.of(
+            "id", List.of("id"));
+    
+    // Associations fetched with each page, as in the Binome.details entity graph
+    private static final List<String> BINOME_FETCH = List.of(
+            "etudiant1", "etudiant2", "encadrant", "sujet.filiere", "etudiant1Profil.filiere",
+            "soutenance.salle", "soutenance.jury1", "soutenance.jury2");
 
     /**
      * Get binomes, filieres, available students, encadrants and subjects
@@ -45,34 +68,22 @@ public class BinomeManagementService {
         List<BinomeDTO> binomes;
         
         if (filiereId != null) {
-            // Get binomes filtered by filiere
-            Filiere filiere = filiereRepository.findById(filiereId)
-                    .orElseThrow(() -> new RuntimeException("Filière non trouvée avec l'id: " + filiereId));
-            
-            // Get students in this filiere
-            List<Etudiant> filiereStudents = etudiantRepository.findByFiliere(filiere);
-            List<Utilisateur> filiereUtilisateurs = filiereStudents.stream()
-                    .map(Etudiant::getUtilisateur)
-                    .collect(Collectors.toList());
-            
             // Get binomes where at least one student is from this filiere
-            binomes = binomeRepository.findAll().stream()
-                    .filter(binome -> 
-                        filiereUtilisateurs.contains(binome.getEtudiant1()) || 
-                        (binome.getEtudiant2() != null && filiereUtilisateurs.contains(binome.getEtudiant2())))
+            if (!filiereRepository.existsById(filiereId)) {
+                throw new RuntimeException("Filière non trouvée avec l'id: " + filiereId);
+            }
+            binomes = binomeRepository.findWithDetailsByFiliereId(filiereId).stream()
                     .map(this::mapToBinomeDTO)
                     .collect(Collectors.toList());
         } else {
             // Get all binomes
-            binomes = binomeRepository.findAll().stream()
+            binomes = binomeRepository.findAllWithDetails().stream()
                     .map(this::mapToBinomeDTO)
                     .collect(Collectors.toList());
         }
         
         // Get all filieres
-        List<FiliereDTO> filieres = filiereRepository.findAll().stream()
-                .map(this::mapToFiliereDTO)
-                .collect(Collectors.toList());
+        List<FiliereDTO> filieres = referenceDataService.getFilieres();
         
         // Get available students (those not in a binome)
         List<StudentDTO> availableStudents = getAvailableStudents();
@@ -97,6 +108,31 @@ public class BinomeManagementService {
                 .build();
     }
     
+    /**
+     * Get one page of binomes, optionally those with a student in the given filiere
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<BinomeDTO> getBinomesPage(Long filiereId, KeysetPageRequest pageRequest) {
+        Specification<Binome> specification = (root, query, cb) -> {
+            if (filiereId == null) {
+                return null;
+            }
+            return cb.or(
+                    root.get("etudiant1").get("id").in(etudiantIdsOfFiliere(query, cb, filiereId)),
+                    root.get("etudiant2").get("id").in(etudiantIdsOfFiliere(query, cb, filiereId)));
+        };
+        
+        return KeysetPaging.page(binomeRepository, specification, pageRequest,
+                BINOME_SORTS, "id", Sort.Direction.ASC, BINOME_FETCH, this::mapToBinomeDTO);
+    }
+    
+    private Subquery<Long> etudiantIdsOfFiliere(CriteriaQuery<?> query, CriteriaBuilder cb, Long filiereId) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Etudiant> etudiant = subquery.from(Etudiant.class);
+        return subquery.select(etudiant.get("id"))
+                .where(cb.equal(etudiant.get("filiere").get("id"), filiereId));
+    }
+    
     /**
      * Add a new binome
      */
@@ -142,6 +178,8 @@ public class BinomeManagementService {
                 .build();
         
         binome = binomeRepository.save(binome);
+        eventPublisher.publishEvent(new BinomeCreated(binome.getId()));
+        activityFeedService.record(ActivityEvent.Type.BINOME, "Nouveau binôme: " + ActivityFeedService.membres(binome));
         
         return mapToBinomeDTO(binome);
     }
@@ -174,35 +212,26 @@ public class BinomeManagementService {
      */
     @Transactional
     public void deleteBinome(Long id) {
-        if (!binomeRepository.existsById(id)) {
-            throw new RuntimeException("Binôme non trouvé avec l'id: " + id);
-        }
+        Binome binome = binomeRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Binôme non trouvé avec l'id: " + id));
         
-        binomeRepository.deleteById(id);
+        binomeRepository.delete(binome);
+        eventPublisher.publishEvent(new BinomeDeleted(id, binome.getSoutenance() != null));
+        activityFeedService.record(ActivityEvent.Type.BINOME, "Binôme supprimé: " + ActivityFeedService.membres(binome));
     }
     
     /**
      * Get students that are not in any binome
      */
     private List<StudentDTO> getAvailableStudents() {
-        // Get all students
-        List<Utilisateur> allStudents = utilisateurRepository.findAll().stream()
-                .filter(user -> user.getRole() == Role.ETUDIANT)
-                .collect(Collectors.toList());
-        
-        // Get students already in binomes
-        List<Utilisateur> studentsInBinomes = new ArrayList<>();
-        binomeRepository.findAll().forEach(binome -> {
-            studentsInBinomes.add(binome.getEtudiant1());
-            if (binome.getEtudiant2() != null) {
-                studentsInBinomes.add(binome.getEtudiant2());
-            }
-        });
-        
-        // Filter out students already in binomes
-        return allStudents.stream()
-                .filter(student -> !studentsInBinomes.contains(student))
-                .map(this::mapToStudentDTO)
+        return utilisateurRepository.findAvailableStudents().stream()
+                .map(student -> StudentDTO.builder()
+                        .id(student.getId())
+                        .nom(student.getNom())
+                        .prenom(student.getPrenom())
+                        .email(student.getEmail())
+                        .cne(student.getCne())
+                        .build())
                 .collect(Collectors.toList());
     }
     
@@ -211,7 +240,7 @@ public class BinomeManagementService {
      */
     private BinomeDTO mapToBinomeDTO(Binome binome) {
         // Get filiere from etudiant1
-        Etudiant etudiant1 = etudiantRepository.findByUtilisateur(binome.getEtudiant1())
+        Etudiant etudiant1 = BinomeEtudiants.etudiant1(binome, etudiantRepository)
                 .orElseThrow(() -> new RuntimeException("Étudiant non trouvé pour l'utilisateur: " + binome.getEtudiant1().getId()));
         
         String filiereName = etudiant1.getFiliere().getNom();
@@ -260,14 +289,4 @@ public class BinomeManagementService {
                 .titre(sujet.getTitre())
                 .build();
     }
-    
-    /**
-     * Map Filiere entity to FiliereDTO
-     */
-    private FiliereDTO mapToFiliereDTO(Filiere filiere) {
-        return FiliereDTO.builder()
-                .id(filiere.getId())
-                .nom(filiere.getNom())
-                .build();
-    }
 }
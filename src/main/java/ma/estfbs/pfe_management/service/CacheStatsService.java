@@ -0,0 +1,44 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.CacheStatsDTO;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatsService {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Get hit/miss statistics of every Caffeine cache
+     */
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache == null
+                    || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+                continue;
+            }
+            CacheStats cacheStats = nativeCache.stats();
+            stats.add(CacheStatsDTO.builder()
+                    .name(name)
+                    .size(nativeCache.estimatedSize())
+                    .hitCount(cacheStats.hitCount())
+                    .missCount(cacheStats.missCount())
+                    .hitRate(cacheStats.hitRate())
+                    .evictionCount(cacheStats.evictionCount())
+                    .build());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,250 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteImportResultDTO;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.EtudiantImportRow;
+import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.model.ActivityEvent;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.FiliereRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * Creation of the student accounts of a whole promotion in one request.
+ *
+ * The rows are checked up front: existing CNE and emails are read once into hash sets,
+ * and email collisions (homonyms) are resolved in memory with the same numbering as a
+ * single account creation. Accounts are then created chunk by chunk: passwords are
+ * hashed in parallel on the password hashing pool, the Utilisateur and Etudiant rows
+ * are inserted as JDBC batches and committed, and the result of every row of the chunk
+ * is handed to the caller. A chunk that fails to commit only fails its own rows.
+ *
+ * The generated passwords are never logged or stored in clear: they are only part of
+ * the results, for the chef to hand them to the students.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompteImportService {
+
+    private static final int MAX_ROWS = 5000;
+    private static final int CHUNK_SIZE = 500;
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final EtudiantRepository etudiantRepository;
+    private final FiliereRepository filiereRepository;
+    private final ReferenceDataService referenceDataService;
+    private final PasswordHashingService passwordHashingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /**
+     * Check the rows and assign their emails, without creating anything
+     */
+    @Transactional(readOnly = true)
+    public PreparedImport prepareImport(List<EtudiantImportRow> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new RuntimeException("Aucun compte à importer");
+        }
+        if (rows.size() > MAX_ROWS) {
+            throw new RuntimeException("Un import ne peut pas dépasser " + MAX_ROWS + " comptes");
+        }
+
+        Set<Long> filieres = referenceDataService.getFilieres().stream()
+                .map(FiliereDTO::getId)
+                .collect(Collectors.toSet());
+        Set<String> cnes = rows.stream()
+                .map(EtudiantImportRow::getCne)
+                .filter(cne -> cne != null && !cne.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toSet());
+        Set<String> takenCnes = cnes.isEmpty() ? new HashSet<>() : new HashSet<>(utilisateurRepository.findExistingCnes(cnes));
+        Set<String> takenEmails = new HashSet<>(utilisateurRepository.findAllEmails());
+        Map<String, Integer> nextSuffix = new HashMap<>();
+
+        List<PreparedRow> prepared = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            EtudiantImportRow row = rows.get(i);
+            String error = validate(row, filieres);
+            if (error == null && !takenCnes.add(row.getCne().trim())) {
+                error = "CNE déjà utilisé";
+            }
+            String email = error == null ? assignEmail(row, takenEmails, nextSuffix) : null;
+            prepared.add(new PreparedRow(i + 1, row, email, error));
+        }
+        return new PreparedImport(prepared);
+    }
+
+    /**
+     * Create the accounts of the valid rows, reporting the rows chunk by chunk as they are committed
+     */
+    public void executeImport(PreparedImport preparedImport, Consumer<List<CompteImportResultDTO>> results) {
+        List<PreparedRow> rows = preparedImport.rows;
+        int created = 0;
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            List<PreparedRow> chunk = rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size()));
+            List<CompteImportResultDTO> chunkResults = importChunk(chunk);
+            created += (int) chunkResults.stream().filter(result -> result.getId() != null).count();
+            results.accept(chunkResults);
+        }
+        log.info("Import de comptes étudiants: {} créés sur {}", created, rows.size());
+    }
+
+    private List<CompteImportResultDTO> importChunk(List<PreparedRow> chunk) {
+        List<PreparedRow> valid = chunk.stream().filter(row -> row.error == null).toList();
+
+        // Hashing dominates the cost of an account, spread it over the hashing pool
+        List<String> passwords = new ArrayList<>(valid.size());
+        for (int i = 0; i < valid.size(); i++) {
+            passwords.add(CompteManagementService.generateRandomPassword(CompteManagementService.PASSWORD_LENGTH));
+        }
+
+        Map<Integer, Long> ids = new HashMap<>();
+        Map<Integer, String> generated = new HashMap<>();
+        String chunkError = null;
+        try {
+            List<String> hashes = passwordHashingService.encodeAll(passwords);
+            List<Utilisateur> utilisateurs = new ArrayList<>(valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                utilisateurs.add(toUtilisateur(valid.get(i), hashes.get(i)));
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                utilisateurRepository.saveAll(utilisateurs);
+                List<Etudiant> etudiants = new ArrayList<>(valid.size());
+                for (int i = 0; i < valid.size(); i++) {
+                    etudiants.add(Etudiant.builder()
+                            .utilisateur(utilisateurs.get(i))
+                            .filiere(filiereRepository.getReferenceById(valid.get(i).row.getFiliereId()))
+                            .build());
+                }
+                etudiantRepository.saveAll(etudiants);
+
+                for (int i = 0; i < valid.size(); i++) {
+                    Utilisateur utilisateur = utilisateurs.get(i);
+                    ids.put(valid.get(i).ligne, utilisateur.getId());
+                    generated.put(valid.get(i).ligne, passwords.get(i));
+                    eventPublisher.publishEvent(new CompteCreated(Role.ETUDIANT, valid.get(i).row.getFiliereId()));
+                    tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
+                }
+                // One entry per chunk, a bulk import would otherwise flood the feed
+                activityFeedService.record(ActivityEvent.Type.USER,
+                        String.format("%d comptes étudiant importés", valid.size()));
+            });
+        } catch (RuntimeException e) {
+            log.warn("Échec de l'enregistrement des lignes {} à {}: {}",
+                    chunk.get(0).ligne, chunk.get(chunk.size() - 1).ligne, e.getMessage());
+            chunkError = "Erreur lors de l'enregistrement du compte";
+            ids.clear();
+            generated.clear();
+        }
+
+        List<CompteImportResultDTO> results = new ArrayList<>(chunk.size());
+        for (PreparedRow row : chunk) {
+            Long id = ids.get(row.ligne);
+            results.add(CompteImportResultDTO.builder()
+                    .ligne(row.ligne)
+                    .id(id)
+                    .email(id != null ? row.email : null)
+                    .motDePasse(generated.get(row.ligne))
+                    .error(row.error != null ? row.error : id == null ? chunkError : null)
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * First problem of a row on its own, or null
+     */
+    private String validate(EtudiantImportRow row, Set<Long> filieres) {
+        if (row.getNom() == null || row.getNom().trim().isEmpty()) {
+            return "Le nom est obligatoire";
+        }
+        if (row.getPrenom() == null || row.getPrenom().trim().isEmpty()) {
+            return "Le prénom est obligatoire";
+        }
+        if (row.getDateNaissance() == null) {
+            return "La date de naissance est obligatoire";
+        }
+        if (row.getCne() == null || row.getCne().trim().isEmpty()) {
+            return "Le CNE est obligatoire pour les étudiants";
+        }
+        if (row.getFiliereId() == null) {
+            return "La filière est obligatoire pour les étudiants";
+        }
+        if (!filieres.contains(row.getFiliereId())) {
+            return "Filière non trouvée avec l'id: " + row.getFiliereId();
+        }
+        return null;
+    }
+
+    /**
+     * Same emails as one-by-one creation: the bare name first, then the name followed by 1, 2, ...
+     */
+    private String assignEmail(EtudiantImportRow row, Set<String> takenEmails, Map<String, Integer> nextSuffix) {
+        String localPart = CompteManagementService.emailLocalPart(row.getPrenom(), row.getNom());
+        String email = localPart + CompteManagementService.EMAIL_DOMAIN;
+        if (takenEmails.add(email)) {
+            return email;
+        }
+        // Homonyms in the same import continue from the last suffix instead of probing from 1 again
+        int suffix = nextSuffix.getOrDefault(localPart, 1);
+        while (!takenEmails.add(email = localPart + suffix + CompteManagementService.EMAIL_DOMAIN)) {
+            suffix++;
+        }
+        nextSuffix.put(localPart, suffix + 1);
+        return email;
+    }
+
+    private Utilisateur toUtilisateur(PreparedRow prepared, String passwordHash) {
+        EtudiantImportRow row = prepared.row;
+        return Utilisateur.builder()
+                .nom(row.getNom().trim())
+                .prenom(row.getPrenom().trim())
+                .email(prepared.email)
+                .cne(row.getCne().trim())
+                .dateNaissance(row.getDateNaissance())
+                .motDePasse(passwordHash)
+                .role(Role.ETUDIANT)
+                .build();
+    }
+
+    /**
+     * Rows checked by prepareImport, ready to be created
+     */
+    public static final class PreparedImport {
+
+        private final List<PreparedRow> rows;
+
+        private PreparedImport(List<PreparedRow> rows) {
+            this.rows = rows;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    private record PreparedRow(int ligne, EtudiantImportRow row, String email, String error) {
+    }
+}
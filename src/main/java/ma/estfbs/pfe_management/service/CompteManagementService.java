@@ -2,27 +2,47 @@ package ma.estfbs.pfe_management.service;
 
 import java.security.SecureRandom;
 import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteAddRequest;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteDTO;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteEditRequest;
 import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteManagementResponse;
 import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.EtudiantFiliereChanged;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Etudiant;
 import ma.estfbs.pfe_management.model.Filiere;
 import ma.estfbs.pfe_management.model.Utilisateur;
 import ma.estfbs.pfe_management.model.Utilisateur.Role;
 import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.EtudiantRepository.FiliereNameRow;
 import ma.estfbs.pfe_management.repository.FiliereRepository;
 import ma.estfbs.pfe_management.repository.UtilisateurRepository;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CompteManagementService {
@@ -30,11 +50,29 @@ public class CompteManagementService {
     private final UtilisateurRepository utilisateurRepository;
     private final EtudiantRepository etudiantRepository;
     private final FiliereRepository filiereRepository;
+    private final ReferenceDataService referenceDataService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
     
     // Characters used for random password generation
     private static final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*";
     private static final SecureRandom RANDOM = new SecureRandom();
+    
+    static final String EMAIL_DOMAIN = ".efb@usms.ac.ma";
+    static final int PASSWORD_LENGTH = 10;
+    
+    // Each round of concurrent homonyms creates at least one of them: n homonyms at once need
+    // n attempts for the last one
+    private static final int MAX_CREATE_ATTEMPTS = 5;
+
+    // Sort keys accepted by the paginated listing
+    private static final Map<String, List<String>> COMPTE_SORTS = Map.of(
+            "id", List.of("id"),
+            "nom", List.of("nom", "prenom"),
+            "email", List.of("email"));
 
     /**
      * Get accounts by role
@@ -57,9 +95,7 @@ public class CompteManagementService {
                     .collect(Collectors.toList());
         }
         
-        List<FiliereDTO> filieres = filiereRepository.findAll().stream()
-                .map(this::mapToFiliereDTO)
-                .collect(Collectors.toList());
+        List<FiliereDTO> filieres = referenceDataService.getFilieres();
         
         return CompteManagementResponse.builder()
                 .comptes(comptes)
@@ -68,18 +104,73 @@ public class CompteManagementService {
     }
     
     /**
-     * Add a new account
+     * Get one page of accounts, optionally filtered by role and by a search on nom, prénom or email
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<CompteDTO> getComptesPage(Role role, String search, KeysetPageRequest pageRequest) {
+        List<Role> roles = role != null ? List.of(role) : List.of(Role.ETUDIANT, Role.ENCADRANT, Role.JURY);
+        
+        Specification<Utilisateur> specification = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(root.get("role").in(roles));
+            if (search != null && !search.isBlank()) {
+                String pattern = "%" + search.trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("nom")), pattern),
+                        cb.like(cb.lower(root.get("prenom")), pattern),
+                        cb.like(cb.lower(root.get("email")), pattern)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        
+        KeysetPageDTO<CompteDTO> page = KeysetPaging.page(utilisateurRepository, specification, pageRequest,
+                COMPTE_SORTS, "id", Sort.Direction.ASC, utilisateur -> toCompteDTO(utilisateur, null));
+        
+        // Filières of the page's students in one query rather than one per row
+        List<Long> etudiantIds = page.getItems().stream()
+                .filter(compte -> compte.getRole() == Role.ETUDIANT)
+                .map(CompteDTO::getId)
+                .toList();
+        if (!etudiantIds.isEmpty()) {
+            Map<Long, String> filiereNames = etudiantRepository.findFiliereNames(etudiantIds).stream()
+                    .collect(Collectors.toMap(FiliereNameRow::getId, FiliereNameRow::getFiliereNom));
+            page.getItems().forEach(compte -> compte.setFiliereName(filiereNames.get(compte.getId())));
+        }
+        return page;
+    }
+    
+    /**
+     * Add a new account; its generated password is returned to the caller only, never logged
      */
-    @Transactional
     public CompteDTO addCompte(CompteAddRequest request) {
+        // Hashed once, outside the transaction, whatever the number of attempts
+        String password = generateRandomPassword(PASSWORD_LENGTH);
+        String motDePasse = passwordEncoder.encode(password);
+        
+        // Two homonyms created at the same time can be given the same email: the unique index
+        // rejects the second one, which is retried with the email computed again
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Utilisateur utilisateur = transactionTemplate.execute(status -> createCompte(request, motDePasse));
+                
+                CompteDTO compte = mapToCompteDTO(utilisateur);
+                compte.setMotDePasse(password);
+                return compte;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_CREATE_ATTEMPTS) {
+                    throw new RuntimeException("Erreur lors de la création du compte, veuillez réessayer");
+                }
+                log.debug("Création du compte {} {} en conflit, nouvelle tentative", request.getPrenom(), request.getNom());
+            }
+        }
+    }
+    
+    private Utilisateur createCompte(CompteAddRequest request, String motDePasse) {
         validateCompteRequest(request);
         
         // Generate email from nom and prenom
         String email = generateEmail(request.getPrenom(), request.getNom());
         
-        // Generate random password
-        String password = generateRandomPassword(10);
-        
         // Create user entity
         Utilisateur utilisateur = Utilisateur.builder()
                 .nom(request.getNom())
@@ -88,11 +179,11 @@ public class CompteManagementService {
                 .cni(request.getRole() != Role.ETUDIANT ? request.getCni() : null)
                 .cne(request.getRole() == Role.ETUDIANT ? request.getCne() : null)
                 .dateNaissance(request.getDateNaissance())
-                .motDePasse(passwordEncoder.encode(password))
+                .motDePasse(motDePasse)
                 .role(request.getRole())
                 .build();
         
-        utilisateur = utilisateurRepository.save(utilisateur);
+        utilisateur = utilisateurRepository.saveAndFlush(utilisateur);
         
         // If the role is ETUDIANT, create an Etudiant entity
         if (request.getRole() == Role.ETUDIANT) {
@@ -107,12 +198,13 @@ public class CompteManagementService {
             etudiantRepository.save(etudiant);
         }
         
-        // TODO: In a real application, send the generated password to the user via email
-        // For now, we'll just print it to the console for testing
-        System.out.println("Generated email: " + email);
-        System.out.println("Generated password: " + password);
+        eventPublisher.publishEvent(new CompteCreated(
+                request.getRole(), request.getRole() == Role.ETUDIANT ? request.getFiliereId() : null));
+        activityFeedService.record(ActivityEvent.Type.USER, String.format("Nouveau compte %s créé pour %s",
+                ActivityFeedService.roleName(utilisateur.getRole()), ActivityFeedService.nomComplet(utilisateur)));
+        tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
         
-        return mapToCompteDTO(utilisateur);
+        return utilisateur;
     }
     
     /**
@@ -161,8 +253,13 @@ public class CompteManagementService {
             Filiere filiere = filiereRepository.findById(request.getFiliereId())
                     .orElseThrow(() -> new RuntimeException("Filière non trouvée avec l'id: " + request.getFiliereId()));
             
+            Long oldFiliereId = etudiant.getFiliere() != null ? etudiant.getFiliere().getId() : null;
             etudiant.setFiliere(filiere);
             etudiantRepository.save(etudiant);
+            
+            if (!filiere.getId().equals(oldFiliereId)) {
+                eventPublisher.publishEvent(new EtudiantFiliereChanged(oldFiliereId, filiere.getId()));
+            }
         }
         
         return mapToCompteDTO(utilisateur);
@@ -177,14 +274,20 @@ public class CompteManagementService {
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'id: " + id));
         
         // If the role is ETUDIANT, we need to delete the Etudiant entity first
+        Long filiereId = null;
         if (utilisateur.getRole() == Role.ETUDIANT) {
             Etudiant etudiant = etudiantRepository.findByUtilisateur(utilisateur)
                     .orElseThrow(() -> new RuntimeException("Étudiant non trouvé pour l'utilisateur: " + id));
             
+            filiereId = etudiant.getFiliere() != null ? etudiant.getFiliere().getId() : null;
             etudiantRepository.delete(etudiant);
         }
         
         utilisateurRepository.deleteById(id);
+        eventPublisher.publishEvent(new CompteDeleted(utilisateur.getRole(), filiereId));
+        activityFeedService.record(ActivityEvent.Type.USER, String.format("Compte %s de %s supprimé",
+                ActivityFeedService.roleName(utilisateur.getRole()), ActivityFeedService.nomComplet(utilisateur)));
+        tokenRevocationService.forget(id);
     }
     
     /**
@@ -235,6 +338,41 @@ public class CompteManagementService {
      * Generate email from first and last name
      */
     private String generateEmail(String prenom, String nom) {
+        String localPart = emailLocalPart(prenom, nom);
+        return firstFreeEmail(localPart, utilisateurRepository.findEmailsStartingWith(localPart));
+    }
+    
+    /**
+     * First email not in use for a local part: the bare name, then the name followed by 1, 2, ...
+     */
+    static String firstFreeEmail(String localPart, Collection<String> existingEmails) {
+        boolean bareTaken = false;
+        Set<Integer> takenSuffixes = new HashSet<>();
+        for (String existing : existingEmails) {
+            if (!existing.startsWith(localPart) || !existing.endsWith(EMAIL_DOMAIN)) {
+                continue;
+            }
+            String suffix = existing.substring(localPart.length(), existing.length() - EMAIL_DOMAIN.length());
+            if (suffix.isEmpty()) {
+                bareTaken = true;
+            } else if (suffix.length() < 10 && suffix.chars().allMatch(Character::isDigit)) {
+                takenSuffixes.add(Integer.parseInt(suffix));
+            }
+        }
+        if (!bareTaken) {
+            return localPart + EMAIL_DOMAIN;
+        }
+        int counter = 1;
+        while (takenSuffixes.contains(counter)) {
+            counter++;
+        }
+        return localPart + counter + EMAIL_DOMAIN;
+    }
+    
+    /**
+     * First and last name without accents, spaces or capitals, as used in the generated emails
+     */
+    static String emailLocalPart(String prenom, String nom) {
         // Remove accents and special characters
         String normalizedPrenom = Normalizer.normalize(prenom.toLowerCase(), Normalizer.Form.NFD)
                 .replaceAll("[^\\p{ASCII}]", "");
@@ -245,23 +383,13 @@ public class CompteManagementService {
         normalizedPrenom = normalizedPrenom.replaceAll("\\s+", "");
         normalizedNom = normalizedNom.replaceAll("\\s+", "");
         
-        String email = normalizedPrenom + normalizedNom + ".efb@usms.ac.ma";
-        
-        // Check if email already exists, add number if needed
-        int counter = 1;
-        String baseEmail = email;
-        while (utilisateurRepository.findByEmail(email).isPresent()) {
-            email = normalizedPrenom + normalizedNom + counter + ".efb@usms.ac.ma";
-            counter++;
-        }
-        
-        return email;
+        return normalizedPrenom + normalizedNom;
     }
     
     /**
      * Generate random password
      */
-    private String generateRandomPassword(int length) {
+    static String generateRandomPassword(int length) {
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
             sb.append(CHARS.charAt(RANDOM.nextInt(CHARS.length())));
@@ -285,6 +413,10 @@ public class CompteManagementService {
             }
         }
         
+        return toCompteDTO(utilisateur, filiereName);
+    }
+    
+    private static CompteDTO toCompteDTO(Utilisateur utilisateur, String filiereName) {
         return CompteDTO.builder()
                 .id(utilisateur.getId())
                 .nom(utilisateur.getNom())
@@ -297,14 +429,4 @@ public class CompteManagementService {
                 .filiereName(filiereName)
                 .build();
     }
-    
-    /**
-     * Map Filiere entity to FiliereDTO
-     */
-    private FiliereDTO mapToFiliereDTO(Filiere filiere) {
-        return FiliereDTO.builder()
-                .id(filiere.getId())
-                .nom(filiere.getNom())
-                .build();
-    }
 }
@@ -0,0 +1,91 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+
+/**
+ * Builds the whole chef dashboard in one response. Its parts (statistics, upcoming
+ * soutenances, recent activities) are independent and are fetched in parallel, each
+ * in a read-only transaction. A part that fails or is not ready in time is replaced
+ * by its last known value (or left empty) and named in the degraded parts,
+ * so one slow query delays the dashboard by the timeout at most.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardAssemblyService {
+
+    public static final String STATS = "stats";
+    public static final String UPCOMING_SOUTENANCES = "upcomingSoutenances";
+    public static final String ACTIVITIES = "activities";
+
+    private final DashboardStatsService dashboardStatsService;
+    private final HODDashboardService hodDashboardService;
+    private final ActivityFeedService activityFeedService;
+    private final ParallelQueryService parallelQueryService;
+
+    @Value("${application.dashboard.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    // Last value of each part, served when it fails or times out
+    private final AtomicReference<DashboardStatsDTO> lastStats = new AtomicReference<>();
+    private final AtomicReference<List<UpcomingSoutenanceDTO>> lastUpcoming = new AtomicReference<>(List.of());
+    private final AtomicReference<List<ActivityDTO>> lastActivities = new AtomicReference<>(List.of());
+
+    /**
+     * Get the statistics, upcoming soutenances and recent activities of the dashboard
+     */
+    public DashboardDTO getDashboard() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        CompletableFuture<DashboardStatsDTO> stats = parallelQueryService.submit(dashboardStatsService::getDashboardStats);
+        CompletableFuture<List<UpcomingSoutenanceDTO>> upcoming = parallelQueryService.submit(
+                hodDashboardService::getUpcomingSoutenances);
+        CompletableFuture<List<ActivityDTO>> activities = parallelQueryService.submit(
+                () -> activityFeedService.getRecentActivities(null));
+
+        List<String> degraded = new ArrayList<>();
+        return DashboardDTO.builder()
+                .stats(await(STATS, stats, deadline, lastStats, degraded))
+                .upcomingSoutenances(await(UPCOMING_SOUTENANCES, upcoming, deadline, lastUpcoming, degraded))
+                .activities(await(ACTIVITIES, activities, deadline, lastActivities, degraded))
+                .degraded(degraded)
+                .build();
+    }
+
+    /**
+     * Wait for a part until the deadline, falling back to its last value
+     */
+    private <T> T await(String part, CompletableFuture<T> future, long deadline, AtomicReference<T> last,
+            List<String> degraded) {
+        try {
+            T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            last.set(value);
+            return value;
+        } catch (TimeoutException e) {
+            log.warn("Tableau de bord: {} non disponible après {} ms, dernière valeur servie", part, timeoutMillis);
+        } catch (ExecutionException e) {
+            log.warn("Tableau de bord: échec du chargement de {}, dernière valeur servie", part, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // A late result still becomes the fallback of the next requests
+        future.thenAccept(last::set);
+        degraded.add(part);
+        return last.get();
+    }
+}
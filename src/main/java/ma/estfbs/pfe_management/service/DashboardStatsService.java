@@ -0,0 +1,438 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DriftEntryDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.FiliereStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.StatsDriftDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.EtudiantFiliereChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.NoteFinaleSaved;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SuggestionStatusChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SujetCountChanged;
+import ma.estfbs.pfe_management.model.ProposerSujets;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.BinomeRepository;
+import ma.estfbs.pfe_management.repository.BinomeRepository.BinomeStats;
+import ma.estfbs.pfe_management.repository.FiliereRepository;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository.GradeStats;
+import ma.estfbs.pfe_management.repository.ProposerSujetsRepository;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository;
+import ma.estfbs.pfe_management.repository.SujetRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * In-memory materialized dashboard statistics.
+ *
+ * Counters are seeded from the database on first use, then updated from the
+ * domain events published by the management services once their transaction
+ * commits. Reads return a prebuilt snapshot. A periodic reconciliation reloads
+ * everything from the database to absorb writes that bypass the services
+ * (Spring Data REST endpoints, manual SQL).
+ *
+ * A reload must not run between the commit of a change and the event of that change,
+ * or the change would be counted by both. Transactions publishing events hold the
+ * commit gate from just before their commit until their events are applied, and
+ * loads wait for the gate to be free.
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardStatsService {
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final BinomeRepository binomeRepository;
+    private final SujetRepository sujetRepository;
+    private final ProposerSujetsRepository proposerSujetsRepository;
+    private final SoutenanceRepository soutenanceRepository;
+    private final NoteFinaleRepository noteFinaleRepository;
+    private final FiliereRepository filiereRepository;
+    private final HODDashboardService hodDashboardService;
+
+    private final DateTimeFormatter timestampFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Guards the counters below
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Shared by the transactions committing counted changes, exclusive for a load
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    // Materialized counters, all guarded by lock
+    private final Map<Role, Long> usersByRole = new HashMap<>();
+    private final TreeMap<LocalDate, Long> soutenancesByDate = new TreeMap<>();
+    private final Map<Long, FiliereStatsDTO> filieres = new LinkedHashMap<>();
+    private long totalBinomes;
+    private long binomesWithSoutenance;
+    private long totalSujets;
+    private long pendingSuggestions;
+    private long totalSoutenances;
+    private long gradeCount;
+    private long gradePointSum;
+    private long honorsCount;
+    private long goodCount;
+    private long passCount;
+    private boolean loaded;
+
+    // Published snapshot, rebuilt on every change so reads are constant time
+    private volatile DashboardStatsDTO snapshot;
+    private volatile LocalDate snapshotDate;
+    private volatile LocalDateTime lastReconciledAt;
+
+    /**
+     * Get the current dashboard statistics without touching the database
+     * (except for the very first call, or after an unknown filière was seen)
+     */
+    public DashboardStatsDTO getDashboardStats() {
+        DashboardStatsDTO current = snapshot;
+        if (current != null && LocalDate.now().equals(snapshotDate)) {
+            return current;
+        }
+        return refreshSnapshot();
+    }
+
+    /**
+     * Compare the in-memory statistics with a fresh database aggregation
+     */
+    public StatsDriftDTO getDrift() {
+        DashboardStatsDTO cached = getDashboardStats();
+        DashboardStatsDTO actual = hodDashboardService.getDashboardStats();
+
+        List<DriftEntryDTO> differences = new ArrayList<>();
+        compare(differences, "totalUsers", cached.getTotalUsers(), actual.getTotalUsers());
+        compare(differences, "totalStudents", cached.getTotalStudents(), actual.getTotalStudents());
+        compare(differences, "totalSupervisors", cached.getTotalSupervisors(), actual.getTotalSupervisors());
+        compare(differences, "totalJuries", cached.getTotalJuries(), actual.getTotalJuries());
+        compare(differences, "totalBinomes", cached.getTotalBinomes(), actual.getTotalBinomes());
+        compare(differences, "binomesWithSoutenance", cached.getBinomesWithSoutenance(), actual.getBinomesWithSoutenance());
+        compare(differences, "totalSujets", cached.getTotalSujets(), actual.getTotalSujets());
+        compare(differences, "pendingSuggestions", cached.getPendingSuggestions(), actual.getPendingSuggestions());
+        compare(differences, "totalSoutenances", cached.getTotalSoutenances(), actual.getTotalSoutenances());
+        compare(differences, "plannedSoutenances", cached.getPlannedSoutenances(), actual.getPlannedSoutenances());
+        compare(differences, "completedSoutenances", cached.getCompletedSoutenances(), actual.getCompletedSoutenances());
+        compare(differences, "honorsCount", cached.getHonorsCount(), actual.getHonorsCount());
+        compare(differences, "goodCount", cached.getGoodCount(), actual.getGoodCount());
+        compare(differences, "passCount", cached.getPassCount(), actual.getPassCount());
+        compare(differences, "totalFilieres", cached.getTotalFilieres(), actual.getTotalFilieres());
+
+        // Averages are computed differently on each side, ignore rounding noise
+        if (Math.abs(cached.getAverageGrade() - actual.getAverageGrade()) > 1e-6) {
+            differences.add(new DriftEntryDTO("averageGrade",
+                    String.valueOf(cached.getAverageGrade()), String.valueOf(actual.getAverageGrade())));
+        }
+
+        Map<Long, FiliereStatsDTO> cachedFilieres = cached.getFilieres().stream()
+                .collect(Collectors.toMap(FiliereStatsDTO::getId, Function.identity()));
+        for (FiliereStatsDTO filiere : actual.getFilieres()) {
+            FiliereStatsDTO cachedFiliere = cachedFilieres.get(filiere.getId());
+            compare(differences, "filieres[" + filiere.getNom() + "].etudiantCount",
+                    cachedFiliere != null ? cachedFiliere.getEtudiantCount() : null,
+                    filiere.getEtudiantCount());
+        }
+
+        return StatsDriftDTO.builder()
+                .inSync(differences.isEmpty())
+                .checkedAt(LocalDateTime.now().format(timestampFormatter))
+                .lastReconciledAt(lastReconciledAt != null ? lastReconciledAt.format(timestampFormatter) : null)
+                .differences(differences)
+                .build();
+    }
+
+    /**
+     * Periodically rebuild the counters from the database
+     */
+    @Scheduled(
+        initialDelayString = "${application.dashboard.reconcile-interval-ms}",
+        fixedDelayString = "${application.dashboard.reconcile-interval-ms}")
+    public void reconcile() {
+        commitGate.writeLock().lock();
+        lock.lock();
+        try {
+            reload();
+            publishSnapshot();
+            lastReconciledAt = LocalDateTime.now();
+        } finally {
+            lock.unlock();
+            commitGate.writeLock().unlock();
+        }
+    }
+
+    // ============= DOMAIN EVENT HANDLERS =============
+
+    /**
+     * Count a domain event once its transaction commits. The events of a transaction are
+     * applied together at its completion, before it releases the commit gate.
+     */
+    @EventListener({ CompteCreated.class, CompteDeleted.class, EtudiantFiliereChanged.class, BinomeCreated.class,
+            BinomeDeleted.class, SoutenanceChanged.class, SujetCountChanged.class, SuggestionStatusChanged.class,
+            NoteFinaleSaved.class })
+    public void onCountedEvent(Object event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(event));
+            return;
+        }
+        CommitGateHold hold = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(CommitGateHold.class::isInstance)
+                .map(CommitGateHold.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    CommitGateHold registered = new CommitGateHold();
+                    TransactionSynchronizationManager.registerSynchronization(registered);
+                    return registered;
+                });
+        hold.events.add(event);
+    }
+
+    private void apply(List<Object> events) {
+        lock.lock();
+        try {
+            for (Object event : events) {
+                if (!loaded) return;
+                if (event instanceof CompteCreated created) {
+                    usersByRole.merge(created.getRole(), 1L, Long::sum);
+                    adjustFiliere(created.getFiliereId(), 1);
+                } else if (event instanceof CompteDeleted deleted) {
+                    usersByRole.merge(deleted.getRole(), -1L, Long::sum);
+                    adjustFiliere(deleted.getFiliereId(), -1);
+                } else if (event instanceof EtudiantFiliereChanged changed) {
+                    adjustFiliere(changed.getOldFiliereId(), -1);
+                    adjustFiliere(changed.getNewFiliereId(), 1);
+                } else if (event instanceof BinomeCreated) {
+                    totalBinomes++;
+                } else if (event instanceof BinomeDeleted deleted) {
+                    totalBinomes--;
+                    if (deleted.isHadSoutenance()) {
+                        binomesWithSoutenance--;
+                    }
+                } else if (event instanceof SoutenanceChanged changed) {
+                    if (changed.getOldDate() != null) {
+                        soutenancesByDate.merge(changed.getOldDate(), -1L, (x, y) -> x + y == 0 ? null : x + y);
+                        totalSoutenances--;
+                        binomesWithSoutenance--;
+                    }
+                    if (changed.getNewDate() != null) {
+                        soutenancesByDate.merge(changed.getNewDate(), 1L, Long::sum);
+                        totalSoutenances++;
+                        binomesWithSoutenance++;
+                    }
+                } else if (event instanceof SujetCountChanged changed) {
+                    totalSujets += changed.getDelta();
+                } else if (event instanceof SuggestionStatusChanged changed) {
+                    if (changed.getOldStatus() == ProposerSujets.Status.EN_ATTENTE) {
+                        pendingSuggestions--;
+                    }
+                    if (changed.getNewStatus() == ProposerSujets.Status.EN_ATTENTE) {
+                        pendingSuggestions++;
+                    }
+                } else if (event instanceof NoteFinaleSaved saved) {
+                    adjustGrade(saved.getOldNoteRapport(), saved.getOldNoteSoutenance(), -1);
+                    adjustGrade(saved.getNoteRapport(), saved.getNoteSoutenance(), 1);
+                }
+            }
+        } finally {
+            publishSnapshot();
+            lock.unlock();
+        }
+    }
+
+    // ============= INTERNAL STATE =============
+
+    private DashboardStatsDTO refreshSnapshot() {
+        // A thread holding the gate cannot wait for it (a listener at the completion of its transaction)
+        boolean gated = commitGate.getReadHoldCount() == 0;
+        if (gated) {
+            commitGate.writeLock().lock();
+        }
+        lock.lock();
+        try {
+            if (!loaded) {
+                reload();
+            }
+            publishSnapshot();
+            return snapshot;
+        } finally {
+            lock.unlock();
+            if (gated) {
+                commitGate.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Load every counter from the database (same aggregates as HODDashboardService)
+     */
+    private void reload() {
+        usersByRole.clear();
+        utilisateurRepository.countGroupByRole()
+                .forEach(roleCount -> usersByRole.put(roleCount.getRole(), roleCount.getTotal()));
+
+        BinomeStats binomeStats = binomeRepository.aggregateStats();
+        totalBinomes = binomeStats.getTotal();
+        binomesWithSoutenance = binomeStats.getWithSoutenance();
+
+        totalSujets = sujetRepository.count();
+        pendingSuggestions = proposerSujetsRepository.countByStatus(ProposerSujets.Status.EN_ATTENTE);
+
+        soutenancesByDate.clear();
+        totalSoutenances = 0;
+        for (SoutenanceRepository.DateCount dateCount : soutenanceRepository.countGroupByDate()) {
+            soutenancesByDate.put(dateCount.getDate(), dateCount.getTotal());
+            totalSoutenances += dateCount.getTotal();
+        }
+
+        GradeStats gradeStats = noteFinaleRepository.aggregateGradeStats();
+        gradeCount = gradeStats.getTotal();
+        gradePointSum = gradeStats.getPointSum();
+        honorsCount = gradeStats.getHonors();
+        goodCount = gradeStats.getGood();
+        passCount = gradeStats.getPass();
+
+        filieres.clear();
+        filiereRepository.countEtudiantsGroupByFiliere().forEach(f -> filieres.put(f.getId(),
+                FiliereStatsDTO.builder()
+                        .id(f.getId())
+                        .nom(f.getNom())
+                        .etudiantCount((int) f.getEtudiantCount())
+                        .build()));
+
+        loaded = true;
+    }
+
+    private void publishSnapshot() {
+        if (!loaded) {
+            // An event referenced data we do not know about, reload on next read
+            snapshot = null;
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        long managedUsers = usersByRole.entrySet().stream()
+                .filter(e -> e.getKey() != Role.CHEF_DE_DEPARTEMENT && e.getKey() != Role.ADMIN)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        long plannedSoutenances = soutenancesByDate.tailMap(today, true).values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        List<FiliereStatsDTO> filiereStats = filieres.values().stream()
+                .map(f -> FiliereStatsDTO.builder()
+                        .id(f.getId())
+                        .nom(f.getNom())
+                        .etudiantCount(f.getEtudiantCount())
+                        .build())
+                .sorted(Comparator.comparing(FiliereStatsDTO::getEtudiantCount).reversed())
+                .collect(Collectors.toList());
+
+        snapshot = DashboardStatsDTO.builder()
+                .totalUsers((int) managedUsers)
+                .totalStudents(usersByRole.getOrDefault(Role.ETUDIANT, 0L).intValue())
+                .totalSupervisors(usersByRole.getOrDefault(Role.ENCADRANT, 0L).intValue())
+                .totalJuries(usersByRole.getOrDefault(Role.JURY, 0L).intValue())
+                .totalBinomes((int) totalBinomes)
+                .binomesWithSoutenance((int) binomesWithSoutenance)
+                .totalSujets((int) totalSujets)
+                .pendingSuggestions((int) pendingSuggestions)
+                .totalSoutenances((int) totalSoutenances)
+                .plannedSoutenances((int) plannedSoutenances)
+                .completedSoutenances((int) (totalSoutenances - plannedSoutenances))
+                .averageGrade(gradeCount == 0 ? 0.0 : gradePointSum / (2.0 * gradeCount))
+                .honorsCount((int) honorsCount)
+                .goodCount((int) goodCount)
+                .passCount((int) passCount)
+                .totalFilieres(filiereStats.size())
+                .filieres(filiereStats)
+                .build();
+        snapshotDate = today;
+    }
+
+    private void adjustFiliere(Long filiereId, int delta) {
+        if (filiereId == null) {
+            return;
+        }
+        FiliereStatsDTO filiere = filieres.get(filiereId);
+        if (filiere == null) {
+            // Filière created outside the services, only a reload knows its name
+            loaded = false;
+            return;
+        }
+        filiere.setEtudiantCount(filiere.getEtudiantCount() + delta);
+    }
+
+    /**
+     * Same buckets as the database aggregate: (rapport + soutenance) / 2 compared to 16, 14 and 10
+     */
+    private void adjustGrade(Integer noteRapport, Integer noteSoutenance, int delta) {
+        if (noteRapport == null || noteSoutenance == null) {
+            return;
+        }
+        int points = noteRapport + noteSoutenance;
+        gradeCount += delta;
+        gradePointSum += (long) delta * points;
+        if (points >= 32) {
+            honorsCount += delta;
+        } else if (points >= 28) {
+            goodCount += delta;
+        } else if (points >= 20) {
+            passCount += delta;
+        }
+    }
+
+    private void compare(List<DriftEntryDTO> differences, String field, Object cached, Object actual) {
+        if (!Objects.equals(cached, actual)) {
+            differences.add(new DriftEntryDTO(field, String.valueOf(cached), String.valueOf(actual)));
+        }
+    }
+
+    /**
+     * Events of one transaction, waiting for its commit
+     */
+    private class CommitGateHold implements TransactionSynchronization {
+
+        private final List<Object> events = new ArrayList<>();
+        private boolean held;
+
+        @Override
+        public void beforeCompletion() {
+            commitGate.readLock().lock();
+            held = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (status == STATUS_COMMITTED) {
+                    apply(events);
+                }
+            } finally {
+                if (held) {
+                    commitGate.readLock().unlock();
+                }
+            }
+        }
+    }
+}
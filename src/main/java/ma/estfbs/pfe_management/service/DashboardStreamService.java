@@ -0,0 +1,452 @@
+package ma.estfbs.pfe_management.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.config.CorrelationIdFilter;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.ActivityRecorded;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.EtudiantFiliereChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.NoteFinaleSaved;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SuggestionStatusChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SujetCountChanged;
+
+/**
+ * Live chef dashboard over Server-Sent Events.
+ *
+ * A subscriber first receives the whole dashboard ("init"), then only what changed:
+ * "stats" with the fields of the statistics that differ from the previous push,
+ * "upcoming-soutenances" with the new list, "activities" with the new feed entries.
+ *
+ * Changes are collected from the domain events and pushed once per coalescing window,
+ * computed once for all subscribers; nothing runs while nothing changes, apart from a
+ * heartbeat comment that keeps idle connections open. Each subscriber has its own
+ * outbox holding at most one message of each kind: a client that reads slowly gets
+ * the merged changes once it catches up, and is dropped if it stays stuck.
+ *
+ * Writes are blocking servlet writes: a client that stops reading holds a send thread
+ * until the stall timeout drops it, or until Tomcat's write timeout fails the write.
+ * The other subscribers are only held back once every send thread is stuck this way
+ * (their changes keep merging in their outboxes meanwhile), so send-threads should
+ * exceed the number of clients expected to stall at the same time.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardStreamService {
+
+    static final String INIT = "init";
+    static final String STATS = "stats";
+    static final String UPCOMING_SOUTENANCES = "upcoming-soutenances";
+    static final String ACTIVITIES = "activities";
+
+    private final DashboardStatsService dashboardStatsService;
+    private final HODDashboardService hodDashboardService;
+    private final ActivityFeedService activityFeedService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.dashboard.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${application.dashboard.stream.coalesce-ms:500}")
+    private long coalesceMillis;
+
+    @Value("${application.dashboard.stream.send-threads:2}")
+    private int sendThreads;
+
+    @Value("${application.dashboard.stream.heartbeat-ms:25000}")
+    private long heartbeatMillis;
+
+    @Value("${application.dashboard.stream.stall-timeout-ms:30000}")
+    private long stallTimeoutMillis;
+
+    @Value("${application.dashboard.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${application.dashboard.activity.buffer-size:50}")
+    private int activityLimit;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Flushes, subscriber initialization and heartbeats, one at a time
+    private ScheduledExecutorService scheduler;
+    // Writes to the connections; a subscriber is written by one task at a time
+    private ThreadPoolExecutor senders;
+
+    // Changes since the last flush, guarded by "this"
+    private boolean statsChanged;
+    private boolean upcomingChanged;
+    private List<ActivityDTO> newActivities = new ArrayList<>();
+    private boolean flushScheduled;
+
+    // What the subscribers were last sent, only used on the scheduler thread
+    private DashboardStatsDTO lastStats;
+    private List<UpcomingSoutenanceDTO> lastUpcoming;
+    private LocalDate lastUpcomingDay;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger sequence = new AtomicInteger();
+        senders = new ThreadPoolExecutor(sendThreads, sendThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-stream-send-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * Open a live dashboard connection
+     */
+    public SseEmitter subscribe() {
+        return register(new SseEmitter(emitterTimeoutMillis));
+    }
+
+    SseEmitter register(SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Trop de tableaux de bord connectés, veuillez réessayer dans un instant");
+        }
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        scheduler.execute(CorrelationIdFilter.propagate(() -> initialize(subscriber)));
+        return emitter;
+    }
+
+    /**
+     * Number of open live dashboards
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // ============= DOMAIN EVENT HANDLERS =============
+
+    @TransactionalEventListener(fallbackExecution = true, classes = { CompteCreated.class, CompteDeleted.class,
+            EtudiantFiliereChanged.class, BinomeCreated.class, BinomeDeleted.class, SujetCountChanged.class,
+            SuggestionStatusChanged.class, NoteFinaleSaved.class })
+    public synchronized void onStatsChanged() {
+        statsChanged = true;
+        scheduleFlush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSoutenanceChanged(SoutenanceChanged event) {
+        statsChanged = true;
+        upcomingChanged = true;
+        scheduleFlush();
+    }
+
+    // Published once the recording transaction has committed
+    @EventListener
+    public synchronized void onActivityRecorded(ActivityRecorded event) {
+        if (newActivities.size() < activityLimit) {
+            newActivities.add(0, event.getActivity());
+        }
+        scheduleFlush();
+    }
+
+    // ============= PUSH =============
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            // Logged under the request whose change opened the window
+            scheduler.schedule(CorrelationIdFilter.propagate(this::flush), coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Compute the changes of the window once and hand them to every subscriber
+     */
+    private void flush() {
+        boolean stats;
+        boolean upcoming;
+        List<ActivityDTO> activities;
+        synchronized (this) {
+            flushScheduled = false;
+            stats = statsChanged;
+            upcoming = upcomingChanged;
+            activities = newActivities;
+            statsChanged = false;
+            upcomingChanged = false;
+            newActivities = new ArrayList<>();
+        }
+        if (subscribers.isEmpty()) {
+            // Nothing to compare with any more, the next subscriber starts from a fresh state
+            lastStats = null;
+            lastUpcoming = null;
+            return;
+        }
+
+        Map<String, Object> messages = new LinkedHashMap<>();
+        if (stats && lastStats != null) {
+            DashboardStatsDTO current = dashboardStatsService.getDashboardStats();
+            ObjectNode delta = statsDelta(lastStats, current);
+            lastStats = current;
+            if (!delta.isEmpty()) {
+                messages.put(STATS, delta);
+            }
+        }
+        if ((upcoming || upcomingOutdated()) && lastUpcoming != null) {
+            List<UpcomingSoutenanceDTO> current = upcomingSoutenances();
+            if (!current.equals(lastUpcoming)) {
+                messages.put(UPCOMING_SOUTENANCES, current);
+            }
+            lastUpcoming = current;
+        }
+        if (!activities.isEmpty()) {
+            messages.put(ACTIVITIES, activities);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.ready) {
+                for (Map.Entry<String, Object> message : messages.entrySet()) {
+                    subscriber.offer(message.getKey(), message.getValue(), activityLimit);
+                }
+                send(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Send the whole dashboard to a new subscriber, on the scheduler thread so that
+     * it is consistent with the base of the next deltas
+     */
+    private void initialize(Subscriber subscriber) {
+        // Brings the other subscribers, and the last pushed state, up to date with the
+        // current statistics (they also change on reconciliation, without any event)
+        synchronized (this) {
+            statsChanged = true;
+        }
+        flush();
+        if (lastStats == null) {
+            lastStats = dashboardStatsService.getDashboardStats();
+        }
+        if (lastUpcoming == null || upcomingOutdated()) {
+            lastUpcoming = upcomingSoutenances();
+        }
+        subscriber.offer(INIT, DashboardDTO.builder()
+                .stats(lastStats)
+                .upcomingSoutenances(lastUpcoming)
+                .activities(activityFeedService.getRecentActivities(null))
+                .build(), activityLimit);
+        subscriber.ready = true;
+        send(subscriber);
+    }
+
+    /**
+     * Keep idle connections open, notice closed ones, drop the subscribers stuck on a write
+     */
+    private void heartbeat() {
+        long now = System.nanoTime();
+        Iterator<Subscriber> iterator = subscribers.iterator();
+        while (iterator.hasNext()) {
+            Subscriber subscriber = iterator.next();
+            if (subscriber.stalledFor(now) > TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis)) {
+                log.info("Tableau de bord en direct déconnecté: aucun envoi possible depuis {} ms", stallTimeoutMillis);
+                iterator.remove();
+                subscriber.emitter.complete();
+            } else if (subscriber.ready) {
+                subscriber.offerHeartbeat();
+                send(subscriber);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        if (!subscriber.startSending()) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Left in the outbox, retried on the next flush or heartbeat
+            subscriber.stopSending();
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Map.Entry<String, Object> message;
+        while ((message = subscriber.next()) != null) {
+            try {
+                SseEmitter.SseEventBuilder event = Subscriber.HEARTBEAT.equals(message.getKey())
+                        ? SseEmitter.event().comment("")
+                        : SseEmitter.event().name(message.getKey()).data(message.getValue(), MediaType.APPLICATION_JSON);
+                subscriber.emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Closed by the client
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fields of the statistics whose value changed
+     */
+    private ObjectNode statsDelta(DashboardStatsDTO previous, DashboardStatsDTO current) {
+        ObjectNode before = objectMapper.valueToTree(previous);
+        ObjectNode after = objectMapper.valueToTree(current);
+        ObjectNode delta = objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = after.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().equals(before.get(field.getKey()))) {
+                delta.set(field.getKey(), field.getValue());
+            }
+        }
+        return delta;
+    }
+
+    private List<UpcomingSoutenanceDTO> upcomingSoutenances() {
+        lastUpcomingDay = LocalDate.now();
+        return hodDashboardService.getUpcomingSoutenances();
+    }
+
+    // The list covers the next 7 days from today
+    private boolean upcomingOutdated() {
+        return lastUpcomingDay != null && !lastUpcomingDay.equals(LocalDate.now());
+    }
+
+    /**
+     * One connection and its outbox: the latest message of each kind not sent yet
+     */
+    private static final class Subscriber {
+
+        static final String HEARTBEAT = "heartbeat";
+
+        final SseEmitter emitter;
+        // Set on the scheduler thread once the init message is queued
+        volatile boolean ready;
+
+        // Guarded by "this"
+        private final LinkedHashMap<String, Object> outbox = new LinkedHashMap<>();
+        private boolean sending;
+        private long lastProgress;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Queue a message, merged with the pending one of the same kind
+         */
+        @SuppressWarnings("unchecked")
+        synchronized void offer(String name, Object value, int activityLimit) {
+            Object pending = outbox.get(name);
+            if (pending == null) {
+                outbox.put(name, value);
+            } else if (STATS.equals(name)) {
+                ObjectNode merged = ((ObjectNode) pending).deepCopy();
+                merged.setAll((ObjectNode) value);
+                outbox.put(name, merged);
+            } else if (ACTIVITIES.equals(name)) {
+                List<ActivityDTO> merged = new ArrayList<>((List<ActivityDTO>) value);
+                merged.addAll((List<ActivityDTO>) pending);
+                outbox.put(name, merged.size() > activityLimit ? merged.subList(0, activityLimit) : merged);
+            } else {
+                outbox.put(name, value);
+            }
+        }
+
+        synchronized void offerHeartbeat() {
+            // Only needed on an idle connection
+            if (outbox.isEmpty() && !sending) {
+                outbox.put(HEARTBEAT, "");
+            }
+        }
+
+        synchronized boolean startSending() {
+            if (sending || outbox.isEmpty()) {
+                return false;
+            }
+            sending = true;
+            lastProgress = System.nanoTime();
+            return true;
+        }
+
+        synchronized void stopSending() {
+            sending = false;
+        }
+
+        /**
+         * Next message to send, or null (and no longer sending) once the outbox is empty
+         */
+        synchronized Map.Entry<String, Object> next() {
+            Iterator<Map.Entry<String, Object>> iterator = outbox.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                sending = false;
+                return null;
+            }
+            Map.Entry<String, Object> first = iterator.next();
+            Map.Entry<String, Object> message = Map.entry(first.getKey(), first.getValue());
+            iterator.remove();
+            lastProgress = System.nanoTime();
+            return message;
+        }
+
+        synchronized long stalledFor(long now) {
+            return sending ? now - lastProgress : 0;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package ma.estfbs.pfe_management.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import ma.estfbs.pfe_management.dto.EtudiantBinomeDTOs.*;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeCreated;
 import ma.estfbs.pfe_management.model.*;
 import ma.estfbs.pfe_management.model.DemandeBinome.Statut;
 import ma.estfbs.pfe_management.repository.*;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository.AvailableStudent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +17,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EtudiantBinomeService {
@@ -23,6 +28,8 @@ public class EtudiantBinomeService {
     private final EtudiantRepository etudiantRepository;
     private final SujetRepository sujetRepository;
     private final JwtService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
 
     /**
      * Check the binome status for the current student
@@ -71,32 +78,32 @@ public class EtudiantBinomeService {
             // Get current user from JWT token
             String token = jwtService.getTokenFromRequest();
             Long userId = jwtService.extractUserId(token);
-            System.out.println("Getting pending requests for user ID: " + userId);
+            log.debug("Getting pending requests for user ID: {}", userId);
             
             Utilisateur currentUser = utilisateurRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
             
             // Get pending requests where current user is the demande (receiver)
             List<DemandeBinome> pendingRequests = demandeBinomeRepository.findByDemandeAndStatut(currentUser, Statut.EN_ATTENTE);
-            System.out.println("Found " + pendingRequests.size() + " pending requests for user: " + currentUser.getEmail());
+            log.debug("Found {} pending requests for user: {}", pendingRequests.size(), currentUser.getEmail());
             
             // Map to DTOs
             List<PendingRequestDTO> requestDTOs = pendingRequests.stream()
                     .map(this::mapToPendingRequestDTO)
                     .collect(Collectors.toList());
             
-            // Debug output
-            for (PendingRequestDTO request : requestDTOs) {
-                System.out.println("Pending request from: " + request.getDemandeur().getPrenom() + " " + 
-                        request.getDemandeur().getNom() + " (ID: " + request.getId() + ")");
+            if (log.isTraceEnabled()) {
+                for (PendingRequestDTO request : requestDTOs) {
+                    log.trace("Pending request from: {} {} (ID: {})", request.getDemandeur().getPrenom(),
+                            request.getDemandeur().getNom(), request.getId());
+                }
             }
             
             return BinomeRequestResponse.builder()
                     .pendingRequests(requestDTOs)
                     .build();
         } catch (Exception e) {
-            System.err.println("Error in getPendingRequests: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in getPendingRequests: {}", e.getMessage(), e);
             return BinomeRequestResponse.builder()
                     .pendingRequests(new ArrayList<>())
                     .build();
@@ -143,7 +150,10 @@ public class EtudiantBinomeService {
                     .encadrant(encadrant) // Add an encadrant
                     .build();
             
-            binomeRepository.save(binome);
+            binome = binomeRepository.save(binome);
+            eventPublisher.publishEvent(new BinomeCreated(binome.getId()));
+            activityFeedService.record(ActivityEvent.Type.BINOME, String.format("Nouveau binôme: %s et %s",
+                    ActivityFeedService.nomComplet(demande.getDemandeur()), ActivityFeedService.nomComplet(currentUser)));
             
             // Reject all other pending requests for both students
             rejectAllOtherRequests(demande.getDemandeur(), currentUser);
@@ -162,57 +172,36 @@ public class EtudiantBinomeService {
             // Get current user from JWT token
             String token = jwtService.getTokenFromRequest();
             Long userId = jwtService.extractUserId(token);
-            System.out.println("Current user ID: " + userId);
-            
-            Utilisateur currentUser = utilisateurRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-            System.out.println("Found user: " + currentUser.getEmail());
+            log.debug("Current user ID: {}", userId);
             
-            // Get all ETUDIANT users except current user
-            List<Utilisateur> allStudents = utilisateurRepository.findAll().stream()
-                    .filter(user -> user.getRole() == Utilisateur.Role.ETUDIANT)
-                    .filter(user -> !user.getId().equals(userId))
-                    .collect(Collectors.toList());
-            System.out.println("Found " + allStudents.size() + " total students excluding current user");
-            
-            // Get all students in binomes (either as etudiant1 or etudiant2)
-            List<Utilisateur> studentsInBinomes = new ArrayList<>();
-            binomeRepository.findAll().forEach(binome -> {
-                if (binome.getEtudiant1() != null) {
-                    studentsInBinomes.add(binome.getEtudiant1());
-                }
-                if (binome.getEtudiant2() != null) {
-                    studentsInBinomes.add(binome.getEtudiant2());
-                }
-            });
-            System.out.println("Found " + studentsInBinomes.size() + " students already in binomes");
+            if (!utilisateurRepository.existsById(userId)) {
+                throw new RuntimeException("Utilisateur non trouvé");
+            }
             
-            // Filter available students (not in binomes)
-            List<StudentDTO> availableStudents = allStudents.stream()
-                    .filter(user -> !studentsInBinomes.contains(user))
+            // Students without a binome, except the current user (anti-join in the database)
+            List<StudentDTO> availableStudents = utilisateurRepository.findAvailableStudentsExcept(userId).stream()
                     .map(this::mapToStudentDTO)
                     .collect(Collectors.toList());
             
-            System.out.println("Final available students count: " + availableStudents.size());
-            for (StudentDTO student : availableStudents) {
-                System.out.println("Available student: " + student.getPrenom() + " " + student.getNom() + 
-                    " (ID: " + student.getId() + ", Email: " + student.getEmail() + ")");
+            log.debug("Final available students count: {}", availableStudents.size());
+            if (log.isTraceEnabled()) {
+                for (StudentDTO student : availableStudents) {
+                    log.trace("Available student: {} {} (ID: {}, Email: {})", student.getPrenom(), student.getNom(),
+                            student.getId(), student.getEmail());
+                }
             }
             
             // Get rejected students
-            List<DemandeBinome> rejectedRequests = demandeBinomeRepository.findByDemandeurAndStatut(currentUser, Statut.REFUSER);
-            List<Long> rejectedStudentIds = rejectedRequests.stream()
-                    .map(demande -> demande.getDemande().getId())
-                    .collect(Collectors.toList());
+            List<Long> rejectedStudentIds = demandeBinomeRepository.findDemandeIdsByDemandeurIdAndStatut(
+                    userId, Statut.REFUSER);
             
             return AvailableStudentsResponse.builder()
                     .availableStudents(availableStudents)
-                    .hasRejectedRequests(!rejectedRequests.isEmpty())
+                    .hasRejectedRequests(!rejectedStudentIds.isEmpty())
                     .rejectedStudentIds(rejectedStudentIds)
                     .build();
         } catch (Exception e) {
-            System.err.println("Error in getAvailableStudents: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error in getAvailableStudents: {}", e.getMessage(), e);
             return AvailableStudentsResponse.builder()
                     .availableStudents(new ArrayList<>())
                     .hasRejectedRequests(false)
@@ -230,7 +219,7 @@ public class EtudiantBinomeService {
             // Get current user from JWT token
             String token = jwtService.getTokenFromRequest();
             Long userId = jwtService.extractUserId(token);
-            System.out.println("Sending binome request from user ID: " + userId + " to user ID: " + request.getReceiverId());
+            log.debug("Sending binome request from user ID: {} to user ID: {}", userId, request.getReceiverId());
             
             Utilisateur currentUser = utilisateurRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -268,10 +257,9 @@ public class EtudiantBinomeService {
                     .build();
             
             demandeBinomeRepository.save(demande);
-            System.out.println("Successfully saved binome request with ID: " + demande.getId());
+            log.debug("Saved binome request with ID: {}", demande.getId());
         } catch (Exception e) {
-            System.err.println("Error in sendBinomeRequest: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error in sendBinomeRequest: {}", e.getMessage());
             throw e;
         }
     }
@@ -285,7 +273,7 @@ public class EtudiantBinomeService {
             // Get current user from JWT token
             String token = jwtService.getTokenFromRequest();
             Long userId = jwtService.extractUserId(token);
-            System.out.println("Creating solo binome for user ID: " + userId);
+            log.debug("Creating solo binome for user ID: {}", userId);
             
             Utilisateur currentUser = utilisateurRepository.findById(userId)
                     .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
@@ -309,18 +297,18 @@ public class EtudiantBinomeService {
                     .build();
             
             binome = binomeRepository.save(binome);
+            eventPublisher.publishEvent(new BinomeCreated(binome.getId()));
+            activityFeedService.record(ActivityEvent.Type.BINOME,
+                    "Nouveau binôme individuel: " + ActivityFeedService.nomComplet(currentUser));
             
             // Reject all pending requests for this student
             List<DemandeBinome> pendingRequests = demandeBinomeRepository.findByDemandeAndStatut(currentUser, Statut.EN_ATTENTE);
-            pendingRequests.forEach(request -> {
-                request.setStatut(Statut.REFUSER);
-                demandeBinomeRepository.save(request);
-            });
+            pendingRequests.forEach(request -> request.setStatut(Statut.REFUSER));
+            demandeBinomeRepository.saveAll(pendingRequests);
             
             return mapToBinomeDTO(binome);
         } catch (Exception e) {
-            System.err.println("Error in createSoloBinome: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Error in createSoloBinome: {}", e.getMessage());
             throw e;
         }
     }
@@ -394,33 +382,16 @@ public class EtudiantBinomeService {
      * Reject all pending requests for both students
      */
     private void rejectAllOtherRequests(Utilisateur student1, Utilisateur student2) {
-        // Reject all pending requests where these students are receivers
-        List<DemandeBinome> pendingRequestsForStudent1 = demandeBinomeRepository.findByDemandeAndStatut(student1, Statut.EN_ATTENTE);
-        List<DemandeBinome> pendingRequestsForStudent2 = demandeBinomeRepository.findByDemandeAndStatut(student2, Statut.EN_ATTENTE);
-        
-        pendingRequestsForStudent1.forEach(request -> {
-            request.setStatut(Statut.REFUSER);
-            demandeBinomeRepository.save(request);
-        });
-        
-        pendingRequestsForStudent2.forEach(request -> {
-            request.setStatut(Statut.REFUSER);
-            demandeBinomeRepository.save(request);
-        });
-        
-        // Reject all pending requests where these students are senders
-        List<DemandeBinome> pendingRequestsFromStudent1 = demandeBinomeRepository.findByDemandeurAndStatut(student1, Statut.EN_ATTENTE);
-        List<DemandeBinome> pendingRequestsFromStudent2 = demandeBinomeRepository.findByDemandeurAndStatut(student2, Statut.EN_ATTENTE);
+        // Reject all pending requests where these students are receivers or senders
+        List<DemandeBinome> pendingRequests = new ArrayList<>();
+        pendingRequests.addAll(demandeBinomeRepository.findByDemandeAndStatut(student1, Statut.EN_ATTENTE));
+        pendingRequests.addAll(demandeBinomeRepository.findByDemandeAndStatut(student2, Statut.EN_ATTENTE));
+        pendingRequests.addAll(demandeBinomeRepository.findByDemandeurAndStatut(student1, Statut.EN_ATTENTE));
+        pendingRequests.addAll(demandeBinomeRepository.findByDemandeurAndStatut(student2, Statut.EN_ATTENTE));
         
-        pendingRequestsFromStudent1.forEach(request -> {
-            request.setStatut(Statut.REFUSER);
-            demandeBinomeRepository.save(request);
-        });
-        
-        pendingRequestsFromStudent2.forEach(request -> {
-            request.setStatut(Statut.REFUSER);
-            demandeBinomeRepository.save(request);
-        });
+        // Flushed as one batch of updates
+        pendingRequests.forEach(request -> request.setStatut(Statut.REFUSER));
+        demandeBinomeRepository.saveAll(pendingRequests);
     }
     
     // Mapping methods
@@ -435,6 +406,17 @@ public class EtudiantBinomeService {
                 .build();
     }
     
+    private StudentDTO mapToStudentDTO(AvailableStudent student) {
+        return StudentDTO.builder()
+                .id(student.getId())
+                .nom(student.getNom())
+                .prenom(student.getPrenom())
+                .email(student.getEmail())
+                .cne(student.getCne())
+                .filiereName(student.getFiliereNom())
+                .build();
+    }
+    
     private StudentDTO mapToStudentDTO(Utilisateur utilisateur) {
         // Get student's filiere name
         String filiereName = null;
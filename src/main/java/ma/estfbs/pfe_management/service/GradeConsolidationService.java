@@ -0,0 +1,225 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.ConsolidationResultDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.PourcentageDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.NoteFinaleSaved;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository.StoredNote;
+
+/**
+ * Consolidates the weighted final grade of every student into NoteFinale.
+ *
+ * Grades are computed from the bulk grade sheet and compared with the stored
+ * rows; only new or changed rows are written, in JDBC batches committed chunk
+ * by chunk. Rows of students who no longer have both grades are deleted.
+ * Running it twice is a no-op, and a run interrupted half-way is simply
+ * resumed by the next one.
+ */
+@Service
+@RequiredArgsConstructor
+public class GradeConsolidationService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO note_finale (etudiant_id, note_rapport, note_soutenance, note_encadrant, note_finale) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE note_finale SET note_rapport = ?, note_soutenance = ?, note_encadrant = ?, note_finale = ? " +
+            "WHERE id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM note_finale WHERE id = ?";
+
+    private final GradeSheetAssembler gradeSheetAssembler;
+    private final NoteManagementService noteManagementService;
+    private final NoteFinaleRepository noteFinaleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Nightly consolidation
+     */
+    @Scheduled(cron = "${application.notes.consolidation-cron}")
+    public void scheduledConsolidation() {
+        if (!running.get()) {
+            consolidate();
+        }
+    }
+
+    /**
+     * Compute the final grade of every student and store the ones that changed
+     */
+    public ConsolidationResultDTO consolidate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("La consolidation des notes est déjà en cours");
+        }
+        try {
+            return doConsolidate();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ConsolidationResultDTO doConsolidate() {
+        PourcentageDTO pourcentages = noteManagementService.getCurrentPourcentages();
+        List<NoteDTO> notes = gradeSheetAssembler.assembleAll();
+
+        Map<Long, StoredNote> storedByEtudiant = new HashMap<>();
+        for (StoredNote stored : noteFinaleRepository.findAllStoredNotes()) {
+            storedByEtudiant.put(stored.getEtudiantId(), stored);
+        }
+
+        List<PendingNote> inserts = new ArrayList<>();
+        List<PendingNote> updates = new ArrayList<>();
+        Map<Long, StoredNote> outdated = new HashMap<>(storedByEtudiant);
+        int unchanged = 0;
+        int skipped = 0;
+
+        for (NoteDTO note : notes) {
+            // NoteFinale requires both the rapport and the soutenance grades
+            if (note.getNoteRapport() == null || note.getNoteSoutenance() == null) {
+                skipped++;
+                continue;
+            }
+            outdated.remove(note.getEtudiant().getId());
+
+            PendingNote pending = new PendingNote(
+                    note.getEtudiant().getId(),
+                    storedByEtudiant.get(note.getEtudiant().getId()),
+                    note.getNoteRapport(),
+                    note.getNoteSoutenance(),
+                    note.getNoteEncadrant(),
+                    weightedNoteFinale(pourcentages, note.getNoteRapport(), note.getNoteSoutenance(),
+                            note.getNoteEncadrant()));
+
+            if (pending.stored == null) {
+                inserts.add(pending);
+            } else if (pending.isChanged()) {
+                updates.add(pending);
+            } else {
+                unchanged++;
+            }
+        }
+
+        for (int from = 0; from < inserts.size(); from += BATCH_SIZE) {
+            List<PendingNote> chunk = inserts.subList(from, Math.min(from + BATCH_SIZE, inserts.size()));
+            writeChunk(INSERT_SQL, chunk, (ps, pending) -> {
+                ps.setLong(1, pending.etudiantId);
+                ps.setInt(2, pending.noteRapport);
+                ps.setInt(3, pending.noteSoutenance);
+                ps.setObject(4, pending.noteEncadrant);
+                ps.setDouble(5, pending.noteFinale);
+            });
+        }
+
+        for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+            List<PendingNote> chunk = updates.subList(from, Math.min(from + BATCH_SIZE, updates.size()));
+            writeChunk(UPDATE_SQL, chunk, (ps, pending) -> {
+                ps.setInt(1, pending.noteRapport);
+                ps.setInt(2, pending.noteSoutenance);
+                ps.setObject(3, pending.noteEncadrant);
+                ps.setDouble(4, pending.noteFinale);
+                ps.setLong(5, pending.stored.getId());
+            });
+        }
+
+        // A grade was removed, or the student left: the stored final grade no longer holds
+        List<PendingNote> deletes = outdated.values().stream()
+                .map(stored -> new PendingNote(stored.getEtudiantId(), stored, null, null, null, null))
+                .toList();
+        for (int from = 0; from < deletes.size(); from += BATCH_SIZE) {
+            List<PendingNote> chunk = deletes.subList(from, Math.min(from + BATCH_SIZE, deletes.size()));
+            writeChunk(DELETE_SQL, chunk, (ps, pending) -> ps.setLong(1, pending.stored.getId()));
+        }
+
+        return ConsolidationResultDTO.builder()
+                .processed(notes.size())
+                .inserted(inserts.size())
+                .updated(updates.size())
+                .deleted(deletes.size())
+                .unchanged(unchanged)
+                .skipped(skipped)
+                .finishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Write one chunk in its own transaction, so a failure only loses the chunk in progress
+     */
+    private void writeChunk(String sql, List<PendingNote> chunk,
+            ParameterizedPreparedStatementSetter<PendingNote> setter) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(sql, chunk, BATCH_SIZE, setter);
+            // Delivered to the listeners once the chunk is committed
+            for (PendingNote pending : chunk) {
+                eventPublisher.publishEvent(new NoteFinaleSaved(
+                        pending.etudiantId,
+                        pending.stored != null ? pending.stored.getNoteRapport() : null,
+                        pending.stored != null ? pending.stored.getNoteSoutenance() : null,
+                        pending.noteRapport,
+                        pending.noteSoutenance));
+            }
+        });
+    }
+
+    /**
+     * Weighted average of the grades, rounded to two decimals; null without the rapport
+     * or soutenance grade. No supervisor grade is recorded yet: while it is missing, the
+     * average is taken over the rapport and soutenance weights only.
+     */
+    public static Double weightedNoteFinale(PourcentageDTO pourcentages, Integer noteRapport,
+            Integer noteSoutenance, Integer noteEncadrant) {
+        if (noteRapport == null || noteSoutenance == null) {
+            return null;
+        }
+        double points = noteRapport * pourcentages.getPourcentageRapport()
+                + noteSoutenance * pourcentages.getPourcentageSoutenance();
+        int weights = pourcentages.getPourcentageRapport() + pourcentages.getPourcentageSoutenance();
+        if (noteEncadrant != null) {
+            points += noteEncadrant * pourcentages.getPourcentageEncadrant();
+            weights += pourcentages.getPourcentageEncadrant();
+        }
+        if (weights == 0) {
+            return null;
+        }
+        return Math.round(points / weights * 100) / 100.0;
+    }
+
+    @RequiredArgsConstructor
+    private static class PendingNote {
+        private final Long etudiantId;
+        private final StoredNote stored;
+        private final Integer noteRapport;
+        private final Integer noteSoutenance;
+        private final Integer noteEncadrant;
+        private final Double noteFinale;
+
+        boolean isChanged() {
+            return !Objects.equals(stored.getNoteRapport(), noteRapport)
+                    || !Objects.equals(stored.getNoteSoutenance(), noteSoutenance)
+                    || !Objects.equals(stored.getNoteEncadrant(), noteEncadrant)
+                    || !Objects.equals(stored.getNoteFinale(), noteFinale);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ma.estfbs.pfe_management.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.PourcentageDTO;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.EtudiantRepository.GradeExportRow;
+
+/**
+ * Streams the grade sheet as CSV straight to an output stream.
+ * Rows are read with a forward-only cursor and written one by one, so memory
+ * use does not depend on the size of the promotion.
+ */
+@Service
+@RequiredArgsConstructor
+public class GradeExportService {
+
+    private static final char SEPARATOR = ';';
+
+    private final EtudiantRepository etudiantRepository;
+    private final NoteManagementService noteManagementService;
+    private final ReferenceDataService referenceDataService;
+
+    /**
+     * Fail on an unknown filière while an error can still be sent, before the CSV starts streaming
+     */
+    public void checkFiliere(Long filiereId) {
+        if (referenceDataService.getFilieres().stream().noneMatch(filiere -> filiere.getId().equals(filiereId))) {
+            throw new RuntimeException("Filière non trouvée avec l'id: " + filiereId);
+        }
+    }
+
+    /**
+     * Write the grades of every student (or of one filière when filiereId is set) as CSV
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(Long filiereId, OutputStream outputStream) {
+        PourcentageDTO pourcentages = noteManagementService.getCurrentPourcentages();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (Stream<GradeExportRow> rows = filiereId != null
+                ? etudiantRepository.streamGradeExportRowsByFiliereId(filiereId)
+                : etudiantRepository.streamGradeExportRows()) {
+            // BOM so that spreadsheet software detects UTF-8 (accents in names and filières)
+            writer.write('\uFEFF');
+            writeLine(writer, "CNE", "Nom", "Prénom", "Filière", "Note rapport", "Note soutenance",
+                    "Note encadrant", "Note finale");
+
+            rows.forEach(row -> {
+                Integer noteRapport = row.getNoteRapport();
+                // Truncated like the grade listing
+                Integer noteSoutenance = row.getNoteSoutenance() != null ? row.getNoteSoutenance().intValue() : null;
+                Integer noteEncadrant = null; // Not recorded yet, same as the grade listing
+
+                writeLine(writer,
+                        row.getCne(),
+                        row.getNom(),
+                        row.getPrenom(),
+                        row.getFiliereNom(),
+                        format(noteRapport),
+                        format(noteSoutenance),
+                        format(noteEncadrant),
+                        formatFinal(pourcentages, noteRapport, noteSoutenance, noteEncadrant));
+            });
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Weighted final grade, as consolidated; empty without the rapport or soutenance grade
+     */
+    private String formatFinal(PourcentageDTO pourcentages, Integer noteRapport, Integer noteSoutenance,
+            Integer noteEncadrant) {
+        Double noteFinale = GradeConsolidationService.weightedNoteFinale(pourcentages, noteRapport, noteSoutenance,
+                noteEncadrant);
+        return noteFinale != null ? String.format(Locale.FRANCE, "%.2f", noteFinale) : "";
+    }
+
+    private String format(Integer note) {
+        return note != null ? note.toString() : "";
+    }
+
+    private void writeLine(Writer writer, String... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(SEPARATOR);
+                }
+                writer.write(escape(values[i]));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(SEPARATOR) >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,131 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.EtudiantDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteDTO;
+import ma.estfbs.pfe_management.repository.BinomeRepository;
+import ma.estfbs.pfe_management.repository.BinomeRepository.BinomeMembers;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.EtudiantRepository.EtudiantRow;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository.EtudiantNoteFinale;
+import ma.estfbs.pfe_management.repository.NoteSoutenanceRepository;
+import ma.estfbs.pfe_management.repository.NoteSoutenanceRepository.SoutenanceAverage;
+import ma.estfbs.pfe_management.repository.RapportRepository;
+import ma.estfbs.pfe_management.repository.RapportRepository.BinomeNote;
+
+/**
+ * Builds grade sheets with a fixed number of bulk queries (students, binomes,
+ * latest rapports, soutenance averages, consolidated finals) joined in memory, whatever
+ * the cohort size.
+ */
+@Component
+@RequiredArgsConstructor
+public class GradeSheetAssembler {
+
+    private final EtudiantRepository etudiantRepository;
+    private final BinomeRepository binomeRepository;
+    private final RapportRepository rapportRepository;
+    private final NoteSoutenanceRepository noteSoutenanceRepository;
+    private final NoteFinaleRepository noteFinaleRepository;
+
+    /**
+     * Grade sheet for every student
+     */
+    public List<NoteDTO> assembleAll() {
+        return assemble(etudiantRepository.findAllRows(), binomeRepository.findAllMembers());
+    }
+
+    /**
+     * Grade sheet for the students of one filière
+     */
+    public List<NoteDTO> assembleForFiliere(Long filiereId) {
+        return assemble(etudiantRepository.findRowsByFiliereId(filiereId),
+                binomeRepository.findMembersByFiliereId(filiereId));
+    }
+
+    private List<NoteDTO> assemble(List<EtudiantRow> etudiants, List<BinomeMembers> binomes) {
+        // First binome of each student (binomes come ordered by id)
+        Map<Long, BinomeMembers> binomeByEtudiant = new HashMap<>();
+        for (BinomeMembers binome : binomes) {
+            binomeByEtudiant.putIfAbsent(binome.getEtudiant1Id(), binome);
+            if (binome.getEtudiant2Id() != null) {
+                binomeByEtudiant.putIfAbsent(binome.getEtudiant2Id(), binome);
+            }
+        }
+
+        Set<Long> etudiantIds = new HashSet<>();
+        Set<Long> binomeIds = new HashSet<>();
+        Set<Long> soutenanceIds = new HashSet<>();
+        for (EtudiantRow etudiant : etudiants) {
+            BinomeMembers binome = binomeByEtudiant.get(etudiant.getId());
+            if (binome != null) {
+                etudiantIds.add(etudiant.getId());
+                binomeIds.add(binome.getId());
+                if (binome.getSoutenanceId() != null) {
+                    soutenanceIds.add(binome.getSoutenanceId());
+                }
+            }
+        }
+
+        // Latest rapport note per binome
+        Map<Long, Integer> rapportNoteByBinome = new HashMap<>();
+        if (!binomeIds.isEmpty()) {
+            for (BinomeNote rapport : rapportRepository.findLatestNotesByBinomeIds(binomeIds)) {
+                rapportNoteByBinome.put(rapport.getBinomeId(), rapport.getNote());
+            }
+        }
+
+        // Average jury note of each soutenance, truncated to an integer grade
+        Map<Long, Integer> noteBySoutenance = new HashMap<>();
+        if (!soutenanceIds.isEmpty()) {
+            for (SoutenanceAverage average : noteSoutenanceRepository.averageNotesBySoutenanceIds(soutenanceIds)) {
+                noteBySoutenance.put(average.getSoutenanceId(), average.getAverage().intValue());
+            }
+        }
+
+        // Final grades precomputed by the consolidation job
+        Map<Long, Double> noteFinaleByEtudiant = new HashMap<>();
+        if (!etudiantIds.isEmpty()) {
+            for (EtudiantNoteFinale noteFinale : noteFinaleRepository.findNotesFinalesByEtudiantIds(etudiantIds)) {
+                noteFinaleByEtudiant.put(noteFinale.getEtudiantId(), noteFinale.getNoteFinale());
+            }
+        }
+
+        List<NoteDTO> notes = new ArrayList<>();
+        for (EtudiantRow etudiant : etudiants) {
+            BinomeMembers binome = binomeByEtudiant.get(etudiant.getId());
+            if (binome == null) {
+                continue; // Skip students without a binôme
+            }
+
+            notes.add(NoteDTO.builder()
+                    .id(etudiant.getId()) // Using user ID as note ID for now
+                    .etudiant(EtudiantDTO.builder()
+                            .id(etudiant.getId())
+                            .nom(etudiant.getNom())
+                            .prenom(etudiant.getPrenom())
+                            .cne(etudiant.getCne())
+                            .build())
+                    .noteRapport(rapportNoteByBinome.get(binome.getId()))
+                    .noteSoutenance(binome.getSoutenanceId() != null ? noteBySoutenance.get(binome.getSoutenanceId()) : null)
+                    // No supervisor grade is recorded anywhere yet
+                    .noteEncadrant(null)
+                    .noteFinale(noteFinaleByEtudiant.get(etudiant.getId()))
+                    .filiereId(etudiant.getFiliereId())
+                    .filiereName(etudiant.getFiliereNom())
+                    .build());
+        }
+
+        return notes;
+    }
+}
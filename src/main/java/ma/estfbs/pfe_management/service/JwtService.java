@@ -1,24 +1,36 @@
 package ma.estfbs.pfe_management.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import ma.estfbs.pfe_management.model.Utilisateur;
 
 @Service
@@ -30,6 +42,46 @@ public class JwtService {
   private long jwtExpiration;
   @Value("${application.security.jwt.refresh-token.expiration}")
   private long refreshExpiration;
+  @Value("${application.security.jwt.claims-cache.max-size:10000}")
+  private long claimsCacheMaxSize;
+
+  // Request attribute holding the claims already parsed for this request
+  private static final String REQUEST_CLAIMS_ATTRIBUTE = JwtService.class.getName() + ".claims";
+
+  private Key signInKey;
+  private JwtParser jwtParser;
+  // Verified claims by token hash, each entry dropped when its token expires
+  private Cache<String, Claims> claimsCache;
+
+  @PostConstruct
+  void init() {
+    signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    jwtParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+    claimsCache = Caffeine.newBuilder()
+        .maximumSize(claimsCacheMaxSize)
+        .expireAfter(new Expiry<String, Claims>() {
+          @Override
+          public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+              return 0; // Do not cache tokens without expiration
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
 
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
@@ -54,6 +106,7 @@ public class JwtService {
       Utilisateur user = (Utilisateur) userDetails;
       claims.put("userId", user.getId());
       claims.put("role", user.getRole().name());
+      claims.put("ver", user.getTokenVersion());
     }
     return generateToken(claims, userDetails);
   }
@@ -100,30 +153,58 @@ public class JwtService {
   }
 
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    return isTokenValid(extractAllClaims(token), userDetails);
   }
 
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
+  public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+    return claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims);
   }
 
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  private boolean isTokenExpired(Claims claims) {
+    return claims.getExpiration().before(new Date());
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts
-        .parserBuilder()
-        .setSigningKey(getSignInKey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+  /**
+   * Verified claims of a token, parsed at most once per request and shared
+   * between requests through a bounded cache
+   */
+  public Claims extractAllClaims(String token) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null
+        && requestAttributes.getAttribute(REQUEST_CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof ParsedToken parsed
+        && parsed.token().equals(token)) {
+      return parsed.claims();
+    }
+
+    String tokenHash = hash(token);
+    Claims claims = claimsCache.getIfPresent(tokenHash);
+    if (claims == null) {
+      // Invalid or expired tokens throw here and are never cached
+      claims = jwtParser.parseClaimsJws(token).getBody();
+      claimsCache.put(tokenHash, claims);
+    }
+
+    if (requestAttributes != null) {
+      requestAttributes.setAttribute(REQUEST_CLAIMS_ATTRIBUTE, new ParsedToken(token, claims),
+          RequestAttributes.SCOPE_REQUEST);
+    }
+    return claims;
   }
 
   private Key getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
+    return signInKey;
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private record ParsedToken(String token, Claims claims) {
   }
   /**
  * Get JWT token from HTTP request
@@ -0,0 +1,298 @@
+package ma.estfbs.pfe_management.service;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+
+/**
+ * Keyset pagination shared by the chef listings.
+ *
+ * A page is read as "rows after the sort keys of the previous page's last row",
+ * so every page costs the same whatever its position in the history. The keys
+ * of that last row are handed to the client as an opaque cursor.
+ *
+ * Sort keys may be NULL (e.g. the name of an account created outside the services).
+ * NULL sorts before every value, as MySQL does: first in ascending order, last in
+ * descending order.
+ */
+final class KeysetPaging {
+
+    static final int DEFAULT_SIZE = 20;
+    static final int MAX_SIZE = 100;
+
+    private KeysetPaging() {
+    }
+
+    /**
+     * Read one page of the entities matching the specification and map it to DTOs
+     *
+     * @param sorts sort keys accepted from the client, each mapped to its entity properties
+     */
+    static <T, D> KeysetPageDTO<D> page(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+            KeysetPageRequest request, Map<String, List<String>> sorts, String defaultSort,
+            Sort.Direction defaultDirection, Function<T, D> mapper) {
+        return page(repository, specification, request, sorts, defaultSort, defaultDirection, List.of(), mapper);
+    }
+
+    /**
+     * Same as above, fetching the given association paths in the page query
+     *
+     * @param fetch associations read by the mapper, e.g. "binome.sujet", joined into the page query so
+     *              that mapping the page runs no further query
+     */
+    static <T, D> KeysetPageDTO<D> page(JpaSpecificationExecutor<T> repository, Specification<T> specification,
+            KeysetPageRequest request, Map<String, List<String>> sorts, String defaultSort,
+            Sort.Direction defaultDirection, List<String> fetch, Function<T, D> mapper) {
+        Sort sort = sort(request, sorts, defaultSort, defaultDirection);
+        Map<String, Object> lastKeys = position(request.getCursor(), sort);
+        int size = size(request.getSize());
+
+        Specification<T> pageSpecification = Specification.where(withFetches(specification, fetch));
+        if (lastKeys != null) {
+            pageSpecification = pageSpecification.and(after(sort, lastKeys));
+        }
+        // One row more than the page, to know whether there is a next one
+        List<T> rows = repository.findBy(pageSpecification, query -> query
+                .sortBy(sort)
+                .limit(size + 1)
+                .all());
+        boolean hasNext = rows.size() > size;
+
+        List<D> items = new ArrayList<>(Math.min(rows.size(), size));
+        for (T entity : hasNext ? rows.subList(0, size) : rows) {
+            items.add(mapper.apply(entity));
+        }
+
+        String nextCursor = hasNext ? encode(keys(rows.get(size - 1), sort)) : null;
+
+        return KeysetPageDTO.<D>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasNext(nextCursor != null)
+                .build();
+    }
+
+    /**
+     * Specification that also fetch-joins the given association paths (the fluent query's
+     * projection is not applied to scrolling, so the joins are added to the criteria query)
+     */
+    static <T> Specification<T> withFetches(Specification<T> specification, List<String> fetch) {
+        if (fetch.isEmpty()) {
+            return specification;
+        }
+        return (root, query, cb) -> {
+            Map<String, FetchParent<?, ?>> fetched = new HashMap<>();
+            for (String path : fetch) {
+                FetchParent<?, ?> parent = root;
+                String prefix = "";
+                for (String attribute : path.split("\\.")) {
+                    prefix = prefix.isEmpty() ? attribute : prefix + '.' + attribute;
+                    FetchParent<?, ?> joined = fetched.get(prefix);
+                    if (joined == null) {
+                        joined = parent.fetch(attribute, JoinType.LEFT);
+                        fetched.put(prefix, joined);
+                    }
+                    parent = joined;
+                }
+            }
+            return specification != null ? specification.toPredicate(root, query, cb) : null;
+        };
+    }
+
+    /**
+     * Rows after the given sort keys: for some key, every previous key equal and this one after
+     */
+    static <T> Specification<T> after(Sort sort, Map<String, Object> lastKeys) {
+        return (root, query, cb) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> previousEqual = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Path<?> path = root;
+                for (String attribute : order.getProperty().split("\\.")) {
+                    path = path.get(attribute);
+                }
+                Object value = lastKeys.get(order.getProperty());
+                Predicate after = order.isAscending() ? greater(cb, path, value) : lower(cb, path, value);
+                if (after != null) {
+                    List<Predicate> alternative = new ArrayList<>(previousEqual);
+                    alternative.add(after);
+                    alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+                }
+                previousEqual.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+            }
+            return cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate greater(CriteriaBuilder cb, Path<?> path, Object value) {
+        // Every value comes after NULL
+        return value == null ? cb.isNotNull(path) : cb.greaterThan((Expression<Comparable>) path, (Comparable) value);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate lower(CriteriaBuilder cb, Path<?> path, Object value) {
+        // Nothing comes after NULL in descending order
+        return value == null ? null
+                : cb.or(cb.lessThan((Expression<Comparable>) path, (Comparable) value), cb.isNull(path));
+    }
+
+    /**
+     * Sort keys of a row, as written in its cursor
+     */
+    static Map<String, Object> keys(Object entity, Sort sort) {
+        BeanWrapper row = new BeanWrapperImpl(entity);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            keys.put(order.getProperty(), row.getPropertyValue(order.getProperty()));
+        }
+        return keys;
+    }
+
+    /**
+     * Sort requested by the client, always ending with the id so that the order is total
+     */
+    static Sort sort(KeysetPageRequest request, Map<String, List<String>> sorts, String defaultSort,
+            Sort.Direction defaultDirection) {
+        String key = request.getSort() != null ? request.getSort() : defaultSort;
+        List<String> properties = sorts.get(key);
+        if (properties == null) {
+            throw new RuntimeException("Tri non supporté: " + key + " (valeurs possibles: " + sorts.keySet() + ")");
+        }
+
+        Sort.Direction direction = defaultDirection;
+        if (request.getDirection() != null) {
+            direction = Sort.Direction.fromOptionalString(request.getDirection())
+                    .orElseThrow(() -> new RuntimeException("Ordre de tri invalide: " + request.getDirection()));
+        }
+
+        List<String> withId = new ArrayList<>(properties);
+        if (!withId.contains("id")) {
+            withId.add("id");
+        }
+        return Sort.by(direction, withId.toArray(String[]::new));
+    }
+
+    static int size(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    /**
+     * Sort keys of the row the page starts after, or null for the start of the listing
+     */
+    static Map<String, Object> position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Map<String, Object> keys = decode(cursor);
+
+        // A cursor from another sort would silently skip or repeat rows
+        Set<String> expected = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!keys.keySet().equals(expected)) {
+            throw new RuntimeException("Curseur invalide pour ce tri");
+        }
+        return keys;
+    }
+
+    /**
+     * Cursor format: base64url of "property=type:value" pairs joined by '&', values URL-encoded
+     * (type N with an empty value for NULL)
+     */
+    static String encode(Map<String, Object> keys) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Object> key : keys.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append('&');
+            }
+            builder.append(key.getKey()).append('=').append(encodeValue(key.getValue()));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Map<String, Object> decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (String pair : decoded.split("&")) {
+                int equals = pair.indexOf('=');
+                int colon = pair.indexOf(':', equals);
+                if (equals <= 0 || colon < 0) {
+                    throw new IllegalArgumentException(pair);
+                }
+                keys.put(pair.substring(0, equals),
+                        decodeValue(pair.substring(equals + 1, colon), pair.substring(colon + 1)));
+            }
+            return keys;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new RuntimeException("Curseur invalide");
+        }
+    }
+
+    private static String encodeValue(Object value) {
+        String type;
+        if (value == null) {
+            return "N:";
+        } else if (value instanceof Long) {
+            type = "L";
+        } else if (value instanceof Integer) {
+            type = "I";
+        } else if (value instanceof String) {
+            type = "S";
+        } else if (value instanceof LocalDate) {
+            type = "D";
+        } else if (value instanceof LocalTime) {
+            type = "T";
+        } else if (value instanceof LocalDateTime) {
+            type = "DT";
+        } else {
+            throw new IllegalStateException("Type de clé non supporté: " + value.getClass());
+        }
+        return type + ':' + URLEncoder.encode(value.toString(), StandardCharsets.UTF_8);
+    }
+
+    private static Object decodeValue(String type, String encoded) {
+        String value = URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+        return switch (type) {
+            case "N" -> null;
+            case "L" -> Long.valueOf(value);
+            case "I" -> Integer.valueOf(value);
+            case "S" -> value;
+            case "D" -> LocalDate.parse(value);
+            case "T" -> LocalTime.parse(value);
+            case "DT" -> LocalDateTime.parse(value);
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.config.CorrelationIdFilter;
+
+/**
+ * Runs independent read queries at the same time, each on a thread of a bounded pool
+ * and in its own read-only transaction, so that a page built from several of them
+ * takes as long as the slowest one instead of their sum.
+ *
+ * A query runs in the calling thread instead when the caller is inside a transaction
+ * (it must see the caller's uncommitted changes), when the caller is itself a pool
+ * thread (a nested fan-out would wait on the pool it occupies), or when the queue is full.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParallelQueryService {
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${application.dashboard.fan-out.threads:4}")
+    private int threadCount;
+
+    @Value("${application.dashboard.fan-out.queue-capacity:64}")
+    private int queueCapacity;
+
+    private TransactionTemplate readOnly;
+    private ThreadPoolExecutor workers;
+    private final Set<Thread> workerThreads = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        AtomicInteger sequence = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        workerThreads.add(Thread.currentThread());
+                        try {
+                            runnable.run();
+                        } finally {
+                            workerThreads.remove(Thread.currentThread());
+                        }
+                    }, "query-fan-out-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Start a read query, in parallel with the ones already started when possible
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || workerThreads.contains(Thread.currentThread())) {
+            return runInCaller(query);
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> readOnly.execute(status -> query.get()),
+                    task -> workers.execute(CorrelationIdFilter.propagate(task)));
+        } catch (RejectedExecutionException e) {
+            log.debug("File des requêtes parallèles pleine, exécution dans le thread appelant");
+            return runInCaller(query);
+        }
+    }
+
+    /**
+     * Wait for a query started with submit, rethrowing its own exception
+     */
+    public static <T> T join(CompletableFuture<T> query) {
+        try {
+            return query.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<T> runInCaller(Supplier<T> query) {
+        try {
+            return CompletableFuture.completedFuture(readOnly.execute(status -> query.get()));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.config.CorrelationIdFilter;
+import ma.estfbs.pfe_management.dto.PasswordHashingStatsDTO;
+
+/**
+ * The application's password encoder: BCrypt, run on a dedicated bounded pool.
+ *
+ * Hashing and checking a password costs tens of milliseconds of CPU on purpose. Running
+ * them on the request threads lets a burst of logins (start of the registration period)
+ * take every CPU and starve the other requests; here at most hash-threads passwords are
+ * processed at a time, the next ones wait in a bounded queue, and beyond it the request
+ * is refused at once instead of piling up. Bulk hashing only gets a share of the queue
+ * (bulk-capacity), so an import never leaves the logins without room.
+ *
+ * The BCrypt cost is either configured or, when left at 0, calibrated at startup to the
+ * target latency on this machine. Hashes made with a lower cost are upgraded on the next
+ * successful login (see ApplicationConfig).
+ */
+@Slf4j
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final int CALIBRATION_COST = 10;
+    private static final int MIN_CALIBRATED_COST = 10;
+    private static final int MAX_CALIBRATED_COST = 14;
+    private static final String CALIBRATION_PASSWORD = "Calibration-2024!";
+
+    @Value("${application.security.password.bcrypt-cost:0}")
+    private int configuredCost;
+
+    @Value("${application.security.password.target-ms:250}")
+    private long targetMillis;
+
+    @Value("${application.security.password.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${application.security.password.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${application.security.password.bulk-capacity:0}")
+    private int bulkCapacity;
+
+    private BCryptPasswordEncoder delegate;
+    private int cost;
+    private ThreadPoolExecutor hashers;
+    // One permit per bulk hash waiting or running on the pool
+    private Semaphore bulkSlots;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        cost = configuredCost > 0 ? configuredCost : calibrateCost();
+        delegate = new BCryptPasswordEncoder(cost);
+
+        int threadCount = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        hashers = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        bulkSlots = new Semaphore(bulkCapacity > 0 ? bulkCapacity : Math.max(1, queueCapacity / 4));
+        log.info("Hachage des mots de passe: BCrypt coût {}, {} threads", cost, threadCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        hashers.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * True for a hash made with a lower cost than the current one
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Hash many passwords at once (bulk account creation), in the order given.
+     * The work is spread over the pool, bulk-capacity passwords at a time: the caller
+     * waits for one of them to finish before handing over the next. When the queue is
+     * full anyway, the calling thread hashes the password itself.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<Future<String>> hashes = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            try {
+                bulkSlots.acquire();
+            } catch (InterruptedException e) {
+                hashes.forEach(hash -> hash.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Hachage du mot de passe interrompu");
+            }
+            try {
+                hashes.add(hashers.submit(CorrelationIdFilter.propagate(() -> {
+                    try {
+                        return delegate.encode(rawPassword);
+                    } finally {
+                        bulkSlots.release();
+                    }
+                })));
+            } catch (RejectedExecutionException e) {
+                bulkSlots.release();
+                hashes.add(CompletableFuture.completedFuture(delegate.encode(rawPassword)));
+            }
+        }
+        List<String> encoded = new ArrayList<>(hashes.size());
+        for (Future<String> hash : hashes) {
+            encoded.add(await(hash));
+        }
+        return encoded;
+    }
+
+    /**
+     * Get the cost and the load of the hashing pool
+     */
+    public PasswordHashingStatsDTO getStats() {
+        return PasswordHashingStatsDTO.builder()
+                .cost(cost)
+                .threads(hashers.getMaximumPoolSize())
+                .activeCount(hashers.getActiveCount())
+                .queueSize(hashers.getQueue().size())
+                .queueCapacity(queueCapacity)
+                .completedCount(hashers.getCompletedTaskCount())
+                .rejectedCount(rejectedCount.get())
+                .build();
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return hashers.submit(CorrelationIdFilter.propagate(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new RuntimeException("Trop de demandes en cours, veuillez réessayer dans un instant");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Hachage du mot de passe interrompu");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Erreur lors du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    /**
+     * Highest cost whose hashing time stays around the target: each extra cost doubles the time
+     */
+    private int calibrateCost() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(CALIBRATION_COST);
+        // The first run also warms up the JIT, keep the fastest
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        double millis = Math.max(fastest / 1_000_000.0, 0.1);
+        int calibrated = CALIBRATION_COST + (int) Math.floor(Math.log(targetMillis / millis) / Math.log(2));
+        calibrated = Math.max(MIN_CALIBRATED_COST, Math.min(MAX_CALIBRATED_COST, calibrated));
+        log.info("Coût BCrypt calibré à {} ({} ms au coût {}, cible {} ms)",
+                calibrated, Math.round(millis), CALIBRATION_COST, targetMillis);
+        return calibrated;
+    }
+}
@@ -0,0 +1,78 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.config.CacheConfig;
+import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.PourcentageDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SalleDTO;
+import ma.estfbs.pfe_management.model.Pourcentage;
+import ma.estfbs.pfe_management.repository.FiliereRepository;
+import ma.estfbs.pfe_management.repository.PourcentageRepository;
+import ma.estfbs.pfe_management.repository.SalleRepository;
+
+/**
+ * Cached read access to reference data that changes a few times a year.
+ * The caches are evicted by ReferenceDataCacheListener on every write.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataService {
+
+    private final FiliereRepository filiereRepository;
+    private final SalleRepository salleRepository;
+    private final PourcentageRepository pourcentageRepository;
+
+    /**
+     * Get all filières
+     */
+    @Cacheable(CacheConfig.FILIERES)
+    public List<FiliereDTO> getFilieres() {
+        return filiereRepository.findAll().stream()
+                .map(filiere -> FiliereDTO.builder()
+                        .id(filiere.getId())
+                        .nom(filiere.getNom())
+                        .build())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Get all salles
+     */
+    @Cacheable(CacheConfig.SALLES)
+    public List<SalleDTO> getSalles() {
+        return salleRepository.findAll().stream()
+                .map(salle -> SalleDTO.builder()
+                        .id(salle.getId())
+                        .nom(salle.getNom())
+                        .build())
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Get the latest grade percentages, or the defaults if none are configured
+     */
+    @Cacheable(CacheConfig.POURCENTAGE)
+    public PourcentageDTO getCurrentPourcentages() {
+        Pourcentage pourcentage = pourcentageRepository.findTopByOrderByIdDesc();
+        if (pourcentage == null) {
+            // Default percentages if none configured
+            return PourcentageDTO.builder()
+                    .pourcentageRapport(40)
+                    .pourcentageSoutenance(40)
+                    .pourcentageEncadrant(20)
+                    .build();
+        }
+
+        return PourcentageDTO.builder()
+                .pourcentageRapport(pourcentage.getPourcentageRapport())
+                .pourcentageSoutenance(pourcentage.getPourcentageSoutenance())
+                .pourcentageEncadrant(pourcentage.getPourcentageEncadrant())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+import ma.estfbs.pfe_management.model.ActivityEvent;
+
+/**
+ * Inserts already validated soutenances with JDBC batches, for the automatic
+ * planning and the spreadsheet import.
+ */
+@Service
+@RequiredArgsConstructor
+public class SoutenanceBatchWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO soutenance (date, heure, duree, salle_id, binome_id, jury1_id, jury2_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+
+    public record NewSoutenance(LocalDate date, LocalTime heure, int duree, Long salleId, Long binomeId,
+            Long jury1Id, Long jury2Id) {
+    }
+
+    /**
+     * Insert the soutenances in the caller's transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<NewSoutenance> soutenances) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, soutenances, BATCH_SIZE, (ps, soutenance) -> {
+            ps.setObject(1, soutenance.date());
+            ps.setObject(2, soutenance.heure());
+            ps.setInt(3, soutenance.duree());
+            ps.setLong(4, soutenance.salleId());
+            ps.setLong(5, soutenance.binomeId());
+            ps.setLong(6, soutenance.jury1Id());
+            ps.setLong(7, soutenance.jury2Id());
+        });
+        // Delivered to the listeners once the insert is committed
+        for (NewSoutenance soutenance : soutenances) {
+            eventPublisher.publishEvent(new SoutenanceChanged(null, null, soutenance.date()));
+        }
+        activityFeedService.record(ActivityEvent.Type.SOUTENANCE,
+                String.format("%d soutenances programmées", soutenances.size()));
+    }
+}
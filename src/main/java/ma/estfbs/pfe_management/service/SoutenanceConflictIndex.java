@@ -0,0 +1,125 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Booked time slots of every salle and jury member, per day.
+ *
+ * The slots of one (resource, day) are kept sorted by start minute. A slot can
+ * only overlap [start, end) if it starts after start minus the longest slot of
+ * that day and before end, so an overlap query is a single O(log n) range lookup
+ * plus the slots it returns.
+ *
+ * Not thread-safe: build one per validation or planning run.
+ */
+public class SoutenanceConflictIndex {
+
+    public enum Resource {
+        SALLE, JURY
+    }
+
+    /**
+     * Booked soutenance overlapping the requested slot on one resource
+     */
+    public record Conflict(Resource resource, Long resourceId, Long soutenanceId, LocalDate date,
+            LocalTime debut, LocalTime fin) {
+    }
+
+    private final Map<Key, DaySchedule> schedules = new HashMap<>();
+
+    /**
+     * Book a soutenance on its salle and both jury members
+     */
+    public void add(Long soutenanceId, LocalDate date, LocalTime heure, int duree, Long salleId,
+            Long jury1Id, Long jury2Id) {
+        int start = minuteOfDay(heure);
+        Slot slot = new Slot(soutenanceId, start, start + duree);
+
+        schedule(Resource.SALLE, salleId, date).add(slot);
+        schedule(Resource.JURY, jury1Id, date).add(slot);
+        if (!jury2Id.equals(jury1Id)) {
+            schedule(Resource.JURY, jury2Id, date).add(slot);
+        }
+    }
+
+    /**
+     * Every booked soutenance overlapping the requested slot on its salle or one of its jury members
+     *
+     * @param ignoredSoutenanceId soutenance being moved, whose current slot is not a conflict
+     */
+    public List<Conflict> findConflicts(Long ignoredSoutenanceId, LocalDate date, LocalTime heure, int duree,
+            Long salleId, Long jury1Id, Long jury2Id) {
+        int start = minuteOfDay(heure);
+        int end = start + duree;
+
+        List<Conflict> conflicts = new ArrayList<>();
+        collect(conflicts, Resource.SALLE, salleId, date, start, end, ignoredSoutenanceId);
+        collect(conflicts, Resource.JURY, jury1Id, date, start, end, ignoredSoutenanceId);
+        if (jury2Id != null && !jury2Id.equals(jury1Id)) {
+            collect(conflicts, Resource.JURY, jury2Id, date, start, end, ignoredSoutenanceId);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Whether the requested slot is free on its salle and both jury members
+     */
+    public boolean isFree(LocalDate date, LocalTime heure, int duree, Long salleId, Long jury1Id, Long jury2Id) {
+        return findConflicts(null, date, heure, duree, salleId, jury1Id, jury2Id).isEmpty();
+    }
+
+    private void collect(List<Conflict> conflicts, Resource resource, Long resourceId, LocalDate date,
+            int start, int end, Long ignoredSoutenanceId) {
+        if (resourceId == null) {
+            return;
+        }
+        DaySchedule schedule = schedules.get(new Key(resource, resourceId, date));
+        if (schedule == null) {
+            return;
+        }
+        for (List<Slot> slots : schedule.byStart.subMap(start - schedule.longest, false, end, false).values()) {
+            for (Slot slot : slots) {
+                if (slot.end > start && !slot.soutenanceId.equals(ignoredSoutenanceId)) {
+                    conflicts.add(new Conflict(resource, resourceId, slot.soutenanceId, date,
+                            toTime(slot.start), toTime(slot.end)));
+                }
+            }
+        }
+    }
+
+    private DaySchedule schedule(Resource resource, Long resourceId, LocalDate date) {
+        return schedules.computeIfAbsent(new Key(resource, resourceId, date), key -> new DaySchedule());
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static LocalTime toTime(int minuteOfDay) {
+        return minuteOfDay >= 24 * 60 ? LocalTime.MAX : LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private record Key(Resource resource, Long resourceId, LocalDate date) {
+    }
+
+    private record Slot(Long soutenanceId, int start, int end) {
+    }
+
+    private static final class DaySchedule {
+
+        // Start minute -> slots starting then (several only when the existing data already overlaps)
+        private final TreeMap<Integer, List<Slot>> byStart = new TreeMap<>();
+        private int longest;
+
+        private void add(Slot slot) {
+            byStart.computeIfAbsent(slot.start, start -> new ArrayList<>(1)).add(slot);
+            longest = Math.max(longest, slot.end - slot.start);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository.ScheduledSlot;
+
+/**
+ * Loads the booked soutenance slots of a date window into a {@link SoutenanceConflictIndex}.
+ */
+@Service
+@RequiredArgsConstructor
+public class SoutenanceConflictService {
+
+    private final SoutenanceRepository soutenanceRepository;
+
+    @Value("${application.soutenances.default-duree:60}")
+    private int defaultDuree;
+
+    /**
+     * Get the conflict index of every soutenance between two dates (inclusive), in one query
+     */
+    @Transactional(readOnly = true)
+    public SoutenanceConflictIndex loadIndex(LocalDate from, LocalDate to) {
+        return buildIndex(soutenanceRepository.findScheduledSlots(from, to));
+    }
+
+    /**
+     * Get the conflict index of already loaded soutenance slots
+     */
+    public SoutenanceConflictIndex buildIndex(List<ScheduledSlot> slots) {
+        SoutenanceConflictIndex index = new SoutenanceConflictIndex();
+        for (ScheduledSlot slot : slots) {
+            index.add(slot.getId(), slot.getDate(), slot.getHeure(), effectiveDuree(slot.getDuree()),
+                    slot.getSalleId(), slot.getJury1Id(), slot.getJury2Id());
+        }
+        return index;
+    }
+
+    /**
+     * Get the duration in minutes of a soutenance, the configured default when it has none
+     */
+    public int effectiveDuree(Integer duree) {
+        return duree != null ? duree : defaultDuree;
+    }
+}
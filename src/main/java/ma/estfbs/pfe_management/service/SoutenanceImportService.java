@@ -0,0 +1,214 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ImportReportDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ImportRowErrorDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SalleDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceAddRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationError;
+import ma.estfbs.pfe_management.repository.BinomeRepository;
+import ma.estfbs.pfe_management.repository.BinomeRepository.BinomeMembers;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.service.SoutenanceBatchWriter.NewSoutenance;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Conflict;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Resource;
+
+/**
+ * Import of a whole schedule (one row per soutenance, as sent by the faculty spreadsheets).
+ *
+ * Every binome, salle and jury member referenced by the batch is checked with one
+ * query per kind, and the rows are validated against the existing schedule and
+ * against each other with one in-memory conflict index. The batch is inserted
+ * only if every row is valid, so a corrected spreadsheet can simply be sent again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SoutenanceImportService {
+
+    private static final int MAX_ROWS = 2000;
+
+    private final SoutenanceManagementService soutenanceManagementService;
+    private final SoutenanceConflictService soutenanceConflictService;
+    private final SoutenanceBatchWriter soutenanceBatchWriter;
+    private final BinomeRepository binomeRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final ReferenceDataService referenceDataService;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    /**
+     * Validate a batch of soutenances without inserting anything
+     */
+    @Transactional(readOnly = true)
+    public ImportReportDTO validateImport(List<SoutenanceAddRequest> rows) {
+        return check(rows).report(0);
+    }
+
+    /**
+     * Insert a batch of soutenances if every row is valid
+     */
+    @Transactional
+    public ImportReportDTO importSoutenances(List<SoutenanceAddRequest> rows) {
+        CheckedBatch batch = check(rows);
+        if (!batch.errors().isEmpty()) {
+            return batch.report(0);
+        }
+        soutenanceBatchWriter.insertAll(batch.accepted());
+        log.info("Import de {} soutenances", batch.accepted().size());
+        return batch.report(batch.accepted().size());
+    }
+
+    private CheckedBatch check(List<SoutenanceAddRequest> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new RuntimeException("Aucune soutenance à importer");
+        }
+        if (rows.size() > MAX_ROWS) {
+            throw new RuntimeException("Un import ne peut pas dépasser " + MAX_ROWS + " soutenances");
+        }
+
+        // Fields of each row on their own
+        List<List<ValidationError>> errors = new ArrayList<>(rows.size());
+        Set<Long> binomeIds = new HashSet<>();
+        Set<Long> juryIds = new HashSet<>();
+        for (SoutenanceAddRequest row : rows) {
+            errors.add(new ArrayList<>(soutenanceManagementService.validateFields(row.getDate(), row.getHeure(),
+                    row.getDuree(), row.getSalleId(), row.getBinomeId(), row.getJury1Id(), row.getJury2Id())));
+            addIfPresent(binomeIds, row.getBinomeId());
+            addIfPresent(juryIds, row.getJury1Id());
+            addIfPresent(juryIds, row.getJury2Id());
+        }
+
+        // Every referenced entity, one query per kind
+        Map<Long, BinomeMembers> binomes = new HashMap<>();
+        if (!binomeIds.isEmpty()) {
+            for (BinomeMembers binome : binomeRepository.findMembersByIdIn(binomeIds)) {
+                binomes.put(binome.getId(), binome);
+            }
+        }
+        Set<Long> existingUsers = juryIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(utilisateurRepository.findExistingIds(juryIds));
+        Set<Long> salles = referenceDataService.getSalles().stream()
+                .map(SalleDTO::getId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Integer> rowByBinome = new HashMap<>();
+        LocalDate first = null;
+        LocalDate last = null;
+        for (int i = 0; i < rows.size(); i++) {
+            SoutenanceAddRequest row = rows.get(i);
+            List<ValidationError> rowErrors = errors.get(i);
+
+            if (row.getBinomeId() != null) {
+                BinomeMembers binome = binomes.get(row.getBinomeId());
+                Integer previous = rowByBinome.putIfAbsent(row.getBinomeId(), i + 1);
+                if (binome == null) {
+                    rowErrors.add(new ValidationError("binomeId", "Binôme non trouvé avec l'id: " + row.getBinomeId()));
+                } else if (binome.getSoutenanceId() != null) {
+                    rowErrors.add(new ValidationError("binomeId", "Ce binôme a déjà une soutenance programmée"));
+                } else if (previous != null) {
+                    rowErrors.add(new ValidationError("binomeId", "Ce binôme est déjà programmé à la ligne " + previous));
+                }
+            }
+            if (row.getSalleId() != null && !salles.contains(row.getSalleId())) {
+                rowErrors.add(new ValidationError("salleId", "Salle non trouvée avec l'id: " + row.getSalleId()));
+            }
+            if (row.getJury1Id() != null && !existingUsers.contains(row.getJury1Id())) {
+                rowErrors.add(new ValidationError("jury1Id", "Jury 1 non trouvé avec l'id: " + row.getJury1Id()));
+            }
+            if (row.getJury2Id() != null && !existingUsers.contains(row.getJury2Id())) {
+                rowErrors.add(new ValidationError("jury2Id", "Jury 2 non trouvé avec l'id: " + row.getJury2Id()));
+            }
+
+            if (rowErrors.isEmpty()) {
+                first = first == null || row.getDate().isBefore(first) ? row.getDate() : first;
+                last = last == null || row.getDate().isAfter(last) ? row.getDate() : last;
+            }
+        }
+
+        // Rows against the existing schedule and the rows accepted before them
+        List<NewSoutenance> accepted = new ArrayList<>();
+        if (first != null) {
+            SoutenanceConflictIndex index = soutenanceConflictService.loadIndex(first, last);
+            for (int i = 0; i < rows.size(); i++) {
+                if (!errors.get(i).isEmpty()) {
+                    continue;
+                }
+                SoutenanceAddRequest row = rows.get(i);
+                LocalTime heure = LocalTime.parse(row.getHeure(), timeFormatter);
+                int duree = soutenanceConflictService.effectiveDuree(row.getDuree());
+
+                List<Conflict> conflicts = index.findConflicts(null, row.getDate(), heure, duree,
+                        row.getSalleId(), row.getJury1Id(), row.getJury2Id());
+                for (Conflict conflict : conflicts) {
+                    errors.get(i).add(conflictError(conflict, row.getJury1Id()));
+                }
+                if (conflicts.isEmpty()) {
+                    // Rows of the batch are indexed under their negated line number
+                    index.add((long) -(i + 1), row.getDate(), heure, duree,
+                            row.getSalleId(), row.getJury1Id(), row.getJury2Id());
+                    accepted.add(new NewSoutenance(row.getDate(), heure, duree, row.getSalleId(),
+                            row.getBinomeId(), row.getJury1Id(), row.getJury2Id()));
+                }
+            }
+        }
+
+        List<ImportRowErrorDTO> rowErrors = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (!errors.get(i).isEmpty()) {
+                rowErrors.add(ImportRowErrorDTO.builder().ligne(i + 1).errors(errors.get(i)).build());
+            }
+        }
+        return new CheckedBatch(rows.size(), accepted, rowErrors);
+    }
+
+    /**
+     * Conflict with the existing schedule, or with an earlier row of the batch
+     */
+    private ValidationError conflictError(Conflict conflict, Long jury1Id) {
+        if (conflict.soutenanceId() >= 0) {
+            return soutenanceManagementService.conflictError(conflict, jury1Id);
+        }
+        String ligne = "la ligne " + -conflict.soutenanceId() + " (" + conflict.debut().format(timeFormatter)
+                + " à " + conflict.fin().format(timeFormatter) + ")";
+        if (conflict.resource() == Resource.SALLE) {
+            return new ValidationError("salleId", "Cette salle est déjà réservée par " + ligne);
+        }
+        return new ValidationError(conflict.resourceId().equals(jury1Id) ? "jury1Id" : "jury2Id",
+                "Ce membre du jury est déjà assigné à " + ligne);
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private record CheckedBatch(int total, List<NewSoutenance> accepted, List<ImportRowErrorDTO> errors) {
+
+        ImportReportDTO report(int inserted) {
+            return ImportReportDTO.builder()
+                    .total(total)
+                    .valid(total - errors.size())
+                    .inserted(inserted)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -5,13 +5,20 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.BinomeDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.EncadrantDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.JuryDTO;
@@ -24,6 +31,8 @@ import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.StudentDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SujetShortDTO;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationError;
 import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationResponse;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.Etudiant;
 import ma.estfbs.pfe_management.model.Salle;
@@ -32,9 +41,12 @@ import ma.estfbs.pfe_management.model.Sujet;
 import ma.estfbs.pfe_management.model.Utilisateur;
 import ma.estfbs.pfe_management.repository.BinomeRepository;
 import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.NoteSoutenanceRepository;
 import ma.estfbs.pfe_management.repository.SalleRepository;
 import ma.estfbs.pfe_management.repository.SoutenanceRepository;
 import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Conflict;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Resource;
 
 @Service
 @RequiredArgsConstructor
@@ -43,27 +55,64 @@ public class SoutenanceManagementService {
     private final SoutenanceRepository soutenanceRepository;
     private final BinomeRepository binomeRepository;
     private final SalleRepository salleRepository;
+    private final ReferenceDataService referenceDataService;
     private final UtilisateurRepository utilisateurRepository;
     private final EtudiantRepository etudiantRepository;
+    private final NoteSoutenanceRepository noteSoutenanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+    private final SoutenanceConflictService soutenanceConflictService;
     
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
 
+    // Accepted soutenance durations, in minutes
+    private static final int MIN_DUREE = 15;
+    private static final int MAX_DUREE = 240;
+
+    // Sort keys accepted by the paginated listing
+    private static final Map<String, List<String>> SOUTENANCE_SORTS = Map.of(
+            "date", List.of("date", "heure"),
+            "id", List.of("id"));
+    
+    // Associations fetched with each page, as in the Soutenance.details entity graph
+    private static final List<String> SOUTENANCE_FETCH = List.of(
+            "salle", "jury1", "jury2", "binome.etudiant1", "binome.etudiant2", "binome.encadrant",
+            "binome.sujet.filiere", "binome.etudiant1Profil.filiere");
+
     /**
      * Get all soutenances
      */
     public List<SoutenanceDTO> getAllSoutenances() {
-        return soutenanceRepository.findAll().stream()
+        return soutenanceRepository.findAllWithDetails().stream()
                 .map(this::mapToSoutenanceDTO)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one page of soutenances in chronological order by default, optionally between two dates
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<SoutenanceDTO> getSoutenancesPage(LocalDate from, LocalDate to, KeysetPageRequest pageRequest) {
+        Specification<Soutenance> specification = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("date"), to));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        
+        return KeysetPaging.page(soutenanceRepository, specification, pageRequest,
+                SOUTENANCE_SORTS, "date", Sort.Direction.ASC, SOUTENANCE_FETCH, this::mapToSoutenanceDTO);
+    }
+    
     /**
      * Get all salles
      */
     public List<SalleDTO> getAllSalles() {
-        return salleRepository.findAll().stream()
-                .map(this::mapToSalleDTO)
-                .collect(Collectors.toList());
+        return referenceDataService.getSalles();
     }
     
     /**
@@ -168,6 +217,7 @@ public void deleteSalle(Long id) {
         Soutenance soutenance = Soutenance.builder()
                 .date(request.getDate())
                 .heure(heure)
+                .duree(soutenanceConflictService.effectiveDuree(request.getDuree()))
                 .salle(salle)
                 .binome(binome)
                 .jury1(jury1)
@@ -175,6 +225,9 @@ public void deleteSalle(Long id) {
                 .build();
         
         soutenance = soutenanceRepository.save(soutenance);
+        eventPublisher.publishEvent(new SoutenanceChanged(soutenance.getId(), null, soutenance.getDate()));
+        activityFeedService.record(ActivityEvent.Type.SOUTENANCE, String.format("Soutenance programmée le %s à %s pour %s",
+                soutenance.getDate(), soutenance.getHeure(), ActivityFeedService.membres(binome)));
         
         return mapToSoutenanceDTO(soutenance);
     }
@@ -210,14 +263,19 @@ public void deleteSalle(Long id) {
         LocalTime heure = LocalTime.parse(request.getHeure(), timeFormatter);
         
         // Update soutenance
+        LocalDate oldDate = soutenance.getDate();
         soutenance.setDate(request.getDate());
         soutenance.setHeure(heure);
+        soutenance.setDuree(soutenanceConflictService.effectiveDuree(request.getDuree()));
         soutenance.setSalle(salle);
         soutenance.setBinome(binome);
         soutenance.setJury1(jury1);
         soutenance.setJury2(jury2);
         
         soutenance = soutenanceRepository.save(soutenance);
+        eventPublisher.publishEvent(new SoutenanceChanged(soutenance.getId(), oldDate, soutenance.getDate()));
+        activityFeedService.record(ActivityEvent.Type.SOUTENANCE, String.format("Soutenance de %s déplacée au %s à %s",
+                ActivityFeedService.membres(binome), soutenance.getDate(), soutenance.getHeure()));
         
         return mapToSoutenanceDTO(soutenance);
     }
@@ -227,11 +285,17 @@ public void deleteSalle(Long id) {
      */
     @Transactional
     public void deleteSoutenance(Long id) {
-        if (!soutenanceRepository.existsById(id)) {
-            throw new RuntimeException("Soutenance non trouvée avec l'id: " + id);
-        }
+        Soutenance soutenance = soutenanceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Soutenance non trouvée avec l'id: " + id));
         
-        soutenanceRepository.deleteById(id);
+        // The jury grades would be lost with it
+        if (noteSoutenanceRepository.existsBySoutenance(soutenance)) {
+            throw new RuntimeException("Impossible de supprimer cette soutenance car elle a déjà été notée par le jury");
+        }
+        soutenanceRepository.delete(soutenance);
+        eventPublisher.publishEvent(new SoutenanceChanged(id, soutenance.getDate(), null));
+        activityFeedService.record(ActivityEvent.Type.SOUTENANCE,
+                "Soutenance annulée pour " + ActivityFeedService.membres(soutenance.getBinome()));
     }
     
     /**
@@ -243,12 +307,14 @@ public void deleteSalle(Long id) {
         // Extract common fields from request (which can be either AddRequest or UpdateRequest)
         LocalDate date;
         String heureStr;
+        Integer duree;
         Long salleId, binomeId, jury1Id, jury2Id;
         
         if (requestObj instanceof SoutenanceAddRequest) {
             SoutenanceAddRequest request = (SoutenanceAddRequest) requestObj;
             date = request.getDate();
             heureStr = request.getHeure();
+            duree = request.getDuree();
             salleId = request.getSalleId();
             binomeId = request.getBinomeId();
             jury1Id = request.getJury1Id();
@@ -257,6 +323,7 @@ public void deleteSalle(Long id) {
             SoutenanceUpdateRequest request = (SoutenanceUpdateRequest) requestObj;
             date = request.getDate();
             heureStr = request.getHeure();
+            duree = request.getDuree();
             salleId = request.getSalleId();
             binomeId = request.getBinomeId();
             jury1Id = request.getJury1Id();
@@ -265,7 +332,49 @@ public void deleteSalle(Long id) {
             throw new IllegalArgumentException("Request object must be either SoutenanceAddRequest or SoutenanceUpdateRequest");
         }
         
-        // Validate required fields
+        errors.addAll(validateFields(date, heureStr, duree, salleId, binomeId, jury1Id, jury2Id));
+        
+        // If there are basic validation errors, return them now
+        if (!errors.isEmpty()) {
+            return ValidationResponse.builder()
+                    .valid(false)
+                    .errors(errors)
+                    .build();
+        }
+        
+        // Check for scheduling conflicts: every booked slot of the salle and both jury members
+        // overlapping this one, in one pass
+        LocalTime heure = LocalTime.parse(heureStr, timeFormatter);
+        SoutenanceConflictIndex index = soutenanceConflictService.loadIndex(date, date);
+        List<Conflict> conflicts = index.findConflicts(soutenanceId, date, heure,
+                soutenanceConflictService.effectiveDuree(duree), salleId, jury1Id, jury2Id);
+        
+        for (Conflict conflict : conflicts) {
+            errors.add(conflictError(conflict, jury1Id));
+        }
+        
+        // Check for binome conflict (a binome can only have one soutenance)
+        if (binomeId != null && soutenanceId == null) { // Only for new soutenances
+            Optional<Soutenance> existingSoutenance = soutenanceRepository.findByBinomeId(binomeId);
+            if (existingSoutenance.isPresent()) {
+                errors.add(new ValidationError("binomeId", 
+                        "Ce binôme a déjà une soutenance programmée"));
+            }
+        }
+        
+        return ValidationResponse.builder()
+                .valid(errors.isEmpty())
+                .errors(errors)
+                .build();
+    }
+    
+    /**
+     * Validate the fields of a soutenance request on their own, without looking at the schedule
+     */
+    List<ValidationError> validateFields(LocalDate date, String heureStr, Integer duree, Long salleId,
+            Long binomeId, Long jury1Id, Long jury2Id) {
+        List<ValidationError> errors = new ArrayList<>();
+        
         if (date == null) {
             errors.add(new ValidationError("date", "La date est obligatoire"));
         } else if (date.isBefore(LocalDate.now())) {
@@ -285,6 +394,14 @@ public void deleteSalle(Long id) {
             }
         }
         
+        if (duree != null && (duree < MIN_DUREE || duree > MAX_DUREE)) {
+            errors.add(new ValidationError("duree",
+                    "La durée doit être comprise entre " + MIN_DUREE + " et " + MAX_DUREE + " minutes"));
+        } else if (heure != null
+                && heure.toSecondOfDay() / 60 + soutenanceConflictService.effectiveDuree(duree) > 24 * 60) {
+            errors.add(new ValidationError("duree", "La soutenance doit se terminer le jour même"));
+        }
+        
         if (salleId == null) {
             errors.add(new ValidationError("salleId", "La salle est obligatoire"));
         }
@@ -306,72 +423,19 @@ public void deleteSalle(Long id) {
             errors.add(new ValidationError("jury2Id", "Les deux membres du jury doivent être différents"));
         }
         
-        // If there are basic validation errors, return them now
-        if (!errors.isEmpty()) {
-            return ValidationResponse.builder()
-                    .valid(false)
-                    .errors(errors)
-                    .build();
-        }
-        
-        // Check for scheduling conflicts
-        if (date != null && heure != null) {
-            // Get all soutenances on the same date and time
-            List<Soutenance> existingSoutenances = soutenanceRepository.findByDateAndHeure(date, heure);
-            
-            // Filter out the current soutenance if we're updating
-            if (soutenanceId != null) {
-                existingSoutenances = existingSoutenances.stream()
-                        .filter(s -> !s.getId().equals(soutenanceId))
-                        .collect(Collectors.toList());
-            }
-            
-            // Check for salle conflict
-            if (salleId != null) {
-                boolean salleConflict = existingSoutenances.stream()
-                        .anyMatch(s -> s.getSalle().getId().equals(salleId));
-                
-                if (salleConflict) {
-                    errors.add(new ValidationError("salleId", 
-                            "Cette salle est déjà réservée à cette date et heure"));
-                }
-            }
-            
-            // Check for jury conflicts
-            if (jury1Id != null) {
-                boolean jury1Conflict = existingSoutenances.stream()
-                        .anyMatch(s -> s.getJury1().getId().equals(jury1Id) || s.getJury2().getId().equals(jury1Id));
-                
-                if (jury1Conflict) {
-                    errors.add(new ValidationError("jury1Id", 
-                            "Ce membre du jury est déjà assigné à une autre soutenance à cette date et heure"));
-                }
-            }
-            
-            if (jury2Id != null) {
-                boolean jury2Conflict = existingSoutenances.stream()
-                        .anyMatch(s -> s.getJury1().getId().equals(jury2Id) || s.getJury2().getId().equals(jury2Id));
-                
-                if (jury2Conflict) {
-                    errors.add(new ValidationError("jury2Id", 
-                            "Ce membre du jury est déjà assigné à une autre soutenance à cette date et heure"));
-                }
-            }
-            
-            // Check for binome conflict (a binome can only have one soutenance)
-            if (binomeId != null && soutenanceId == null) { // Only for new soutenances
-                Optional<Soutenance> existingSoutenance = soutenanceRepository.findByBinomeId(binomeId);
-                if (existingSoutenance.isPresent()) {
-                    errors.add(new ValidationError("binomeId", 
-                            "Ce binôme a déjà une soutenance programmée"));
-                }
-            }
+        return errors;
+    }
+    
+    /**
+     * Describe a booked soutenance overlapping the requested slot
+     */
+    ValidationError conflictError(Conflict conflict, Long jury1Id) {
+        String creneau = conflict.debut().format(timeFormatter) + " à " + conflict.fin().format(timeFormatter);
+        if (conflict.resource() == Resource.SALLE) {
+            return new ValidationError("salleId", "Cette salle est déjà réservée de " + creneau + " à cette date");
         }
-        
-        return ValidationResponse.builder()
-                .valid(errors.isEmpty())
-                .errors(errors)
-                .build();
+        return new ValidationError(conflict.resourceId().equals(jury1Id) ? "jury1Id" : "jury2Id",
+                "Ce membre du jury est déjà assigné à une autre soutenance de " + creneau + " à cette date");
     }
     
     /**
@@ -382,6 +446,7 @@ public void deleteSalle(Long id) {
                 .id(soutenance.getId())
                 .date(soutenance.getDate())
                 .heure(soutenance.getHeure())
+                .duree(soutenanceConflictService.effectiveDuree(soutenance.getDuree()))
                 .salle(mapToSalleDTO(soutenance.getSalle()))
                 .binome(mapToBinomeDTO(soutenance.getBinome()))
                 .jury1(mapToJuryDTO(soutenance.getJury1()))
@@ -396,7 +461,7 @@ public void deleteSalle(Long id) {
         String filiereName = null;
         
         // Get filiere name from etudiant1
-        Etudiant etudiant1 = etudiantRepository.findByUtilisateur(binome.getEtudiant1())
+        Etudiant etudiant1 = BinomeEtudiants.etudiant1(binome, etudiantRepository)
                 .orElse(null);
         if (etudiant1 != null && etudiant1.getFiliere() != null) {
             filiereName = etudiant1.getFiliere().getNom();
@@ -0,0 +1,437 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.config.CorrelationIdFilter;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlannedSoutenanceDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningStatus;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningStatusDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SalleDTO;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.BinomeRepository;
+import ma.estfbs.pfe_management.repository.BinomeRepository.BinomeMembers;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository.ScheduledSlot;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.service.SoutenanceBatchWriter.NewSoutenance;
+import ma.estfbs.pfe_management.service.SoutenanceTimetableSolver.Placement;
+import ma.estfbs.pfe_management.service.SoutenanceTimetableSolver.Slot;
+import ma.estfbs.pfe_management.service.SoutenanceTimetableSolver.Solution;
+
+/**
+ * Automatic planning of the soutenances of every binome that has none yet.
+ *
+ * The data is loaded when the planning is requested; the solver then runs in the
+ * background, several randomized runs in parallel, and the chef polls its progress.
+ * Once the chef accepts the result, it is checked again against the current
+ * schedule and written with a single JDBC batch insert.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SoutenancePlanningService {
+
+    private static final int MAX_DAYS = 92;
+    private static final int MIN_DUREE = 15;
+    private static final int MAX_DUREE = 240;
+    private static final String DEFAULT_HEURE_DEBUT = "08:30";
+    private static final String DEFAULT_HEURE_FIN = "18:00";
+
+    // Finished plannings are kept this long for polling and applying
+    private static final long RETENTION_HOURS = 24;
+
+    private final SoutenanceRepository soutenanceRepository;
+    private final BinomeRepository binomeRepository;
+    private final UtilisateurRepository utilisateurRepository;
+    private final ReferenceDataService referenceDataService;
+    private final SoutenanceConflictService soutenanceConflictService;
+    private final SoutenanceBatchWriter soutenanceBatchWriter;
+
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Value("${application.soutenances.planning.threads:0}")
+    private int threads;
+
+    @Value("${application.soutenances.planning.runs:16}")
+    private int runs;
+
+    private final Map<String, PlanningJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // One coordinator thread per planning, fanning the solver runs out to the workers
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+
+    @PostConstruct
+    void startExecutors() {
+        int workerCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        coordinator = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "planning-coordinator"));
+        workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> daemon(runnable, "planning-worker-" + sequence.incrementAndGet()));
+    }
+
+    @PreDestroy
+    void stopExecutors() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Start planning every binome without a soutenance between two dates
+     */
+    @Transactional(readOnly = true)
+    public PlanningStatusDTO startPlanning(PlanningRequest request) {
+        LocalDate from = request.getFrom();
+        LocalDate to = request.getTo();
+        if (from == null || to == null) {
+            throw new RuntimeException("Les dates de début et de fin sont obligatoires");
+        }
+        if (to.isBefore(from)) {
+            throw new RuntimeException("La date de fin doit être postérieure à la date de début");
+        }
+        if (from.isBefore(LocalDate.now())) {
+            throw new RuntimeException("La date de début ne peut pas être antérieure à aujourd'hui");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new RuntimeException("La période de planification ne peut pas dépasser " + MAX_DAYS + " jours");
+        }
+
+        int duree = soutenanceConflictService.effectiveDuree(request.getDuree());
+        if (duree < MIN_DUREE || duree > MAX_DUREE) {
+            throw new RuntimeException("La durée doit être comprise entre " + MIN_DUREE + " et " + MAX_DUREE + " minutes");
+        }
+        LocalTime heureDebut = parseHeure(request.getHeureDebut(), DEFAULT_HEURE_DEBUT);
+        LocalTime heureFin = parseHeure(request.getHeureFin(), DEFAULT_HEURE_FIN);
+
+        List<Slot> slots = buildSlots(from, to, heureDebut, heureFin, duree, request.isSamedi());
+        if (slots.isEmpty()) {
+            throw new RuntimeException("Aucun créneau disponible sur cette période");
+        }
+        List<Long> salleIds = selectSalles(request.getSalleIds());
+        List<Long> juryIds = selectJurys(request.getJuryIds());
+
+        Map<Long, Set<LocalDate>> unavailableDays = new HashMap<>();
+        if (request.getJuryIndisponibilites() != null) {
+            request.getJuryIndisponibilites().forEach((juryId, days) -> unavailableDays.put(juryId, new HashSet<>(days)));
+        }
+
+        List<Long> binomeIds = new ArrayList<>();
+        Map<Long, Long> encadrantByBinome = new HashMap<>();
+        for (BinomeMembers binome : binomeRepository.findAllMembers()) {
+            if (binome.getSoutenanceId() == null) {
+                binomeIds.add(binome.getId());
+                encadrantByBinome.put(binome.getId(), binome.getEncadrantId());
+            }
+        }
+
+        List<ScheduledSlot> existing = soutenanceRepository.findScheduledSlots(from, to);
+        Map<Long, Integer> existingLoad = new HashMap<>();
+        for (ScheduledSlot slot : existing) {
+            existingLoad.merge(slot.getJury1Id(), 1, Integer::sum);
+            existingLoad.merge(slot.getJury2Id(), 1, Integer::sum);
+        }
+        SoutenanceConflictIndex index = soutenanceConflictService.buildIndex(existing);
+
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Une planification est déjà en cours");
+        }
+        PlanningJob job = new PlanningJob(from, to, duree, runs);
+        try {
+            removeExpiredJobs();
+            jobs.put(job.id, job);
+            coordinator.execute(CorrelationIdFilter.propagate(() -> solve(job, slots, salleIds, juryIds,
+                    unavailableDays, index, existingLoad, binomeIds, encadrantByBinome)));
+        } catch (RuntimeException e) {
+            jobs.remove(job.id);
+            running.set(false);
+            throw e;
+        }
+        log.info("Planification {} lancée: {} binômes, {} créneaux, {} salles, {} jurys",
+                job.id, binomeIds.size(), slots.size(), salleIds.size(), juryIds.size());
+        return job.toDTO();
+    }
+
+    /**
+     * Get the progress, then the result, of a planning
+     */
+    public PlanningStatusDTO getPlanning(String id) {
+        return findJob(id).toDTO();
+    }
+
+    /**
+     * Insert the soutenances of a finished planning, if the schedule still allows them
+     */
+    @Transactional
+    public PlanningStatusDTO applyPlanning(String id) {
+        PlanningJob job = findJob(id);
+        job.applyLock.lock();
+        try {
+            if (job.status == PlanningStatus.APPLIQUE) {
+                throw new RuntimeException("Cette planification a déjà été appliquée");
+            }
+            if (job.status != PlanningStatus.TERMINE) {
+                throw new RuntimeException("La planification n'est pas terminée");
+            }
+            List<Placement> placements = job.solution.placements();
+
+            // Soutenances may have been added or moved while the planning was running
+            Set<Long> scheduledBinomes = binomeRepository.findAllMembers().stream()
+                    .filter(binome -> binome.getSoutenanceId() != null)
+                    .map(BinomeMembers::getId)
+                    .collect(Collectors.toSet());
+            SoutenanceConflictIndex index = soutenanceConflictService.loadIndex(job.from, job.to);
+            long conflicts = placements.stream()
+                    .filter(p -> scheduledBinomes.contains(p.binomeId())
+                            || !index.isFree(p.slot().date(), p.slot().heure(), job.duree,
+                                    p.salleId(), p.jury1Id(), p.jury2Id()))
+                    .count();
+            if (conflicts > 0) {
+                throw new RuntimeException("Le planning n'est plus valide (" + conflicts
+                        + " soutenances en conflit avec le calendrier actuel), relancez la planification");
+            }
+
+            soutenanceBatchWriter.insertAll(placements.stream()
+                    .map(p -> new NewSoutenance(p.slot().date(), p.slot().heure(), job.duree, p.salleId(),
+                            p.binomeId(), p.jury1Id(), p.jury2Id()))
+                    .collect(Collectors.toList()));
+
+            job.status = PlanningStatus.APPLIQUE;
+            job.message = placements.size() + " soutenances programmées";
+            log.info("Planification {} appliquée: {} soutenances", job.id, placements.size());
+            return job.toDTO();
+        } finally {
+            job.applyLock.unlock();
+        }
+    }
+
+    private void solve(PlanningJob job, List<Slot> slots, List<Long> salleIds, List<Long> juryIds,
+            Map<Long, Set<LocalDate>> unavailableDays, SoutenanceConflictIndex index,
+            Map<Long, Integer> existingLoad, List<Long> binomeIds, Map<Long, Long> encadrantByBinome) {
+        Solution best;
+        try {
+            SoutenanceTimetableSolver solver = new SoutenanceTimetableSolver(slots, job.duree, salleIds, juryIds,
+                    unavailableDays, index, existingLoad);
+            best = solveInParallel(job, solver, binomeIds, encadrantByBinome);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.set(false);
+            job.fail("Planification interrompue");
+            return;
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Échec de la planification {}", job.id, e);
+            running.set(false);
+            job.fail("Erreur lors de la planification");
+            return;
+        }
+
+        // Released before the result is published, so a new planning can start as soon as this one is reported done
+        running.set(false);
+        job.finish(best);
+        log.info("Planification {} terminée: {} placés, {} non placés, charge jury {}-{}",
+                job.id, best.placements().size(), best.unplaced().size(), best.minLoad(), best.maxLoad());
+    }
+
+    /**
+     * Run the solver with a different seed on every worker and keep the best solution
+     */
+    private Solution solveInParallel(PlanningJob job, SoutenanceTimetableSolver solver, List<Long> binomeIds,
+            Map<Long, Long> encadrantByBinome) throws InterruptedException, ExecutionException {
+        List<Callable<Solution>> tasks = new ArrayList<>(job.runs);
+        for (int run = 0; run < job.runs; run++) {
+            long seed = run;
+            tasks.add(CorrelationIdFilter.propagate(() -> {
+                Solution solution = solver.solve(binomeIds, encadrantByBinome, seed);
+                job.completedRuns.incrementAndGet();
+                return solution;
+            }));
+        }
+
+        Solution best = null;
+        for (Future<Solution> future : workers.invokeAll(tasks)) {
+            Solution solution = future.get();
+            if (best == null || solution.isBetterThan(best)) {
+                best = solution;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Consecutive slots of the given duration in each working day of the period
+     */
+    private List<Slot> buildSlots(LocalDate from, LocalDate to, LocalTime heureDebut, LocalTime heureFin,
+            int duree, boolean samedi) {
+        List<Slot> slots = new ArrayList<>();
+        int first = heureDebut.toSecondOfDay() / 60;
+        int last = heureFin.toSecondOfDay() / 60;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SUNDAY || (date.getDayOfWeek() == DayOfWeek.SATURDAY && !samedi)) {
+                continue;
+            }
+            for (int start = first; start + duree <= last; start += duree) {
+                slots.add(new Slot(date, LocalTime.of(start / 60, start % 60)));
+            }
+        }
+        return slots;
+    }
+
+    private List<Long> selectSalles(List<Long> requested) {
+        List<Long> salleIds = referenceDataService.getSalles().stream()
+                .map(SalleDTO::getId)
+                .collect(Collectors.toList());
+        List<Long> selected = select(requested, salleIds, "Salle non trouvée avec l'id: ");
+        if (selected.isEmpty()) {
+            throw new RuntimeException("Aucune salle disponible pour la planification");
+        }
+        return selected;
+    }
+
+    private List<Long> selectJurys(List<Long> requested) {
+        List<Long> selected = select(requested, utilisateurRepository.findIdsByRole(Role.JURY),
+                "Membre du jury non trouvé avec l'id: ");
+        if (selected.size() < 2) {
+            throw new RuntimeException("Au moins deux membres du jury sont nécessaires pour la planification");
+        }
+        return selected;
+    }
+
+    private List<Long> select(List<Long> requested, List<Long> available, String unknownMessage) {
+        if (requested == null || requested.isEmpty()) {
+            return available;
+        }
+        Set<Long> known = new HashSet<>(available);
+        for (Long id : requested) {
+            if (!known.contains(id)) {
+                throw new RuntimeException(unknownMessage + id);
+            }
+        }
+        return requested.stream().distinct().collect(Collectors.toList());
+    }
+
+    private LocalTime parseHeure(String heure, String defaultHeure) {
+        try {
+            return LocalTime.parse(heure != null && !heure.isEmpty() ? heure : defaultHeure, timeFormatter);
+        } catch (Exception e) {
+            throw new RuntimeException("Format d'heure invalide. Utilisez HH:MM");
+        }
+    }
+
+    private PlanningJob findJob(String id) {
+        PlanningJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Planification non trouvée avec l'id: " + id);
+        }
+        return job;
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class PlanningJob {
+        private final String id = UUID.randomUUID().toString();
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int duree;
+        private final int runs;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicInteger completedRuns = new AtomicInteger();
+        // Lets a planning be applied once, when two requests apply it at the same time
+        private final ReentrantLock applyLock = new ReentrantLock();
+
+        private volatile PlanningStatus status = PlanningStatus.EN_COURS;
+        private volatile Solution solution;
+        private volatile String message;
+        private volatile LocalDateTime finishedAt;
+
+        PlanningJob(LocalDate from, LocalDate to, int duree, int runs) {
+            this.from = from;
+            this.to = to;
+            this.duree = duree;
+            this.runs = Math.max(1, runs);
+        }
+
+        void finish(Solution best) {
+            solution = best;
+            message = best.unplaced().isEmpty()
+                    ? "Tous les binômes ont été placés"
+                    : best.unplaced().size() + " binômes n'ont pas pu être placés";
+            finishedAt = LocalDateTime.now();
+            status = PlanningStatus.TERMINE;
+        }
+
+        void fail(String reason) {
+            message = reason;
+            finishedAt = LocalDateTime.now();
+            status = PlanningStatus.ECHEC;
+        }
+
+        PlanningStatusDTO toDTO() {
+            Solution current = solution;
+            PlanningStatusDTO.PlanningStatusDTOBuilder builder = PlanningStatusDTO.builder()
+                    .id(id)
+                    .status(status)
+                    .progress(completedRuns.get() * 100 / runs)
+                    .message(message)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt);
+            if (current != null) {
+                builder.planned(current.placements().size())
+                        .unplannedBinomeIds(current.unplaced())
+                        .minJuryLoad(current.minLoad())
+                        .maxJuryLoad(current.maxLoad())
+                        .soutenances(current.placements().stream()
+                                .map(p -> PlannedSoutenanceDTO.builder()
+                                        .binomeId(p.binomeId())
+                                        .date(p.slot().date())
+                                        .heure(p.slot().heure())
+                                        .duree(duree)
+                                        .salleId(p.salleId())
+                                        .jury1Id(p.jury1Id())
+                                        .jury2Id(p.jury2Id())
+                                        .build())
+                                .collect(Collectors.toList()));
+            }
+            return builder.build();
+        }
+    }
+}
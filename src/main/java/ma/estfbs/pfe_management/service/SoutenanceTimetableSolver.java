@@ -0,0 +1,292 @@
+package ma.estfbs.pfe_management.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Places binomes on a grid of non-overlapping time slots, each with a free salle
+ * and two free jury members, keeping the jury load as even as possible.
+ *
+ * The availability of every salle and jury member in every slot is computed once
+ * from the existing schedule. Each run then places the binomes greedily in a
+ * random order, taking the slot where the two least loaded free jury members
+ * are the least loaded overall, and improves the result with a local search that
+ * hands assignments of overloaded jury members to less loaded ones free at the
+ * same time. Runs are independent, so several seeds can be solved in parallel
+ * and the best solution kept.
+ */
+final class SoutenanceTimetableSolver {
+
+    /**
+     * Start of a candidate time slot
+     */
+    record Slot(LocalDate date, LocalTime heure) {
+    }
+
+    record Placement(Long binomeId, Slot slot, Long salleId, Long jury1Id, Long jury2Id) {
+    }
+
+    /**
+     * Placed and unplaced binomes, with the resulting jury load in the window
+     */
+    record Solution(List<Placement> placements, List<Long> unplaced, int minLoad, int maxLoad, long loadSquares) {
+
+        boolean isBetterThan(Solution other) {
+            if (unplaced.size() != other.unplaced.size()) {
+                return unplaced.size() < other.unplaced.size();
+            }
+            if (maxLoad - minLoad != other.maxLoad - other.minLoad) {
+                return maxLoad - minLoad < other.maxLoad - other.minLoad;
+            }
+            return loadSquares < other.loadSquares;
+        }
+    }
+
+    private final List<Slot> slots;
+    private final List<Long> salleIds;
+    private final List<Long> juryIds;
+    private final Map<Long, Integer> juryIndex = new HashMap<>();
+
+    // Availability before planning: [slot][salle] and [slot][jury]
+    private final boolean[][] salleFree;
+    private final boolean[][] juryFree;
+
+    // Soutenances already assigned to each jury member in the window
+    private final int[] baseLoad;
+
+    /**
+     * @param unavailableDays days on which a jury member cannot sit, by jury id
+     * @param existingLoad soutenances already assigned to each jury member in the window, by jury id
+     */
+    SoutenanceTimetableSolver(List<Slot> slots, int duree, List<Long> salleIds, List<Long> juryIds,
+            Map<Long, Set<LocalDate>> unavailableDays, SoutenanceConflictIndex existing,
+            Map<Long, Integer> existingLoad) {
+        this.slots = List.copyOf(slots);
+        this.salleIds = List.copyOf(salleIds);
+        this.juryIds = List.copyOf(juryIds);
+        this.salleFree = new boolean[slots.size()][salleIds.size()];
+        this.juryFree = new boolean[slots.size()][juryIds.size()];
+        this.baseLoad = new int[juryIds.size()];
+
+        for (int j = 0; j < juryIds.size(); j++) {
+            juryIndex.put(juryIds.get(j), j);
+            baseLoad[j] = existingLoad.getOrDefault(juryIds.get(j), 0);
+        }
+
+        for (int t = 0; t < slots.size(); t++) {
+            Slot slot = slots.get(t);
+            for (int s = 0; s < salleIds.size(); s++) {
+                salleFree[t][s] = existing.findConflicts(null, slot.date(), slot.heure(), duree,
+                        salleIds.get(s), null, null).isEmpty();
+            }
+            for (int j = 0; j < juryIds.size(); j++) {
+                Set<LocalDate> unavailable = unavailableDays.get(juryIds.get(j));
+                juryFree[t][j] = (unavailable == null || !unavailable.contains(slot.date()))
+                        && existing.findConflicts(null, slot.date(), slot.heure(), duree,
+                                null, juryIds.get(j), null).isEmpty();
+            }
+        }
+    }
+
+    /**
+     * One randomized run: greedy placement followed by jury load balancing
+     *
+     * @param encadrantByBinome encadrant of each binome, who may not sit on its jury
+     */
+    Solution solve(List<Long> binomeIds, Map<Long, Long> encadrantByBinome, long seed) {
+        Random random = new Random(seed);
+        int slotCount = slots.size();
+        int juryCount = juryIds.size();
+
+        boolean[][] salleUsed = new boolean[slotCount][];
+        boolean[][] juryBusy = new boolean[slotCount][juryCount];
+        for (int t = 0; t < slotCount; t++) {
+            salleUsed[t] = new boolean[salleIds.size()];
+            for (int s = 0; s < salleIds.size(); s++) {
+                salleUsed[t][s] = !salleFree[t][s];
+            }
+            for (int j = 0; j < juryCount; j++) {
+                juryBusy[t][j] = !juryFree[t][j];
+            }
+        }
+        int[] load = baseLoad.clone();
+
+        // Random jury order, so that equally loaded members are picked differently from one run to the next
+        int[] juryOrder = shuffledRange(juryCount, random);
+        List<Long> order = new ArrayList<>(binomeIds);
+        Collections.shuffle(order, random);
+
+        List<Assignment> placed = new ArrayList<>();
+        List<Long> unplaced = new ArrayList<>();
+
+        for (Long binomeId : order) {
+            int excluded = excludedJury(encadrantByBinome.get(binomeId));
+            int bestSlot = -1, bestSalle = -1, bestJury1 = -1, bestJury2 = -1;
+            int bestScore = Integer.MAX_VALUE;
+
+            for (int t = 0; t < slotCount; t++) {
+                int salle = firstFree(salleUsed[t]);
+                if (salle < 0) {
+                    continue;
+                }
+                int first = -1, second = -1;
+                for (int j : juryOrder) {
+                    if (juryBusy[t][j] || j == excluded) {
+                        continue;
+                    }
+                    if (first < 0 || load[j] < load[first]) {
+                        second = first;
+                        first = j;
+                    } else if (second < 0 || load[j] < load[second]) {
+                        second = j;
+                    }
+                }
+                if (second < 0) {
+                    continue;
+                }
+                // Earliest slot wins ties, so the schedule stays compact
+                int score = load[first] + load[second];
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestSlot = t;
+                    bestSalle = salle;
+                    bestJury1 = first;
+                    bestJury2 = second;
+                }
+            }
+
+            if (bestSlot < 0) {
+                unplaced.add(binomeId);
+                continue;
+            }
+            salleUsed[bestSlot][bestSalle] = true;
+            juryBusy[bestSlot][bestJury1] = true;
+            juryBusy[bestSlot][bestJury2] = true;
+            load[bestJury1]++;
+            load[bestJury2]++;
+            placed.add(new Assignment(binomeId, bestSlot, bestSalle, bestJury1, bestJury2, excluded));
+        }
+
+        balance(placed, juryBusy, load, random);
+
+        List<Placement> placements = new ArrayList<>(placed.size());
+        for (Assignment assignment : placed) {
+            placements.add(new Placement(assignment.binomeId, slots.get(assignment.slot),
+                    salleIds.get(assignment.salle), juryIds.get(assignment.jury1), juryIds.get(assignment.jury2)));
+        }
+
+        int minLoad = Integer.MAX_VALUE, maxLoad = 0;
+        long loadSquares = 0;
+        for (int value : load) {
+            minLoad = Math.min(minLoad, value);
+            maxLoad = Math.max(maxLoad, value);
+            loadSquares += (long) value * value;
+        }
+        return new Solution(placements, unplaced, juryCount == 0 ? 0 : minLoad, maxLoad, loadSquares);
+    }
+
+    /**
+     * Hand jury assignments to less loaded members free in the same slot, until no move helps.
+     * Every move lowers the sum of squared loads, so the search always ends.
+     */
+    private void balance(List<Assignment> placed, boolean[][] juryBusy, int[] load, Random random) {
+        List<Assignment> order = new ArrayList<>(placed);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Collections.shuffle(order, random);
+            for (Assignment assignment : order) {
+                boolean[] busy = juryBusy[assignment.slot];
+                int target = lessLoadedFreeJury(busy, load, assignment.jury1, assignment);
+                if (target >= 0) {
+                    move(busy, load, assignment.jury1, target);
+                    assignment.jury1 = target;
+                    improved = true;
+                }
+                target = lessLoadedFreeJury(busy, load, assignment.jury2, assignment);
+                if (target >= 0) {
+                    move(busy, load, assignment.jury2, target);
+                    assignment.jury2 = target;
+                    improved = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Least loaded member free in the slot who would strictly even out the load, or -1
+     */
+    private static int lessLoadedFreeJury(boolean[] busy, int[] load, int current, Assignment assignment) {
+        int target = -1;
+        for (int j = 0; j < load.length; j++) {
+            if (!busy[j] && j != assignment.excluded && load[j] + 1 < load[current]
+                    && (target < 0 || load[j] < load[target])) {
+                target = j;
+            }
+        }
+        return target;
+    }
+
+    private static void move(boolean[] busy, int[] load, int from, int to) {
+        busy[from] = false;
+        busy[to] = true;
+        load[from]--;
+        load[to]++;
+    }
+
+    private int excludedJury(Long encadrantId) {
+        Integer index = encadrantId != null ? juryIndex.get(encadrantId) : null;
+        return index != null ? index : -1;
+    }
+
+    private static int firstFree(boolean[] used) {
+        for (int i = 0; i < used.length; i++) {
+            if (!used[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] shuffledRange(int size, Random random) {
+        int[] range = new int[size];
+        for (int i = 0; i < size; i++) {
+            range[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int k = random.nextInt(i + 1);
+            int swap = range[i];
+            range[i] = range[k];
+            range[k] = swap;
+        }
+        return range;
+    }
+
+    /**
+     * Placement in progress, as indexes into the slot, salle and jury lists
+     */
+    private static final class Assignment {
+        private final Long binomeId;
+        private final int slot;
+        private final int salle;
+        private int jury1;
+        private int jury2;
+        private final int excluded;
+
+        private Assignment(Long binomeId, int slot, int salle, int jury1, int jury2, int excluded) {
+            this.binomeId = binomeId;
+            this.slot = slot;
+            this.salle = salle;
+            this.jury1 = jury1;
+            this.jury2 = jury2;
+            this.excluded = excluded;
+        }
+    }
+}
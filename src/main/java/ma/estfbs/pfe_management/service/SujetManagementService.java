@@ -1,17 +1,27 @@
 package ma.estfbs.pfe_management.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
 import ma.estfbs.pfe_management.dto.SujetDTO;
 import ma.estfbs.pfe_management.dto.SujetManagementResponse;
 import ma.estfbs.pfe_management.dto.SujetRequestDTOs.SujetAddRequest;
 import ma.estfbs.pfe_management.dto.SujetRequestDTOs.SujetEditRequest;
+import ma.estfbs.pfe_management.event.DashboardEvents.SujetCountChanged;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Filiere;
 import ma.estfbs.pfe_management.model.Sujet;
 import ma.estfbs.pfe_management.repository.FiliereRepository;
@@ -23,6 +33,14 @@ public class SujetManagementService {
 
     private final SujetRepository sujetRepository;
     private final FiliereRepository filiereRepository;
+    private final ReferenceDataService referenceDataService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+
+    // Sort keys accepted by the paginated listing
+    private static final Map<String, List<String>> SUJET_SORTS = Map.of(
+            "id", List.of("id"),
+            "titre", List.of("titre"));
 
     /**
      * Get all subjects and filieres
@@ -32,9 +50,7 @@ public class SujetManagementService {
                 .map(this::mapToSujetDTO)
                 .collect(Collectors.toList());
 
-        List<FiliereDTO> filieres = filiereRepository.findAll().stream()
-                .map(this::mapToFiliereDTO)
-                .collect(Collectors.toList());
+        List<FiliereDTO> filieres = referenceDataService.getFilieres();
 
         return SujetManagementResponse.builder()
                 .sujets(sujets)
@@ -42,6 +58,26 @@ public class SujetManagementService {
                 .build();
     }
 
+    /**
+     * Get one page of subjects, optionally filtered by filiere and by a search on the title
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<SujetDTO> getSujetsPage(Long filiereId, String search, KeysetPageRequest pageRequest) {
+        Specification<Sujet> specification = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filiereId != null) {
+                predicates.add(cb.equal(root.get("filiere").get("id"), filiereId));
+            }
+            if (search != null && !search.isBlank()) {
+                predicates.add(cb.like(cb.lower(root.get("titre")), "%" + search.trim().toLowerCase() + "%"));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        return KeysetPaging.page(sujetRepository, specification, pageRequest,
+                SUJET_SORTS, "id", Sort.Direction.ASC, this::mapToSujetDTO);
+    }
+
     /**
      * Add a new subject
      */
@@ -58,6 +94,9 @@ public class SujetManagementService {
                 .build();
 
         Sujet savedSujet = sujetRepository.save(sujet);
+        eventPublisher.publishEvent(new SujetCountChanged(1));
+        activityFeedService.record(ActivityEvent.Type.SUJET,
+                String.format("Nouveau sujet \"%s\" (%s)", savedSujet.getTitre(), filiere.getNom()));
         return mapToSujetDTO(savedSujet);
     }
 
@@ -93,6 +132,7 @@ public class SujetManagementService {
         }
         
         sujetRepository.deleteById(id);
+        eventPublisher.publishEvent(new SujetCountChanged(-1));
     }
 
     /**
@@ -107,14 +147,4 @@ public class SujetManagementService {
                 .filiereName(sujet.getFiliere().getNom())
                 .build();
     }
-
-    /**
-     * Map Filiere entity to FiliereDTO
-     */
-    private FiliereDTO mapToFiliereDTO(Filiere filiere) {
-        return FiliereDTO.builder()
-                .id(filiere.getId())
-                .nom(filiere.getNom())
-                .build();
-    }
 }
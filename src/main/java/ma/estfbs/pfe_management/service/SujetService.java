@@ -1,9 +1,12 @@
 package ma.estfbs.pfe_management.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import ma.estfbs.pfe_management.dto.SujetDTOs.*;
+import ma.estfbs.pfe_management.event.DashboardEvents.SuggestionStatusChanged;
 import ma.estfbs.pfe_management.model.*;
 import ma.estfbs.pfe_management.repository.*;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +15,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class SujetService {
@@ -23,6 +27,8 @@ public class SujetService {
     private final ProposerSujetsRepository proposerSujetsRepository;
     private final FiliereRepository filiereRepository;
     private final JwtService jwtService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
 
     /**
      * Get available subjects for the student's binome
@@ -32,53 +38,48 @@ public class SujetService {
         String token = jwtService.getTokenFromRequest();
         Long userId = jwtService.extractUserId(token);
         
-        System.out.println("Récupération des sujets pour l'utilisateur ID: " + userId);
+        log.debug("Récupération des sujets pour l'utilisateur ID: {}", userId);
         
         Utilisateur currentUser = utilisateurRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
         
-        System.out.println("Utilisateur trouvé: " + currentUser.getEmail());
+        log.debug("Utilisateur trouvé: {}", currentUser.getEmail());
         
         // Get student's binome
         List<Binome> binomes = binomeRepository.findByEtudiant1OrEtudiant2(currentUser, currentUser);
         if (binomes.isEmpty()) {
-            System.out.println("ERROR: L'utilisateur ne fait pas partie d'un binôme");
             throw new RuntimeException("Vous ne faites pas partie d'un binôme");
         }
         
-        System.out.println("Binôme trouvé avec ID: " + binomes.get(0).getId());
+        log.debug("Binôme trouvé avec ID: {}", binomes.get(0).getId());
         
         // Get student's filiere
         Etudiant etudiant = etudiantRepository.findByUtilisateur(currentUser)
                 .orElseThrow(() -> new RuntimeException("Étudiant non trouvé"));
         
         if (etudiant.getFiliere() == null) {
-            System.out.println("ERROR: L'étudiant n'a pas de filière");
             throw new RuntimeException("Étudiant sans filière");
         }
         
-        System.out.println("Filière trouvée: " + etudiant.getFiliere().getNom() + " (ID: " + etudiant.getFiliere().getId() + ")");
+        log.debug("Filière trouvée: {} (ID: {})", etudiant.getFiliere().getNom(), etudiant.getFiliere().getId());
         
         // Get all subjects for this filiere
         List<Sujet> filiereSujets = sujetRepository.findByFiliere(etudiant.getFiliere());
-        System.out.println("Nombre de sujets trouvés pour la filière: " + filiereSujets.size());
+        log.debug("Nombre de sujets trouvés pour la filière: {}", filiereSujets.size());
         
         // Get subjects not assigned to any binome
         List<SujetDTO> availableSujets = filiereSujets.stream()
                 .filter(sujet -> {
                     boolean available = sujet.getBinomes() == null || sujet.getBinomes().isEmpty();
                     if (!available) {
-                        System.out.println("Sujet " + sujet.getId() + " (" + sujet.getTitre() + ") est déjà assigné à un binôme");
+                        log.trace("Sujet {} ({}) est déjà assigné à un binôme", sujet.getId(), sujet.getTitre());
                     }
                     return available;
                 })
                 .map(this::mapToSujetDTO)
                 .collect(Collectors.toList());
         
-        System.out.println("Nombre de sujets disponibles après filtrage: " + availableSujets.size());
-        if (availableSujets.size() > 0) {
-            System.out.println("Premier sujet disponible: " + availableSujets.get(0).getTitre());
-        }
+        log.debug("Nombre de sujets disponibles après filtrage: {}", availableSujets.size());
         
         return AvailableSujetsResponse.builder()
                 .availableSujets(availableSujets)
@@ -166,7 +167,7 @@ public class SujetService {
      * Propose a new subject
      */
     @Transactional
-    public SujetDTO proposerSujet(ProposerSujetRequest request) {
+    public PropositionDTO proposerSujet(ProposerSujetRequest request) {
         // Get current user from JWT token
         String token = jwtService.getTokenFromRequest();
         Long userId = jwtService.extractUserId(token);
@@ -202,6 +203,9 @@ public class SujetService {
                 .build();
         
         proposition = proposerSujetsRepository.save(proposition);
+        eventPublisher.publishEvent(new SuggestionStatusChanged(proposition.getId(), null, proposition.getStatus()));
+        activityFeedService.record(ActivityEvent.Type.SUGGESTION, String.format(
+                "Nouvelle proposition de sujet \"%s\" par %s", proposition.getTitre(), ActivityFeedService.membres(binome)));
         
         return PropositionDTO.builder()
                 .id(proposition.getId())
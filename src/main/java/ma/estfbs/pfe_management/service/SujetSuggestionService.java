@@ -1,13 +1,24 @@
 package ma.estfbs.pfe_management.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
 import ma.estfbs.pfe_management.dto.SujetSuggestionDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.SuggestionStatusChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SujetCountChanged;
+import ma.estfbs.pfe_management.model.ActivityEvent;
 import ma.estfbs.pfe_management.model.Binome;
 import ma.estfbs.pfe_management.model.Etudiant;
 import ma.estfbs.pfe_management.model.Filiere;
@@ -28,16 +39,52 @@ public class SujetSuggestionService {
     private final SujetRepository sujetRepository;
     private final BinomeRepository binomeRepository;
     private final EtudiantRepository etudiantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActivityFeedService activityFeedService;
+
+    // Sort keys accepted by the paginated listing
+    private static final Map<String, List<String>> SUGGESTION_SORTS = Map.of(
+            "id", List.of("id"),
+            "titre", List.of("titre"));
+
+    // Associations fetched with each page, as in ProposerSujetsRepository.findAllWithDetails
+    private static final List<String> SUGGESTION_FETCH = List.of(
+            "filiere", "etudiant", "binomeProposerPar.etudiant1", "binomeProposerPar.etudiant2",
+            "binomeProposerPar.encadrant", "binomeProposerPar.sujet.filiere",
+            "binomeProposerPar.etudiant1Profil.filiere", "binomeProposerPar.soutenance.salle",
+            "binomeProposerPar.soutenance.jury1", "binomeProposerPar.soutenance.jury2");
 
     /**
      * Get all sujet suggestions
      */
     public List<SujetSuggestionDTO> getAllSuggestions() {
-        return proposerSujetsRepository.findAll().stream()
+        return proposerSujetsRepository.findAllWithDetails().stream()
                 .map(this::mapToSujetSuggestionDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get one page of sujet suggestions, newest first by default, optionally filtered by status and filiere
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<SujetSuggestionDTO> getSuggestionsPage(Status status, Long filiereId,
+            KeysetPageRequest pageRequest) {
+        Specification<ProposerSujets> specification = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (filiereId != null) {
+                predicates.add(cb.equal(root.get("filiere").get("id"), filiereId));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        return KeysetPaging.page(proposerSujetsRepository, specification, pageRequest,
+                SUGGESTION_SORTS, "id", Sort.Direction.DESC, SUGGESTION_FETCH,
+                this::mapToSujetSuggestionDTO);
+    }
+
     /**
      * Accept a sujet suggestion and create a new sujet
      */
@@ -46,15 +93,19 @@ public class SujetSuggestionService {
         ProposerSujets suggestion = findSuggestionById(id);
         
         // Update suggestion status
+        Status oldStatus = suggestion.getStatus();
         suggestion.setStatus(Status.ACCEPTER);
         proposerSujetsRepository.save(suggestion);
+        eventPublisher.publishEvent(new SuggestionStatusChanged(id, oldStatus, Status.ACCEPTER));
+        activityFeedService.record(ActivityEvent.Type.SUGGESTION,
+                String.format("Proposition de sujet \"%s\" acceptée", suggestion.getTitre()));
         
         // Get the binome that suggested the sujet
         Binome binome = suggestion.getBinomeProposerPar();
         
         // Get the filiere from the etudiant1 (must get Etudiant entity first)
         Utilisateur etudiant1User = binome.getEtudiant1();
-        Etudiant etudiant1 = etudiantRepository.findByUtilisateur(etudiant1User)
+        Etudiant etudiant1 = BinomeEtudiants.etudiant1(binome, etudiantRepository)
                 .orElseThrow(() -> new RuntimeException("Étudiant non trouvé pour l'utilisateur: " + etudiant1User.getId()));
         Filiere filiere = etudiant1.getFiliere();
         
@@ -67,6 +118,7 @@ public class SujetSuggestionService {
                 .build();
         
         sujet = sujetRepository.save(sujet);
+        eventPublisher.publishEvent(new SujetCountChanged(1));
         
         // Assign the sujet to the binome
         binome.setSujet(sujet);
@@ -81,8 +133,12 @@ public class SujetSuggestionService {
         ProposerSujets suggestion = findSuggestionById(id);
         
         // Update suggestion status
+        Status oldStatus = suggestion.getStatus();
         suggestion.setStatus(Status.REFUSER);
         proposerSujetsRepository.save(suggestion);
+        eventPublisher.publishEvent(new SuggestionStatusChanged(id, oldStatus, Status.REFUSER));
+        activityFeedService.record(ActivityEvent.Type.SUGGESTION,
+                String.format("Proposition de sujet \"%s\" refusée", suggestion.getTitre()));
     }
 
     /**
@@ -101,7 +157,7 @@ public class SujetSuggestionService {
         
         // Get etudiant1 filiere
         Utilisateur etudiant1User = binome.getEtudiant1();
-        Etudiant etudiant1 = etudiantRepository.findByUtilisateur(etudiant1User)
+        Etudiant etudiant1 = BinomeEtudiants.etudiant1(binome, etudiantRepository)
                 .orElseThrow(() -> new RuntimeException("Étudiant non trouvé pour l'utilisateur: " + etudiant1User.getId()));
         String filiereName = etudiant1.getFiliere().getNom();
         
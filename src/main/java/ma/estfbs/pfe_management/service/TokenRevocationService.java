@@ -0,0 +1,127 @@
+package ma.estfbs.pfe_management.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.RequiredArgsConstructor;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository.TokenVersion;
+
+/**
+ * In-memory token version of every account, used to reject revoked tokens
+ * without a database lookup per request.
+ *
+ * A token is accepted only if its user still exists and its "ver" claim matches
+ * the user's current version. Changes made by this instance are applied as soon
+ * as they commit; anything else (other instances, direct database edits) is
+ * picked up by the periodic refresh.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final int DELETED = -1;
+
+    private final UtilisateurRepository utilisateurRepository;
+
+    // userId -> current token version, replaced wholesale on refresh
+    private volatile ConcurrentHashMap<Long, Integer> versions;
+
+    // Local changes with the time they were applied, replayed over refreshes that may predate them
+    private final Map<Long, LocalChange> recentChanges = new HashMap<>();
+
+    // Held by the request doing the first load, the concurrent ones wait for it
+    private final ReentrantLock firstLoad = new ReentrantLock();
+
+    /**
+     * Whether a token carrying this user id and version is still valid
+     */
+    public boolean isCurrent(Long userId, Integer tokenVersion) {
+        ConcurrentHashMap<Long, Integer> current = versions;
+        if (current == null) {
+            current = loadOnce();
+        }
+        Integer version = current.get(userId);
+        return version != null && version == (tokenVersion != null ? tokenVersion : 0);
+    }
+
+    /**
+     * Record the current token version of an account (creation, login, revocation)
+     */
+    public void recordVersion(Long userId, int tokenVersion) {
+        AfterCommit.run(() -> apply(userId, tokenVersion));
+    }
+
+    /**
+     * Reject every token of a deleted account
+     */
+    public void forget(Long userId) {
+        AfterCommit.run(() -> apply(userId, DELETED));
+    }
+
+    /**
+     * Reload every token version from the database
+     */
+    @Scheduled(initialDelayString = "${application.security.token-versions.refresh-interval-ms}",
+            fixedDelayString = "${application.security.token-versions.refresh-interval-ms}")
+    public void refresh() {
+        long startedAt = System.nanoTime();
+        ConcurrentHashMap<Long, Integer> loaded = new ConcurrentHashMap<>();
+        for (TokenVersion tokenVersion : utilisateurRepository.findAllTokenVersions()) {
+            loaded.put(tokenVersion.getId(), tokenVersion.getTokenVersion());
+        }
+
+        synchronized (this) {
+            Iterator<Map.Entry<Long, LocalChange>> iterator = recentChanges.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, LocalChange> entry = iterator.next();
+                if (entry.getValue().appliedAt - startedAt < 0) {
+                    // Committed before the reload started, so already part of it
+                    iterator.remove();
+                } else {
+                    put(loaded, entry.getKey(), entry.getValue().version);
+                }
+            }
+            versions = loaded;
+        }
+    }
+
+    /**
+     * First load: a single scan of the accounts, whatever the number of requests waiting for it
+     */
+    private ConcurrentHashMap<Long, Integer> loadOnce() {
+        firstLoad.lock();
+        try {
+            if (versions == null) {
+                refresh();
+            }
+            return versions;
+        } finally {
+            firstLoad.unlock();
+        }
+    }
+
+    private synchronized void apply(Long userId, int version) {
+        recentChanges.put(userId, new LocalChange(version, System.nanoTime()));
+        if (versions != null) {
+            put(versions, userId, version);
+        }
+    }
+
+    private void put(Map<Long, Integer> target, Long userId, int version) {
+        if (version == DELETED) {
+            target.remove(userId);
+        } else {
+            target.put(userId, version);
+        }
+    }
+
+    private record LocalChange(int version, long appliedAt) {
+    }
+}
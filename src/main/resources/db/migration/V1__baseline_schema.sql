@@ -0,0 +1,153 @@
+-- Schema as created by ddl-auto=update before migrations existed.
+-- Databases created that way are baselined at this version and start at V2: every later
+-- change of the entities goes into a new migration, never into this file.
+
+create table utilisateur (
+    id bigint not null auto_increment,
+    nom varchar(255),
+    prenom varchar(255),
+    email varchar(255),
+    cni varchar(255),
+    cne varchar(255),
+    date_naissance datetime(6),
+    mot_de_passe varchar(255),
+    role enum ('ADMIN','CHEF_DE_DEPARTEMENT','ENCADRANT','ETUDIANT','JURY'),
+    primary key (id)
+) engine=InnoDB;
+
+create table filiere (
+    id bigint not null auto_increment,
+    nom varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table salle (
+    id bigint not null auto_increment,
+    nom varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table pourcentage (
+    id bigint not null auto_increment,
+    pourcentage_encadrant integer not null,
+    pourcentage_rapport integer not null,
+    pourcentage_soutenance integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table etudiant (
+    id bigint not null,
+    filiere_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table sujet (
+    id bigint not null auto_increment,
+    titre varchar(255) not null,
+    theme varchar(255) not null,
+    description TEXT not null,
+    filiere_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table binome (
+    id bigint not null auto_increment,
+    etudiant1_id bigint not null,
+    etudiant2_id bigint,
+    encadrant_id bigint not null,
+    sujet_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table demande_binome (
+    id bigint not null auto_increment,
+    demandeur_id bigint not null,
+    demande_id bigint not null,
+    statut enum ('ACCEPTER','EN_ATTENTE','REFUSER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table proposer_sujets (
+    id bigint not null auto_increment,
+    titre varchar(255) not null,
+    theme varchar(255) not null,
+    description TEXT not null,
+    filiere_id bigint not null,
+    etudiant_id bigint not null,
+    binome_id bigint,
+    status enum ('ACCEPTER','EN_ATTENTE','REFUSER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table soutenance (
+    id bigint not null auto_increment,
+    date date not null,
+    heure time(6) not null,
+    salle_id bigint not null,
+    binome_id bigint not null,
+    jury1_id bigint not null,
+    jury2_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table note_soutenance (
+    id bigint not null auto_increment,
+    jury_id bigint not null,
+    note integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table rapport (
+    id bigint not null auto_increment,
+    titre varchar(255) not null,
+    localisation_rapport varchar(255) not null,
+    commentaire varchar(255),
+    note integer not null,
+    binome_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table documents_evaluation (
+    id bigint not null auto_increment,
+    localisation_doc varchar(255) not null,
+    commentaire TEXT,
+    binome_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table note_finale (
+    id bigint not null auto_increment,
+    etudiant_id bigint not null,
+    note_rapport integer not null,
+    note_soutenance integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Unique constraints and indexes, under the names Hibernate gave them
+alter table utilisateur add constraint UKrma38wvnqfaf66vvmi57c71lo unique (email);
+alter table utilisateur add constraint UKbsytdwvktp9akr6x0sr27t8f8 unique (cni);
+alter table utilisateur add constraint UKkn6sue8dokbbts0vljj2uckbr unique (cne);
+alter table filiere add constraint UKfnacxk67cqd2s65y6tcr0jmr3 unique (nom);
+alter table soutenance add constraint UKg3ky32aofu259j49d6t6by919 unique (binome_id);
+
+-- Foreign keys
+alter table etudiant add constraint FK8r3ygi23xihnm6jbtxoyrmlrj foreign key (id) references utilisateur (id);
+alter table etudiant add constraint FKmph3yyex90twjoxoqkumd4yy9 foreign key (filiere_id) references filiere (id);
+alter table sujet add constraint FKqdyq1fkw916avbwdt4uyeqfjj foreign key (filiere_id) references filiere (id);
+alter table binome add constraint FKd867erywekxhp5j04mfe2br99 foreign key (etudiant1_id) references utilisateur (id);
+alter table binome add constraint FKd2j7gdmguro3ogidsdp179do9 foreign key (etudiant2_id) references utilisateur (id);
+alter table binome add constraint FKrrm2p4sl5l4l4c4y3otkbsj2m foreign key (encadrant_id) references utilisateur (id);
+alter table binome add constraint FKjise4pi5od1tu98dlhg88sl6q foreign key (sujet_id) references sujet (id);
+alter table demande_binome add constraint FKsfixtbxwh2mkx8w3d3qmqqwms foreign key (demandeur_id) references utilisateur (id);
+alter table demande_binome add constraint FKgmwm98r6ijq79uvyhimycixxh foreign key (demande_id) references utilisateur (id);
+alter table proposer_sujets add constraint FKldmwgbya58edrmjvhtb1oxovw foreign key (filiere_id) references filiere (id);
+alter table proposer_sujets add constraint FKsy0qc9i0a66bu8g1xamsx02aj foreign key (etudiant_id) references utilisateur (id);
+alter table proposer_sujets add constraint FKj9gpucilolhjvy1ul6ij7q5wk foreign key (binome_id) references binome (id);
+alter table soutenance add constraint FKbdsdw5sb55s05kjvhcnsruhc9 foreign key (salle_id) references salle (id);
+alter table soutenance add constraint FKt3jduqbf9kloh1o0dotqfxqsb foreign key (binome_id) references binome (id);
+alter table soutenance add constraint FKjcebpi5ug5qrtk800si3lkd9n foreign key (jury1_id) references utilisateur (id);
+alter table soutenance add constraint FK510ebimgn55xjfu6g1cph1acj foreign key (jury2_id) references utilisateur (id);
+alter table note_soutenance add constraint FK4hsxkpe8rde1gpfghqti7ch94 foreign key (jury_id) references utilisateur (id);
+alter table rapport add constraint FKqdcle8e1vyq4syq7n9usfp73t foreign key (binome_id) references binome (id);
+alter table documents_evaluation add constraint FKc289bgeq0k1313dk6t57tqiw4 foreign key (binome_id) references binome (id);
+alter table note_finale add constraint FK2hcwjwodnl5iwd5iih4gbsbcy foreign key (etudiant_id) references utilisateur (id);
@@ -0,0 +1,44 @@
+-- Indexes for the lookups of the repository package. Equality columns first, then the
+-- column the query sorts or ranges on; MySQL drops its implicit foreign key index
+-- once one of these can serve the constraint. Keep in sync with the @Index of the entities.
+
+-- Binome membership (findByEtudiant1/2, available students, filière listings) and assignments
+create index idx_binome_etudiant1 on binome (etudiant1_id);
+create index idx_binome_etudiant2 on binome (etudiant2_id);
+create index idx_binome_encadrant on binome (encadrant_id);
+create index idx_binome_sujet on binome (sujet_id);
+
+-- Binome requests sent by / received by a student, per status, and between two students
+create index idx_demande_binome_demandeur_statut on demande_binome (demandeur_id, statut, demande_id);
+create index idx_demande_binome_demande_statut on demande_binome (demande_id, statut, demandeur_id);
+
+-- Chronological keyset pagination of the soutenance listing (findByDateBetween, findByDateAndHeure)
+create index idx_soutenance_date_heure on soutenance (date, heure, id);
+
+-- Scheduling conflicts: salle or jury member at a date and time
+create index idx_soutenance_salle_date on soutenance (salle_id, date, heure);
+create index idx_soutenance_jury1_date on soutenance (jury1_id, date, heure);
+create index idx_soutenance_jury2_date on soutenance (jury2_id, date, heure);
+
+-- Suggestions per status (moderation queue, dashboard counter), per student and per filière
+create index idx_proposer_sujets_status on proposer_sujets (status, id);
+create index idx_proposer_sujets_etudiant on proposer_sujets (etudiant_id);
+create index idx_proposer_sujets_filiere on proposer_sujets (filiere_id);
+
+-- Students and subjects of a filière, in id order
+create index idx_etudiant_filiere on etudiant (filiere_id, id);
+create index idx_sujet_filiere on sujet (filiere_id);
+
+-- Latest report and evaluation document of a binome
+create index idx_rapport_binome on rapport (binome_id, id);
+create index idx_documents_evaluation_binome on documents_evaluation (binome_id, id);
+
+-- Notes given by a jury member, final grades ranking
+create index idx_note_soutenance_jury on note_soutenance (jury_id);
+create index idx_note_finale_classement on note_finale (note_rapport, note_soutenance);
+
+-- Salle lookup by name
+create index idx_salle_nom on salle (nom);
+
+-- Account listing: filtered by role, keyset-paginated by name
+create index idx_utilisateur_role_nom on utilisateur (role, nom, prenom, id);
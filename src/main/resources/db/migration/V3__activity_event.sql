@@ -0,0 +1,11 @@
+-- Dashboard activity feed: append-only, read newest first (latest events, keyset pages)
+
+create table activity_event (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    type enum ('BINOME','SOUTENANCE','SUGGESTION','SUJET','USER') not null,
+    description varchar(500) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_activity_event_created_at on activity_event (created_at desc, id desc);
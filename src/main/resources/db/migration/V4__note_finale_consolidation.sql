@@ -0,0 +1,8 @@
+-- Consolidated final grades: one row per student, with the encadrant grade and the weighted result.
+-- Keep only the latest row of a student first (the nightly consolidation recomputes it anyway).
+delete from note_finale where id not in (
+    select id from (select max(id) as id from note_finale group by etudiant_id) latest);
+
+alter table note_finale add column note_encadrant integer;
+alter table note_finale add column note_finale float(53);
+alter table note_finale add constraint UKbeylbd3c7wxmlg3qd6f4brx5u unique (etudiant_id);
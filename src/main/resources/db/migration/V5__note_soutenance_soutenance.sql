@@ -0,0 +1,4 @@
+-- Jury grades are linked to their soutenance; nullable, grades recorded before the link stay valid
+alter table note_soutenance add column soutenance_id bigint;
+alter table note_soutenance add constraint FKh9rmx19hwvv2xiry5eeriquhf foreign key (soutenance_id) references soutenance (id);
+create index idx_note_soutenance_soutenance_jury on note_soutenance (soutenance_id, jury_id);
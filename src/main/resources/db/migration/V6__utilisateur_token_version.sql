@@ -0,0 +1,2 @@
+-- Token version carried by every JWT (revocation); existing accounts start at 0
+alter table utilisateur add column token_version integer not null default 0;
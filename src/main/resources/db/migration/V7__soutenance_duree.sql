@@ -0,0 +1,2 @@
+-- Soutenance length in minutes; null for the rows planned before durations existed (configured default)
+alter table soutenance add column duree integer;
@@ -0,0 +1,14 @@
+-- Account ids are reserved in blocks from id_generator (batched inserts) instead of auto-increment.
+-- IdGeneratorInitializer moves the generator past the existing ids on startup.
+create table id_generator (
+    sequence_name varchar(255) not null,
+    next_val bigint,
+    primary key (sequence_name)
+) engine=InnoDB;
+
+insert into id_generator (sequence_name, next_val) values ('utilisateur', 0);
+
+-- Referenced by foreign keys, which MySQL checks even though the type does not change
+SET FOREIGN_KEY_CHECKS = 0;
+alter table utilisateur modify id bigint not null;
+SET FOREIGN_KEY_CHECKS = 1;
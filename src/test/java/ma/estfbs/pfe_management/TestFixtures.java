@@ -0,0 +1,102 @@
+package ma.estfbs.pfe_management;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Date;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+/**
+ * Entities the JPA tests are seeded with. Each fixture numbers what it persists,
+ * so the unique columns of the accounts (email, CNE, CNI) never collide.
+ */
+public class TestFixtures {
+
+    private final TestEntityManager entityManager;
+    private int sequence;
+
+    public TestFixtures(TestEntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Unsaved account numbered id, for the tests that save through a repository
+     */
+    public static Utilisateur.UtilisateurBuilder utilisateur(Role role, int id) {
+        return Utilisateur.builder()
+                .nom("Nom" + id)
+                .prenom("Prenom" + id)
+                .email("user" + id + ".efb@usms.ac.ma")
+                .cne(role == Role.ETUDIANT ? "CNE" + id : null)
+                .cni(role != Role.ETUDIANT ? "CNI" + id : null)
+                .dateNaissance(new Date())
+                .motDePasse("secret")
+                .role(role);
+    }
+
+    public Utilisateur persistUser(Role role) {
+        return entityManager.persist(utilisateur(role, ++sequence).build());
+    }
+
+    public Utilisateur persistUser(Role role, String nom, String prenom) {
+        return entityManager.persist(utilisateur(role, ++sequence).nom(nom).prenom(prenom).build());
+    }
+
+    /**
+     * Student account with its Etudiant row in the filiere
+     */
+    public Utilisateur persistEtudiant(Filiere filiere) {
+        return persistEtudiant(persistUser(Role.ETUDIANT), filiere);
+    }
+
+    public Utilisateur persistEtudiant(Utilisateur utilisateur, Filiere filiere) {
+        entityManager.persist(Etudiant.builder().utilisateur(utilisateur).filiere(filiere).build());
+        return utilisateur;
+    }
+
+    public Sujet persistSujet(Filiere filiere) {
+        return entityManager.persist(Sujet.builder()
+                .titre("Sujet " + ++sequence)
+                .theme("Theme")
+                .description("Description")
+                .filiere(filiere)
+                .build());
+    }
+
+    public Salle persistSalle() {
+        return entityManager.persist(Salle.builder().nom("Salle " + ++sequence).build());
+    }
+
+    /**
+     * Binome of two students, or of one when etudiant2 is null
+     */
+    public Binome persistBinome(Utilisateur etudiant1, Utilisateur etudiant2, Utilisateur encadrant, Sujet sujet) {
+        return entityManager.persist(Binome.builder()
+                .etudiant1(etudiant1)
+                .etudiant2(etudiant2)
+                .encadrant(encadrant)
+                .sujet(sujet)
+                .build());
+    }
+
+    public Soutenance persistSoutenance(Binome binome, LocalDate date, LocalTime heure, Salle salle,
+            Utilisateur jury1, Utilisateur jury2) {
+        return entityManager.persist(Soutenance.builder()
+                .date(date)
+                .heure(heure)
+                .salle(salle)
+                .binome(binome)
+                .jury1(jury1)
+                .jury2(jury2)
+                .build());
+    }
+}
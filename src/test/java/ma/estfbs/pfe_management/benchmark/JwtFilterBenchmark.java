@@ -0,0 +1,136 @@
+package ma.estfbs.pfe_management.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import ma.estfbs.pfe_management.config.JwtAuthenticationFilter;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.service.JwtService;
+import ma.estfbs.pfe_management.service.TokenRevocationService;
+
+/**
+ * Throughput of the JWT authentication filter for a client repeating the same
+ * token, in both authentication modes, against the former parse-per-claim
+ * approach. The user lookup of the UserDetails mode is served from memory here,
+ * so the gap with the stateless mode is a lower bound.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ma.estfbs.pfe_management.benchmark.JwtFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET_KEY = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter userDetailsFilter;
+    private JwtAuthenticationFilter statelessFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        Utilisateur utilisateur = Utilisateur.builder()
+                .id(1L)
+                .nom("Nom")
+                .prenom("Prenom")
+                .email("etudiant.efb@usms.ac.ma")
+                .dateNaissance(new Date())
+                .motDePasse("secret")
+                .role(Role.ETUDIANT)
+                .build();
+        token = jwtService.generateToken(utilisateur);
+
+        TokenRevocationService tokenRevocationService =
+                new TokenRevocationService(Mockito.mock(UtilisateurRepository.class));
+        tokenRevocationService.refresh();
+        tokenRevocationService.recordVersion(utilisateur.getId(), utilisateur.getTokenVersion());
+
+        userDetailsFilter = new JwtAuthenticationFilter(jwtService, username -> utilisateur, tokenRevocationService);
+        statelessFilter = new JwtAuthenticationFilter(jwtService, username -> utilisateur, tokenRevocationService);
+        ReflectionTestUtils.setField(statelessFilter, "statelessAuth", true);
+    }
+
+    @Benchmark
+    public Object filterRequestUserDetails() throws Exception {
+        return filterRequest(userDetailsFilter);
+    }
+
+    @Benchmark
+    public Object filterRequestStateless() throws Exception {
+        return filterRequest(statelessFilter);
+    }
+
+    private Object filterRequest(JwtAuthenticationFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/etudiant/binome");
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            // A service reading the current user, as EtudiantBinomeService does
+            return jwtService.extractUserId(jwtService.getTokenFromRequest());
+        } finally {
+            SecurityContextHolder.clearContext();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    /**
+     * Baseline: key derivation, parser construction and signature check for each claim read
+     */
+    @Benchmark
+    public Object parsePerClaim() {
+        Object result = null;
+        for (int i = 0; i < 6; i++) {
+            result = Jwts.parserBuilder()
+                    .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY)))
+                    .build()
+                    .parseClaimsJws(token)
+                    .getBody();
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package ma.estfbs.pfe_management.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Time to serve a burst of concurrent requests that each wait on I/O outside the database
+ * (token check, file read) then run a query on a connection of a fixed-size pool, as in the
+ * virtual-threads profile (20 connections): Tomcat's 200 platform threads against one virtual
+ * thread per request, with the query run inside a synchronized block or not.
+ *
+ * With platform threads the burst is bounded by the 200 threads; with virtual threads by the
+ * pool, unless the query pins its carrier, which brings it down to one query per CPU.
+ * The virtual variants need Java 21 (mvn -Pjava21).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ma.estfbs.pfe_management.benchmark.VirtualThreadsBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+
+    private static final int REQUESTS = 2_000;
+    private static final int POOL_SIZE = 20;
+    private static final int TOMCAT_THREADS = 200;
+    private static final long IO_MILLIS = 20;
+    private static final long QUERY_MILLIS = 2;
+
+    @Param({ "platform", "virtual", "virtual-pinned" })
+    public String mode;
+
+    private ExecutorService executor;
+    private BlockingQueue<Object> connections;
+
+    @Setup
+    public void setUp() throws Exception {
+        connections = new ArrayBlockingQueue<>(POOL_SIZE, true);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            connections.add(new Object());
+        }
+        if (mode.equals("platform")) {
+            executor = Executors.newFixedThreadPool(TOMCAT_THREADS);
+        } else {
+            if (Runtime.version().feature() < 21) {
+                throw new UnsupportedOperationException("Les threads virtuels nécessitent Java 21 (mvn -Pjava21)");
+            }
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<Integer>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(this::request));
+        }
+        int served = 0;
+        for (Future<Integer> response : responses) {
+            served += response.get();
+        }
+        return served;
+    }
+
+    private int request() throws InterruptedException {
+        Thread.sleep(IO_MILLIS);
+        Object connection = connections.take();
+        try {
+            if (mode.equals("virtual-pinned")) {
+                // A driver guarding its socket reads with synchronized: uncontended, but it pins
+                synchronized (connection) {
+                    Thread.sleep(QUERY_MILLIS);
+                }
+            } else {
+                Thread.sleep(QUERY_MILLIS);
+            }
+            return 1;
+        } finally {
+            connections.add(connection);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VirtualThreadsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,87 @@
+package ma.estfbs.pfe_management.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class CorrelationIdFilterTest {
+
+    private final CorrelationIdFilter filter = new CorrelationIdFilter();
+
+    @Test
+    void reusesTheCallerCorrelationId() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/etudiant/binome");
+        request.addHeader(CorrelationIdFilter.HEADER, "front-42.a");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String seen = run(request, response);
+
+        assertThat(seen).isEqualTo("front-42.a");
+        assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo("front-42.a");
+        assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+    }
+
+    @Test
+    void generatesAnIdWhenMissingOrInvalid() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/etudiant/binome");
+        request.addHeader(CorrelationIdFilter.HEADER, "bad\nid");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        String seen = run(request, response);
+
+        assertThat(seen).isNotBlank().isNotEqualTo("bad\nid");
+        assertThat(response.getHeader(CorrelationIdFilter.HEADER)).isEqualTo(seen);
+        assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+
+        String other = run(new MockHttpServletRequest("GET", "/api/etudiant/binome"), new MockHttpServletResponse());
+        assertThat(other).isNotBlank().isNotEqualTo(seen);
+    }
+
+    @Test
+    void poolTasksKeepTheCorrelationIdOfTheRequest() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            MDC.put(CorrelationIdFilter.MDC_KEY, "front-42.a");
+            Runnable task = CorrelationIdFilter.propagate(() -> { });
+            String seen = pool.submit(CorrelationIdFilter.propagate(() -> MDC.get(CorrelationIdFilter.MDC_KEY))).get();
+            MDC.remove(CorrelationIdFilter.MDC_KEY);
+            assertThat(seen).isEqualTo("front-42.a");
+
+            // Nothing left behind on the pool thread, nor on a caller running the task itself
+            assertThat(pool.submit(() -> MDC.get(CorrelationIdFilter.MDC_KEY)).get()).isNull();
+            MDC.put(CorrelationIdFilter.MDC_KEY, "other");
+            task.run();
+            assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isEqualTo("other");
+        } finally {
+            MDC.clear();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the filter and return the correlation id visible to the rest of the chain
+     */
+    private String run(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+        AtomicReference<String> seen = new AtomicReference<>();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                seen.set(MDC.get(CorrelationIdFilter.MDC_KEY));
+            }
+        });
+        filter.doFilter(request, response, chain);
+        return seen.get();
+    }
+}
@@ -0,0 +1,96 @@
+package ma.estfbs.pfe_management.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.service.JwtService;
+import ma.estfbs.pfe_management.service.TokenRevocationService;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtService jwtService;
+    private UserDetailsService userDetailsService;
+    private TokenRevocationService tokenRevocationService;
+    private JwtAuthenticationFilter filter;
+    private Utilisateur utilisateur;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 100L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        userDetailsService = mock(UserDetailsService.class);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenRevocationService);
+        ReflectionTestUtils.setField(filter, "statelessAuth", true);
+
+        utilisateur = Utilisateur.builder()
+                .id(5L)
+                .email("chef.efb@usms.ac.ma")
+                .role(Role.CHEF_DE_DEPARTEMENT)
+                .tokenVersion(2)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void statelessModeAuthenticatesFromClaimsWithoutLoadingTheUser() throws Exception {
+        when(tokenRevocationService.isCurrent(5L, 2)).thenReturn(true);
+
+        Authentication authentication = filter(jwtService.generateToken(utilisateur));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo("chef.efb@usms.ac.ma");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_CHEF_DE_DEPARTEMENT");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void revokedTokensAreNotAuthenticated() throws Exception {
+        when(tokenRevocationService.isCurrent(any(), any())).thenReturn(false);
+
+        assertThat(filter(jwtService.generateToken(utilisateur))).isNull();
+        verify(tokenRevocationService).isCurrent(5L, 2);
+    }
+
+    @Test
+    void passwordResetTokensDoNotAuthenticate() throws Exception {
+        when(tokenRevocationService.isCurrent(any(), any())).thenReturn(true);
+
+        assertThat(filter(jwtService.generatePasswordResetToken(utilisateur.getEmail()))).isNull();
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/chef_de_departement/notes");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
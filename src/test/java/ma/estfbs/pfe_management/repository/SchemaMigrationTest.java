@@ -0,0 +1,237 @@
+package ma.estfbs.pfe_management.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The Flyway migrations build a schema the entities validate against (ddl-auto=validate),
+ * and every hot lookup of the repository package is served by one of their indexes.
+ *
+ * The queries below are the SQL the repository methods translate to, run through EXPLAIN
+ * on H2 in MySQL mode: a plan that scans the table instead of seeking an index fails.
+ *
+ * A database created by ddl-auto=update before the migrations existed is baselined at V1
+ * and must end up with the same schema as a fresh one once the later migrations ran.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        // Own database, so the generated schema of the other tests does not get in the way
+        "spring.datasource.url=jdbc:h2:mem:pfe_migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate" })
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // A few rows, so that a scan is not free for the optimizer
+        jdbcTemplate.update("INSERT INTO filiere (id, nom) VALUES (1, 'Informatique'), (2, 'Gestion')");
+        jdbcTemplate.update("INSERT INTO salle (id, nom) VALUES (1, 'Salle 1'), (2, 'Salle 2')");
+        for (int id = 1; id <= 40; id++) {
+            jdbcTemplate.update("INSERT INTO utilisateur (id, nom, prenom, email, cne, role, token_version) "
+                    + "VALUES (?, ?, 'Prenom', ?, ?, 'ETUDIANT', 0)", id, "Nom" + id, "user" + id + ".efb@usms.ac.ma",
+                    "CNE" + id);
+            jdbcTemplate.update("INSERT INTO etudiant (id, filiere_id) VALUES (?, ?)", id, 1 + id % 2);
+        }
+        jdbcTemplate.update("INSERT INTO sujet (id, titre, theme, description, filiere_id) "
+                + "VALUES (1, 'Sujet', 'Theme', 'Description', 1)");
+        for (int id = 1; id <= 10; id++) {
+            jdbcTemplate.update("INSERT INTO binome (id, etudiant1_id, etudiant2_id, encadrant_id, sujet_id) "
+                    + "VALUES (?, ?, ?, 40, 1)", id, 2 * id - 1, 2 * id);
+            jdbcTemplate.update("INSERT INTO soutenance (id, date, heure, salle_id, binome_id, jury1_id, jury2_id) "
+                    + "VALUES (?, ?, TIME '09:00:00', ?, ?, 38, 39)",
+                    id, LocalDate.of(2025, 6, 1).plusDays(id), 1 + id % 2, id);
+            jdbcTemplate.update("INSERT INTO demande_binome (demandeur_id, demande_id, statut) "
+                    + "VALUES (?, ?, 'EN_ATTENTE')", 20 + id, 30 - id);
+            jdbcTemplate.update("INSERT INTO proposer_sujets (titre, theme, description, filiere_id, etudiant_id, status) "
+                    + "VALUES ('Titre', 'Theme', 'Description', 1, ?, 'EN_ATTENTE')", id);
+            jdbcTemplate.update("INSERT INTO rapport (titre, localisation_rapport, note, binome_id) "
+                    + "VALUES ('Rapport', 'rapport.pdf', 15, ?)", id);
+            jdbcTemplate.update("INSERT INTO documents_evaluation (localisation_doc, binome_id) "
+                    + "VALUES ('doc.pdf', ?)", id);
+        }
+    }
+
+    @Test
+    void migrationsAreAppliedInOrder() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" "
+                        + "WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"",
+                String.class);
+        assertThat(versions).containsExactly("1", "2", "3", "4", "5", "6", "7", "8");
+    }
+
+    @Test
+    void aDatabaseCreatedBeforeTheMigrationsIsUpgradedToTheSameSchema() {
+        DataSource legacy = new DriverManagerDataSource(
+                "jdbc:h2:mem:pfe_legacy;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate legacyJdbc = new JdbcTemplate(legacy);
+        // The schema ddl-auto=update had built, with a few rows
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(legacy);
+        legacyJdbc.update("INSERT INTO filiere (nom) VALUES ('Informatique')");
+        legacyJdbc.update("INSERT INTO utilisateur (nom, prenom, email, role) "
+                + "VALUES ('Nom', 'Prenom', 'etudiant.efb@usms.ac.ma', 'ETUDIANT')");
+        Long etudiantId = legacyJdbc.queryForObject("SELECT id FROM utilisateur", Long.class);
+        legacyJdbc.update("INSERT INTO etudiant (id, filiere_id) SELECT ?, id FROM filiere", etudiantId);
+        // Consolidated twice, before final grades were unique per student
+        legacyJdbc.update("INSERT INTO note_finale (etudiant_id, note_rapport, note_soutenance) VALUES (?, 10, 11)",
+                etudiantId);
+        legacyJdbc.update("INSERT INTO note_finale (etudiant_id, note_rapport, note_soutenance) VALUES (?, 14, 15)",
+                etudiantId);
+
+        Flyway.configure()
+                .dataSource(legacy)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertThat(describeSchema(legacyJdbc)).isEqualTo(describeSchema(jdbcTemplate));
+        assertThat(legacyJdbc.queryForObject("SELECT token_version FROM utilisateur", Integer.class)).isZero();
+        assertThat(legacyJdbc.queryForList("SELECT note_rapport FROM note_finale", Integer.class)).containsExactly(14);
+        // Ids now come from the generator, not from auto-increment
+        assertThat(legacyJdbc.queryForObject("SELECT is_identity FROM information_schema.columns "
+                + "WHERE table_name = 'utilisateur' AND column_name = 'id'", String.class)).isEqualTo("NO");
+        legacyJdbc.update("INSERT INTO utilisateur (id, email, role, token_version) "
+                + "VALUES (100, 'jury.efb@usms.ac.ma', 'JURY', 0)");
+    }
+
+    @Test
+    void everyDeclaredIndexExists() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(index_name) FROM information_schema.indexes WHERE table_schema = 'public'", String.class);
+        assertThat(indexes).contains("idx_binome_etudiant1", "idx_binome_etudiant2", "idx_binome_encadrant",
+                "idx_binome_sujet", "idx_demande_binome_demandeur_statut", "idx_demande_binome_demande_statut",
+                "idx_soutenance_date_heure", "idx_soutenance_salle_date", "idx_soutenance_jury1_date",
+                "idx_soutenance_jury2_date", "idx_proposer_sujets_status", "idx_proposer_sujets_etudiant",
+                "idx_proposer_sujets_filiere", "idx_etudiant_filiere", "idx_sujet_filiere", "idx_rapport_binome",
+                "idx_documents_evaluation_binome", "idx_note_soutenance_jury", "idx_note_finale_classement",
+                "idx_salle_nom", "idx_utilisateur_role_nom", "idx_note_soutenance_soutenance_jury",
+                "idx_activity_event_created_at");
+    }
+
+    // Where a lookup only filters on a foreign key column, H2 may as well use the index it keeps
+    // for the constraint (MySQL drops its own once ours exists): only the absence of a scan is checked
+
+    @Test
+    void binomeLookupsUseTheirIndexes() {
+        // findByEtudiant1 / findByEtudiant2, available students (NOT EXISTS per member)
+        assertUsesIndex("SELECT id FROM binome WHERE etudiant1_id = 3", null);
+        assertUsesIndex("SELECT id FROM binome WHERE etudiant2_id = 4", null);
+        assertUsesIndex("SELECT id FROM binome WHERE encadrant_id = 40", null);
+        // Sujets without binome
+        assertUsesIndex("SELECT 1 FROM binome WHERE sujet_id = 1", null);
+    }
+
+    @Test
+    void demandeBinomeLookupsUseTheirIndexes() {
+        // findByDemandeurAndStatut, findDemandeIdsByDemandeurIdAndStatut, refused requests of the requester
+        assertUsesIndex("SELECT demande_id FROM demande_binome WHERE demandeur_id = 21 AND statut = 'REFUSER'",
+                "idx_demande_binome_demandeur_statut");
+        assertUsesIndex("SELECT 1 FROM demande_binome WHERE demandeur_id = 21 AND demande_id = 29",
+                "idx_demande_binome_demandeur_statut");
+        // findByDemandeAndStatut
+        assertUsesIndex("SELECT id FROM demande_binome WHERE demande_id = 29 AND statut = 'EN_ATTENTE'",
+                "idx_demande_binome_demande_statut");
+    }
+
+    @Test
+    void soutenanceLookupsUseTheirIndexes() {
+        // findByDateBetween, findByDateAndHeure, chronological listing
+        assertUsesIndex("SELECT id FROM soutenance WHERE date BETWEEN DATE '2025-06-02' AND DATE '2025-06-04' "
+                + "ORDER BY date, heure, id", "idx_soutenance_date_heure");
+        assertUsesIndex("SELECT id FROM soutenance WHERE date = DATE '2025-06-02' AND heure = TIME '09:00:00'",
+                "idx_soutenance_date_heure");
+        // existsBySalleAndDateAndHeure, existsByJury1/2AndDateAndHeure
+        assertUsesIndex("SELECT 1 FROM soutenance WHERE salle_id = 1 AND date = DATE '2025-06-02' "
+                + "AND heure = TIME '09:00:00'", "idx_soutenance_salle_date");
+        assertUsesIndex("SELECT 1 FROM soutenance WHERE jury1_id = 38 AND date = DATE '2025-06-02' "
+                + "AND heure = TIME '09:00:00'", "idx_soutenance_jury1_date");
+        assertUsesIndex("SELECT 1 FROM soutenance WHERE jury2_id = 39 AND date = DATE '2025-06-02' "
+                + "AND heure = TIME '09:00:00'", "idx_soutenance_jury2_date");
+    }
+
+    @Test
+    void otherHotLookupsUseTheirIndexes() {
+        // findByStatus, countByStatus
+        assertUsesIndex("SELECT COUNT(*) FROM proposer_sujets WHERE status = 'EN_ATTENTE'",
+                "idx_proposer_sujets_status");
+        assertUsesIndex("SELECT id FROM proposer_sujets WHERE etudiant_id = 2", null);
+        // findByFiliere, findRowsByFiliereId
+        assertUsesIndex("SELECT id FROM etudiant WHERE filiere_id = 1 ORDER BY id", null);
+        assertUsesIndex("SELECT id FROM sujet WHERE filiere_id = 1", null);
+        // findTopByBinomeOrderByIdDesc
+        assertUsesIndex("SELECT id FROM rapport WHERE binome_id = 2 ORDER BY id DESC LIMIT 1", null);
+        assertUsesIndex("SELECT id FROM documents_evaluation WHERE binome_id = 2 ORDER BY id DESC LIMIT 1", null);
+        // Login, email generation, account listing per role
+        assertUsesIndex("SELECT id FROM utilisateur WHERE email = 'user3.efb@usms.ac.ma'", null);
+        assertUsesIndex("SELECT email FROM utilisateur WHERE email LIKE 'user3%'", null);
+        assertUsesIndex("SELECT id FROM utilisateur WHERE role = 'JURY' ORDER BY id", "idx_utilisateur_role_nom");
+        assertUsesIndex("SELECT id FROM salle WHERE nom = 'Salle 1'", "idx_salle_nom");
+    }
+
+    @Test
+    void activityFeedIsReadFromItsIndex() {
+        for (int day = 1; day <= 20; day++) {
+            jdbcTemplate.update("INSERT INTO activity_event (created_at, type, description) VALUES (?, 'USER', 'Compte')",
+                    LocalDate.of(2025, 6, day).atStartOfDay());
+        }
+        // Latest events, then the keyset page after a given event
+        assertUsesIndex("SELECT id FROM activity_event ORDER BY created_at DESC, id DESC LIMIT 50",
+                "idx_activity_event_created_at");
+        assertUsesIndex("SELECT id FROM activity_event WHERE created_at < TIMESTAMP '2025-06-10 00:00:00' "
+                + "OR (created_at = TIMESTAMP '2025-06-10 00:00:00' AND id < 10) "
+                + "ORDER BY created_at DESC, id DESC LIMIT 21", "idx_activity_event_created_at");
+    }
+
+    /**
+     * Columns (type, nullability, generated values), named constraints and indexes of the schema
+     */
+    private static List<Map<String, Object>> describeSchema(JdbcTemplate jdbc) {
+        List<Map<String, Object>> schema = jdbc.queryForList("SELECT table_name, column_name, data_type, is_nullable, "
+                + "is_identity FROM information_schema.columns WHERE table_schema = 'public' "
+                + "AND table_name <> 'flyway_schema_history' ORDER BY table_name, column_name");
+        schema.addAll(jdbc.queryForList("SELECT table_name, LOWER(constraint_name) AS name, constraint_type "
+                + "FROM information_schema.table_constraints WHERE table_schema = 'public' "
+                + "AND constraint_type <> 'PRIMARY KEY' AND table_name <> 'flyway_schema_history' "
+                + "ORDER BY table_name, name"));
+        schema.addAll(jdbc.queryForList("SELECT table_name, LOWER(index_name) AS name FROM information_schema.indexes "
+                + "WHERE table_schema = 'public' AND LOWER(index_name) LIKE 'idx%' ORDER BY table_name, name"));
+        return schema;
+    }
+
+    /**
+     * Fail when the plan scans the table, or does not use the expected index (when given)
+     */
+    private void assertUsesIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toLowerCase();
+        assertThat(plan).as(sql).doesNotContain("tablescan");
+        if (index != null) {
+            assertThat(plan).as(sql).contains(index);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ma.estfbs.pfe_management.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.model.DemandeBinome;
+import ma.estfbs.pfe_management.model.DemandeBinome.Statut;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository.AvailableStudent;
+
+/**
+ * Available-student lookups: results, and statements run at 1k and 10k students.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Slf4j
+class UtilisateurRepositoryTest {
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Filiere informatique;
+    private Filiere gestion;
+    private Utilisateur encadrant;
+    private Sujet sujet;
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        informatique = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        gestion = entityManager.persist(Filiere.builder().nom("Gestion").build());
+        encadrant = fixtures.persistUser(Role.ENCADRANT);
+        sujet = fixtures.persistSujet(informatique);
+    }
+
+    @Test
+    void excludesStudentsInABinomeOnEitherSide() {
+        Utilisateur alone = fixtures.persistEtudiant(informatique);
+        Utilisateur first = fixtures.persistEtudiant(informatique);
+        Utilisateur second = fixtures.persistEtudiant(gestion);
+        Utilisateur solo = fixtures.persistEtudiant(gestion);
+        Utilisateur withoutEtudiant = fixtures.persistUser(Role.ETUDIANT);
+        fixtures.persistBinome(first, second, encadrant, sujet);
+        fixtures.persistBinome(solo, null, encadrant, sujet);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AvailableStudent> available = utilisateurRepository.findAvailableStudents();
+
+        assertThat(available).extracting(AvailableStudent::getId)
+                .containsExactly(alone.getId(), withoutEtudiant.getId());
+        assertThat(available.get(0).getFiliereNom()).isEqualTo("Informatique");
+        assertThat(available.get(0).getCne()).isEqualTo(alone.getCne());
+        assertThat(available.get(1).getFiliereNom()).isNull();
+
+        assertThat(utilisateurRepository.findAvailableStudentsExcept(alone.getId()))
+                .extracting(AvailableStudent::getId)
+                .containsExactly(withoutEtudiant.getId());
+    }
+
+    @Test
+    void filiereLookupExcludesSelfAndStudentsWhoRefused() {
+        Utilisateur requester = fixtures.persistEtudiant(informatique);
+        Utilisateur refused = fixtures.persistEtudiant(informatique);
+        Utilisateur pending = fixtures.persistEtudiant(informatique);
+        Utilisateur available = fixtures.persistEtudiant(informatique);
+        fixtures.persistEtudiant(gestion);
+        entityManager.persist(DemandeBinome.builder().demandeur(requester).demande(refused).statut(Statut.REFUSER).build());
+        entityManager.persist(DemandeBinome.builder().demandeur(requester).demande(pending).statut(Statut.EN_ATTENTE).build());
+        // Refused by someone else: does not hide the student from the requester
+        entityManager.persist(DemandeBinome.builder().demandeur(pending).demande(available).statut(Statut.REFUSER).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(utilisateurRepository.findAvailableStudentsInFiliere(informatique.getId(), requester.getId()))
+                .extracting(AvailableStudent::getId)
+                .containsExactly(pending.getId(), available.getId());
+    }
+
+    @Test
+    void lookupIsOneStatementWhateverTheCohortSize() {
+        seed(1_000);
+        long smallCohort = measure(500);
+
+        seed(9_000);
+        long largeCohort = measure(5_000);
+
+        // Timings are only reported: on a shared machine they are too noisy to assert on
+        log.info("Available students: 1k students {} ms, 10k students {} ms",
+                smallCohort / 1_000_000, largeCohort / 1_000_000);
+    }
+
+    /**
+     * Best of several runs of the lookup, in nanoseconds
+     */
+    private long measure(int expectedAvailable) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 7; run++) {
+            statistics.clear();
+            long start = System.nanoTime();
+            List<AvailableStudent> available = utilisateurRepository.findAvailableStudents();
+            best = Math.min(best, System.nanoTime() - start);
+
+            assertThat(available).hasSize(expectedAvailable);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            assertThat(statistics.getEntityLoadCount()).isZero();
+            entityManager.clear();
+        }
+        return best;
+    }
+
+    /**
+     * Students in pairs: one pair in a binome, the next pair still available
+     */
+    private void seed(int students) {
+        for (int i = 0; i < students; i += 2) {
+            Utilisateur first = fixtures.persistEtudiant(i % 4 == 0 ? informatique : gestion);
+            Utilisateur second = fixtures.persistEtudiant(i % 4 == 0 ? informatique : gestion);
+            if (i % 4 == 0) {
+                fixtures.persistBinome(first, second, encadrant, sujet);
+            }
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                informatique = entityManager.find(Filiere.class, informatique.getId());
+                gestion = entityManager.find(Filiere.class, gestion.getId());
+                encadrant = entityManager.find(Utilisateur.class, encadrant.getId());
+                sujet = entityManager.find(Sujet.class, sujet.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * Measures the round trips needed to insert 1,000 student accounts (Utilisateur + Etudiant):
+ * one statement per row, as IDENTITY ids required, then with JDBC batching.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Slf4j
+class AccountInsertBenchmarkTest {
+
+    private static final int ACCOUNTS = 1000;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void batchedInsertsNeedFarFewerRoundTrips() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        entityManager.flush();
+
+        long rowByRow = insertAccounts("a", filiere, 1);
+        long batched = insertAccounts("b", filiere, null);
+
+        log.info("{} accounts: {} round trips row by row, {} round trips batched",
+                ACCOUNTS, rowByRow, batched);
+
+        assertThat(rowByRow).isGreaterThanOrEqualTo(2 * ACCOUNTS);
+        // Two tables in batches of 50 rows, plus reading and moving the id generator once per 50 ids
+        assertThat(batched).isLessThanOrEqualTo(4 * ACCOUNTS / 50);
+        assertThat(utilisateurRepository.count()).isEqualTo(2 * ACCOUNTS);
+        assertThat(etudiantRepository.count()).isEqualTo(2 * ACCOUNTS);
+    }
+
+    /**
+     * Insert the accounts and return the number of statement executions sent to the database
+     *
+     * @param batchSize JDBC batch size of the session, or null for the configured one
+     */
+    private long insertAccounts(String prefix, Filiere filiere, Integer batchSize) {
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+
+        RoundTrips roundTrips = new RoundTrips();
+        session.addEventListeners(roundTrips);
+
+        List<Utilisateur> utilisateurs = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            utilisateurs.add(Utilisateur.builder()
+                    .nom("Nom" + i)
+                    .prenom("Prenom" + i)
+                    .email(prefix + i + ".efb@usms.ac.ma")
+                    .cne(prefix + "CNE" + i)
+                    .dateNaissance(new Date())
+                    .motDePasse("secret")
+                    .role(Role.ETUDIANT)
+                    .build());
+        }
+        utilisateurRepository.saveAll(utilisateurs);
+
+        List<Etudiant> etudiants = new ArrayList<>(ACCOUNTS);
+        for (Utilisateur utilisateur : utilisateurs) {
+            etudiants.add(Etudiant.builder().utilisateur(utilisateur).filiere(filiere).build());
+        }
+        etudiantRepository.saveAll(etudiants);
+        entityManager.flush();
+
+        // Listeners cannot be removed from the session
+        roundTrips.stopped = true;
+        entityManager.clear();
+        session.setJdbcBatchSize(null);
+        return roundTrips.count;
+    }
+
+    /**
+     * Counts single statements and batches sent on the session's connection
+     */
+    private static class RoundTrips implements SessionEventListener {
+
+        private long count;
+        private boolean stopped;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            if (!stopped) {
+                count++;
+            }
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            if (!stopped) {
+                count++;
+            }
+        }
+    }
+}
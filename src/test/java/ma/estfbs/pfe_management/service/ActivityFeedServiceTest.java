@@ -0,0 +1,107 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.model.ActivityEvent.Type;
+
+/**
+ * Activity feed: committed events only, served from memory, older ones by keyset pages.
+ * Runs without a test transaction so that recording transactions really commit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "application.dashboard.activity.buffer-size=3")
+@Import(ActivityFeedService.class)
+class ActivityFeedServiceTest {
+
+    @Autowired
+    private ActivityFeedService activityFeedService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM activity_event");
+        activityFeedService.reload();
+    }
+
+    @Test
+    void onlyCommittedEventsShowAndTheFeedIsReadWithoutQueries() {
+        activityFeedService.record(Type.USER, "Nouveau compte étudiant créé pour Ali Alaoui");
+        transactionTemplate.executeWithoutResult(status -> {
+            activityFeedService.record(Type.BINOME, "Nouveau binôme: Ali Alaoui et Sara Idrissi");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            activityFeedService.record(Type.SOUTENANCE, "Soutenance programmée");
+            // Not visible before the commit
+            assertThat(activityFeedService.getRecentActivities(null)).hasSize(1);
+        });
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ActivityDTO> activities = activityFeedService.getRecentActivities(null);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(activities).extracting(ActivityDTO::getDescription)
+                .containsExactly("Soutenance programmée", "Nouveau compte étudiant créé pour Ali Alaoui");
+        assertThat(activities.get(0).getType()).isEqualTo("soutenance");
+        assertThat(activities.get(0).getIcon()).isEqualTo("pi pi-calendar");
+    }
+
+    @Test
+    void theBufferKeepsTheLatestEventsAndPagesReachTheOlderOnes() {
+        for (int i = 1; i <= 7; i++) {
+            activityFeedService.record(Type.SUJET, "Sujet " + i);
+        }
+
+        assertThat(activityFeedService.getRecentActivities(null)).extracting(ActivityDTO::getDescription)
+                .containsExactly("Sujet 7", "Sujet 6", "Sujet 5");
+        assertThat(activityFeedService.getRecentActivities(2)).hasSize(2);
+        // Same content after a reload from the table
+        activityFeedService.reload();
+        assertThat(activityFeedService.getRecentActivities(null)).extracting(ActivityDTO::getDescription)
+                .containsExactly("Sujet 7", "Sujet 6", "Sujet 5");
+
+        KeysetPageDTO<ActivityDTO> first = activityFeedService.getActivitiesPage(
+                KeysetPageRequest.builder().size(4).build());
+        KeysetPageDTO<ActivityDTO> second = activityFeedService.getActivitiesPage(
+                KeysetPageRequest.builder().size(4).cursor(first.getNextCursor()).build());
+
+        assertThat(first.getItems()).extracting(ActivityDTO::getDescription)
+                .containsExactly("Sujet 7", "Sujet 6", "Sujet 5", "Sujet 4");
+        assertThat(second.getItems()).extracting(ActivityDTO::getDescription)
+                .containsExactly("Sujet 3", "Sujet 2", "Sujet 1");
+        assertThat(second.isHasNext()).isFalse();
+    }
+}
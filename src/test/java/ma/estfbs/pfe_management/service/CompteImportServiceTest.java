@@ -0,0 +1,150 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteImportResultDTO;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.EtudiantImportRow;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * Bulk student import: uniqueness checked in memory, accounts created and reported chunk by chunk.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CompteImportService.class, ReferenceDataService.class, TokenRevocationService.class,
+        PasswordHashingService.class, ActivityFeedService.class })
+class CompteImportServiceTest {
+
+    @Autowired
+    private CompteImportService compteImportService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Filiere filiere;
+
+    @BeforeEach
+    void setUp() {
+        filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        Utilisateur existing = entityManager.persist(Utilisateur.builder()
+                .nom("Alaoui").prenom("Ali").email("alialaoui.efb@usms.ac.ma").cne("EXIST1")
+                .dateNaissance(new Date()).motDePasse("secret").role(Role.ETUDIANT).build());
+        entityManager.persist(Etudiant.builder().utilisateur(existing).filiere(filiere).build());
+        // Taken number: homonyms must skip it
+        entityManager.persist(Utilisateur.builder()
+                .nom("Alaoui").prenom("Ali").email("alialaoui2.efb@usms.ac.ma").cni("CNI1")
+                .dateNaissance(new Date()).motDePasse("secret").role(Role.ENCADRANT).build());
+        entityManager.flush();
+    }
+
+    @Test
+    void createsAPromotionInChunksWithAFixedNumberOfLookups() {
+        List<EtudiantImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1100; i++) {
+            rows.add(row("Nom" + i, "Prénom", "CNE" + i));
+        }
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CompteImportService.PreparedImport preparedImport = compteImportService.prepareImport(rows);
+        // Filières, existing CNE and existing emails
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+
+        List<List<CompteImportResultDTO>> chunks = new ArrayList<>();
+        compteImportService.executeImport(preparedImport, chunks::add);
+
+        assertThat(chunks).extracting(List::size).containsExactly(500, 500, 100);
+        List<CompteImportResultDTO> results = chunks.stream().flatMap(List::stream).toList();
+        assertThat(results).allSatisfy(result -> assertThat(result.getError()).isNull());
+        assertThat(results.get(0).getEmail()).isEqualTo("prenomnom0.efb@usms.ac.ma");
+        assertThat(utilisateurRepository.count()).isEqualTo(1102);
+        assertThat(etudiantRepository.count()).isEqualTo(1101);
+
+        entityManager.clear();
+        Utilisateur created = utilisateurRepository.findById(results.get(1099).getId()).orElseThrow();
+        assertThat(created.getCne()).isEqualTo("CNE1099");
+        assertThat(created.getMotDePasse()).startsWith("$2a$");
+        // The chef receives the password that was hashed
+        assertThat(passwordHashingService.matches(results.get(1099).getMotDePasse(), created.getMotDePasse())).isTrue();
+        assertThat(etudiantRepository.findById(created.getId()).orElseThrow().getFiliere().getId())
+                .isEqualTo(filiere.getId());
+    }
+
+    @Test
+    void reportsInvalidRowsAndNumbersHomonyms() {
+        List<EtudiantImportRow> rows = List.of(
+                row("Alaoui", "Ali", "NEW1"),
+                row("Alaoui", "Ali", "NEW2"),
+                row("Alaoui", "Ali", "EXIST1"),
+                row("Alaoui", "Ali", "NEW1"),
+                row("Àlaoui", "Ali", "NEW3"),
+                row(" ", "Ali", "NEW4"),
+                EtudiantImportRow.builder().nom("Bennani").prenom("Sara").cne("NEW5")
+                        .dateNaissance(new Date()).filiereId(-1L).build());
+
+        List<CompteImportResultDTO> results = new ArrayList<>();
+        compteImportService.executeImport(compteImportService.prepareImport(rows), results::addAll);
+
+        assertThat(results).extracting(CompteImportResultDTO::getLigne).containsExactly(1, 2, 3, 4, 5, 6, 7);
+        assertThat(results).extracting(CompteImportResultDTO::getEmail).containsExactly(
+                "alialaoui1.efb@usms.ac.ma", "alialaoui3.efb@usms.ac.ma", null, null,
+                "alialaoui4.efb@usms.ac.ma", null, null);
+        assertThat(results).extracting(CompteImportResultDTO::getError).containsExactly(
+                null, null, "CNE déjà utilisé", "CNE déjà utilisé", null, "Le nom est obligatoire",
+                "Filière non trouvée avec l'id: -1");
+        // Passwords only for the created accounts
+        assertThat(results).filteredOn(result -> result.getId() == null)
+                .extracting(CompteImportResultDTO::getMotDePasse).containsOnlyNulls();
+        assertThat(results).filteredOn(result -> result.getId() != null)
+                .extracting(CompteImportResultDTO::getMotDePasse).doesNotContainNull();
+
+        assertThatThrownBy(() -> compteImportService.prepareImport(List.of()))
+                .hasMessage("Aucun compte à importer");
+    }
+
+    private EtudiantImportRow row(String nom, String prenom, String cne) {
+        return EtudiantImportRow.builder()
+                .nom(nom)
+                .prenom(prenom)
+                .cne(cne)
+                .dateNaissance(new Date())
+                .filiereId(filiere.getId())
+                .build();
+    }
+}
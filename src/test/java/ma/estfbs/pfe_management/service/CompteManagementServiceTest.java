@@ -0,0 +1,135 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteAddRequest;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteDTO;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * Email generation: one lookup whatever the number of homonyms, unique under concurrent creation.
+ * Runs without a test transaction so that every account creation commits on its own.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ CompteManagementService.class, ReferenceDataService.class, TokenRevocationService.class,
+        PasswordHashingService.class, ActivityFeedService.class })
+class CompteManagementServiceTest {
+
+    @Autowired
+    private CompteManagementService compteManagementService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    private int sequence;
+
+    @AfterEach
+    void cleanUp() {
+        utilisateurRepository.deleteAll();
+    }
+
+    @Test
+    void homonymsAreNumberedWithASingleEmailLookup() {
+        persistUser("alialaoui.efb@usms.ac.ma");
+        persistUser("alialaoui1.efb@usms.ac.ma");
+        persistUser("alialaoui3.efb@usms.ac.ma");
+        // Same prefix, other names
+        persistUser("alialaouiz.efb@usms.ac.ma");
+        persistUser("alialaoui2x.efb@usms.ac.ma");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CompteDTO compte = compteManagementService.addCompte(request("Alaoui", "Ali"));
+
+        assertThat(compte.getEmail()).isEqualTo("alialaoui2.efb@usms.ac.ma");
+        // The generated password is handed back once, and only its hash is stored
+        assertThat(compte.getMotDePasse()).hasSize(CompteManagementService.PASSWORD_LENGTH);
+        assertThat(passwordHashingService.matches(compte.getMotDePasse(),
+                utilisateurRepository.findByEmail(compte.getEmail()).orElseThrow().getMotDePasse())).isTrue();
+        // CNI check, emails of the prefix, insert, activity
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(compteManagementService.addCompte(request("Alaoui", "Ali")).getEmail())
+                .isEqualTo("alialaoui4.efb@usms.ac.ma");
+    }
+
+    @Test
+    void likeWildcardsInNamesAreMatchedLiterally() {
+        persistUser("xay.efb@usms.ac.ma");
+
+        assertThat(utilisateurRepository.findEmailsStartingWith("x_y")).isEmpty();
+        assertThat(compteManagementService.addCompte(request("_y", "x")).getEmail())
+                .isEqualTo("x_y.efb@usms.ac.ma");
+    }
+
+    @Test
+    void concurrentHomonymsGetDistinctEmails() throws Exception {
+        int comptes = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(comptes);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompteDTO>> futures = new ArrayList<>();
+            for (int i = 0; i < comptes; i++) {
+                CompteAddRequest request = request("Bennani", "Sara");
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return compteManagementService.addCompte(request);
+                }));
+            }
+            start.countDown();
+
+            List<String> emails = new ArrayList<>();
+            for (Future<CompteDTO> future : futures) {
+                emails.add(future.get().getEmail());
+            }
+            assertThat(emails).doesNotHaveDuplicates().allMatch(email -> email.startsWith("sarabennani"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CompteAddRequest request(String nom, String prenom) {
+        return CompteAddRequest.builder()
+                .nom(nom)
+                .prenom(prenom)
+                .cni("CNI-" + nom + "-" + ++sequence)
+                .dateNaissance(new Date())
+                .role(Role.ENCADRANT)
+                .build();
+    }
+
+    private void persistUser(String email) {
+        utilisateurRepository.save(TestFixtures.utilisateur(Role.ENCADRANT, ++sequence).email(email).build());
+    }
+}
@@ -0,0 +1,119 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+
+class DashboardAssemblyServiceTest {
+
+    private DashboardStatsService dashboardStatsService;
+    private HODDashboardService hodDashboardService;
+    private ActivityFeedService activityFeedService;
+    private ParallelQueryService parallelQueryService;
+    private DashboardAssemblyService service;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        dashboardStatsService = mock(DashboardStatsService.class);
+        hodDashboardService = mock(HODDashboardService.class);
+        activityFeedService = mock(ActivityFeedService.class);
+
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        parallelQueryService = new ParallelQueryService(transactionManager);
+        ReflectionTestUtils.setField(parallelQueryService, "threadCount", 3);
+        ReflectionTestUtils.setField(parallelQueryService, "queueCapacity", 10);
+        ReflectionTestUtils.invokeMethod(parallelQueryService, "start");
+
+        service = new DashboardAssemblyService(dashboardStatsService, hodDashboardService, activityFeedService,
+                parallelQueryService);
+        ReflectionTestUtils.setField(service, "timeoutMillis", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        ReflectionTestUtils.invokeMethod(parallelQueryService, "stop");
+    }
+
+    @Test
+    void thePartsAreQueriedAtTheSameTime() {
+        // Every part waits for the other two: only a parallel assembly completes in time
+        CountDownLatch allStarted = new CountDownLatch(3);
+        when(dashboardStatsService.getDashboardStats()).thenAnswer(invocation -> {
+            rendezVous(allStarted);
+            return stats(12);
+        });
+        when(hodDashboardService.getUpcomingSoutenances()).thenAnswer(invocation -> {
+            rendezVous(allStarted);
+            return List.of(UpcomingSoutenanceDTO.builder().id(7L).build());
+        });
+        when(activityFeedService.getRecentActivities(null)).thenAnswer(invocation -> {
+            rendezVous(allStarted);
+            return List.of(ActivityDTO.builder().id(1L).build());
+        });
+
+        DashboardDTO dashboard = service.getDashboard();
+
+        assertThat(dashboard.getDegraded()).isEmpty();
+        assertThat(dashboard.getStats().getTotalUsers()).isEqualTo(12);
+        assertThat(dashboard.getUpcomingSoutenances()).extracting(UpcomingSoutenanceDTO::getId).containsExactly(7L);
+        assertThat(dashboard.getActivities()).extracting(ActivityDTO::getId).containsExactly(1L);
+    }
+
+    @Test
+    void aSlowOrFailingPartFallsBackToItsLastValue() {
+        when(dashboardStatsService.getDashboardStats()).thenReturn(stats(12));
+        when(hodDashboardService.getUpcomingSoutenances())
+                .thenReturn(List.of(UpcomingSoutenanceDTO.builder().id(7L).build()));
+        when(activityFeedService.getRecentActivities(null)).thenReturn(List.of(ActivityDTO.builder().id(1L).build()));
+        service.getDashboard();
+
+        when(dashboardStatsService.getDashboardStats()).thenThrow(new RuntimeException("Base indisponible"));
+        when(hodDashboardService.getUpcomingSoutenances()).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+        when(activityFeedService.getRecentActivities(null)).thenReturn(List.of(ActivityDTO.builder().id(2L).build()));
+
+        long startedAt = System.nanoTime();
+        DashboardDTO dashboard = service.getDashboard();
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(2_000);
+        assertThat(dashboard.getDegraded()).containsExactly(DashboardAssemblyService.STATS,
+                DashboardAssemblyService.UPCOMING_SOUTENANCES);
+        assertThat(dashboard.getStats().getTotalUsers()).isEqualTo(12);
+        assertThat(dashboard.getUpcomingSoutenances()).extracting(UpcomingSoutenanceDTO::getId).containsExactly(7L);
+        assertThat(dashboard.getActivities()).extracting(ActivityDTO::getId).containsExactly(2L);
+    }
+
+    private static void rendezVous(CountDownLatch allStarted) throws InterruptedException {
+        allStarted.countDown();
+        if (!allStarted.await(250, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Parties chargées l'une après l'autre");
+        }
+    }
+
+    private static DashboardStatsDTO stats(int totalUsers) {
+        return DashboardStatsDTO.builder().totalUsers(totalUsers).filieres(List.of()).build();
+    }
+}
@@ -0,0 +1,211 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DriftEntryDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.FiliereStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.StatsDriftDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.BinomeDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteCreated;
+import ma.estfbs.pfe_management.event.DashboardEvents.CompteDeleted;
+import ma.estfbs.pfe_management.event.DashboardEvents.EtudiantFiliereChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.NoteFinaleSaved;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SuggestionStatusChanged;
+import ma.estfbs.pfe_management.event.DashboardEvents.SujetCountChanged;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.ProposerSujets.Status;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.FiliereRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+
+/**
+ * Dashboard counters: moved by committed events only, and reloaded by the reconciliation.
+ * Runs without a test transaction so that the publishing transactions really commit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ DashboardStatsService.class, HODDashboardService.class, ParallelQueryService.class })
+class DashboardStatsServiceTest {
+
+    @Autowired
+    private DashboardStatsService dashboardStatsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private FiliereRepository filiereRepository;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    private Filiere informatique;
+    private Filiere genie;
+    private final List<Long> createdUsers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        informatique = filiereRepository.save(Filiere.builder().nom("Informatique").build());
+        genie = filiereRepository.save(Filiere.builder().nom("Génie Civil").build());
+        dashboardStatsService.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        utilisateurRepository.deleteAllById(createdUsers);
+        filiereRepository.deleteAll(List.of(informatique, genie));
+    }
+
+    @Test
+    void eachEventIsAppliedOnceItsTransactionCommits() {
+        DashboardStatsDTO before = dashboardStatsService.getDashboardStats();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publishOneOfEach();
+            assertThat(dashboardStatsService.getDashboardStats()).isEqualTo(before);
+        });
+        DashboardStatsDTO after = dashboardStatsService.getDashboardStats();
+
+        assertThat(after.getTotalStudents()).isEqualTo(before.getTotalStudents() + 1);
+        assertThat(after.getTotalJuries()).isEqualTo(before.getTotalJuries() + 1);
+        assertThat(after.getTotalUsers()).isEqualTo(before.getTotalUsers() + 2);
+        assertThat(etudiantCount(after, informatique)).isEqualTo(etudiantCount(before, informatique));
+        assertThat(etudiantCount(after, genie)).isEqualTo(etudiantCount(before, genie) + 1);
+        assertThat(after.getTotalBinomes()).isEqualTo(before.getTotalBinomes() + 1);
+        assertThat(after.getBinomesWithSoutenance()).isEqualTo(before.getBinomesWithSoutenance() + 2);
+        assertThat(after.getTotalSoutenances()).isEqualTo(before.getTotalSoutenances() + 2);
+        assertThat(after.getPlannedSoutenances()).isEqualTo(before.getPlannedSoutenances() + 1);
+        assertThat(after.getCompletedSoutenances()).isEqualTo(before.getCompletedSoutenances() + 1);
+        assertThat(after.getTotalSujets()).isEqualTo(before.getTotalSujets() + 1);
+        assertThat(after.getPendingSuggestions()).isEqualTo(before.getPendingSuggestions() + 1);
+        assertThat(after.getHonorsCount()).isEqualTo(before.getHonorsCount() + 1);
+        assertThat(after.getGoodCount()).isEqualTo(before.getGoodCount() + 1);
+        assertThat(after.getPassCount()).isEqualTo(before.getPassCount());
+    }
+
+    @Test
+    void aRolledBackTransactionLeavesTheCountersUnchanged() {
+        DashboardStatsDTO before = dashboardStatsService.getDashboardStats();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            publishOneOfEach();
+            status.setRollbackOnly();
+        });
+
+        assertThat(dashboardStatsService.getDashboardStats()).isEqualTo(before);
+    }
+
+    @Test
+    void driftIsReportedUntilTheNextReconciliation() {
+        assertThat(dashboardStatsService.getDrift().isInSync()).isTrue();
+        int juries = dashboardStatsService.getDashboardStats().getTotalJuries();
+
+        // A count moved without the row: what a write bypassing the services looks like, reversed
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(new CompteCreated(Role.JURY, null)));
+
+        StatsDriftDTO drift = dashboardStatsService.getDrift();
+        assertThat(drift.isInSync()).isFalse();
+        assertThat(drift.getDifferences())
+                .extracting(DriftEntryDTO::getField, DriftEntryDTO::getCached, DriftEntryDTO::getActual)
+                .contains(tuple("totalJuries",
+                        String.valueOf(juries + 1), String.valueOf(juries)));
+
+        dashboardStatsService.reconcile();
+
+        assertThat(dashboardStatsService.getDashboardStats().getTotalJuries()).isEqualTo(juries);
+        StatsDriftDTO reconciled = dashboardStatsService.getDrift();
+        assertThat(reconciled.isInSync()).isTrue();
+        assertThat(reconciled.getLastReconciledAt()).isNotNull();
+    }
+
+    @Test
+    void aChangeCommittedDuringAReconciliationIsCountedOnce() {
+        int juries = dashboardStatsService.getDashboardStats().getTotalJuries();
+        List<CompletableFuture<Void>> reconciliation = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Between the commit and the counters update: the reconciliation would see the new row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reconciliation.add(CompletableFuture.runAsync(dashboardStatsService::reconcile));
+                    try {
+                        reconciliation.get(0).get(300, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Waiting for the commit gate, as it should
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            createdUsers.add(utilisateurRepository.save(TestFixtures.utilisateur(Role.JURY, 1).build()).getId());
+            eventPublisher.publishEvent(new CompteCreated(Role.JURY, null));
+        });
+        reconciliation.get(0).join();
+
+        assertThat(dashboardStatsService.getDashboardStats().getTotalJuries()).isEqualTo(juries + 1);
+        assertThat(dashboardStatsService.getDrift().isInSync()).isTrue();
+    }
+
+    private void publishOneOfEach() {
+        LocalDate today = LocalDate.now();
+        eventPublisher.publishEvent(new CompteCreated(Role.ETUDIANT, informatique.getId()));
+        eventPublisher.publishEvent(new CompteCreated(Role.ETUDIANT, informatique.getId()));
+        eventPublisher.publishEvent(new CompteCreated(Role.JURY, null));
+        eventPublisher.publishEvent(new CompteDeleted(Role.ETUDIANT, informatique.getId()));
+        eventPublisher.publishEvent(new EtudiantFiliereChanged(informatique.getId(), genie.getId()));
+        eventPublisher.publishEvent(new BinomeCreated(1L));
+        eventPublisher.publishEvent(new BinomeCreated(2L));
+        eventPublisher.publishEvent(new BinomeDeleted(2L, false));
+        eventPublisher.publishEvent(new SoutenanceChanged(1L, null, today.plusDays(1)));
+        eventPublisher.publishEvent(new SoutenanceChanged(2L, null, today.plusDays(2)));
+        eventPublisher.publishEvent(new SoutenanceChanged(2L, today.plusDays(2), today.minusDays(1)));
+        eventPublisher.publishEvent(new SujetCountChanged(1));
+        eventPublisher.publishEvent(new SuggestionStatusChanged(1L, null, Status.EN_ATTENTE));
+        eventPublisher.publishEvent(new SuggestionStatusChanged(2L, null, Status.EN_ATTENTE));
+        eventPublisher.publishEvent(new SuggestionStatusChanged(2L, Status.EN_ATTENTE, Status.ACCEPTER));
+        eventPublisher.publishEvent(new NoteFinaleSaved(1L, null, null, 16, 17));
+        eventPublisher.publishEvent(new NoteFinaleSaved(2L, null, null, 12, 12));
+        eventPublisher.publishEvent(new NoteFinaleSaved(2L, 12, 12, 15, 15));
+    }
+
+    private static int etudiantCount(DashboardStatsDTO stats, Filiere filiere) {
+        return stats.getFilieres().stream()
+                .filter(f -> f.getId().equals(filiere.getId()))
+                .mapToInt(FiliereStatsDTO::getEtudiantCount)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,243 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.ActivityDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+import ma.estfbs.pfe_management.event.DashboardEvents.ActivityRecorded;
+import ma.estfbs.pfe_management.event.DashboardEvents.SoutenanceChanged;
+
+class DashboardStreamServiceTest {
+
+    private DashboardStatsService dashboardStatsService;
+    private HODDashboardService hodDashboardService;
+    private ActivityFeedService activityFeedService;
+    private DashboardStreamService service;
+
+    private final AtomicReference<DashboardStatsDTO> stats = new AtomicReference<>(stats(10, 1, 0));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        dashboardStatsService = mock(DashboardStatsService.class);
+        hodDashboardService = mock(HODDashboardService.class);
+        activityFeedService = mock(ActivityFeedService.class);
+        when(dashboardStatsService.getDashboardStats()).thenAnswer(invocation -> stats.get());
+        when(hodDashboardService.getUpcomingSoutenances()).thenReturn(List.of());
+        when(activityFeedService.getRecentActivities(null)).thenReturn(List.of(activity(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            ReflectionTestUtils.invokeMethod(service, "stop");
+        }
+    }
+
+    @Test
+    void aNewSubscriberGetsTheWholeDashboardThenOneDeltaPerWindow() {
+        service = start(60_000);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        service.register(emitter);
+        await(() -> emitter.names().contains(DashboardStreamService.INIT));
+
+        DashboardDTO init = (DashboardDTO) emitter.received.get(0).data;
+        assertThat(init.getStats().getTotalUsers()).isEqualTo(10);
+        assertThat(init.getActivities()).extracting(ActivityDTO::getId).containsExactly(1L);
+
+        // A burst of changes within one window
+        when(hodDashboardService.getUpcomingSoutenances())
+                .thenReturn(List.of(UpcomingSoutenanceDTO.builder().id(7L).build()));
+        stats.set(stats(11, 1, 0));
+        for (int i = 0; i < 10; i++) {
+            service.onStatsChanged();
+        }
+        service.onSoutenanceChanged(new SoutenanceChanged(7L, null, null));
+        service.onActivityRecorded(new ActivityRecorded(activity(2)));
+        await(() -> emitter.received.size() == 4);
+
+        assertThat(emitter.names()).containsExactly(DashboardStreamService.INIT, DashboardStreamService.STATS,
+                DashboardStreamService.UPCOMING_SOUTENANCES, DashboardStreamService.ACTIVITIES);
+        ObjectNode delta = (ObjectNode) emitter.received.get(1).data;
+        assertThat(delta.size()).isEqualTo(1);
+        assertThat(delta.get("totalUsers").asInt()).isEqualTo(11);
+        // Once for the subscriber, once for the window
+        verify(hodDashboardService, times(2)).getUpcomingSoutenances();
+    }
+
+    @Test
+    void nothingIsComputedWithoutSubscribers() throws Exception {
+        service = start(60_000);
+        service.onStatsChanged();
+        service.onSoutenanceChanged(new SoutenanceChanged(7L, null, null));
+        Thread.sleep(200);
+
+        verifyNoInteractions(dashboardStatsService, hodDashboardService);
+    }
+
+    @Test
+    void aSlowSubscriberGetsMergedChangesWithoutHoldingBackTheOthers() {
+        service = start(60_000);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        // Accepts the init message, then blocks until released
+        RecordingEmitter slow = new RecordingEmitter(1);
+        service.register(fast);
+        service.register(slow);
+        await(() -> fast.received.size() == 1 && slow.received.size() == 1);
+
+        stats.set(stats(11, 1, 0));
+        service.onStatsChanged();
+        await(() -> fast.received.size() == 2);
+        // The first delta is taken out of the slow outbox, the next changes merge behind it
+        await(() -> slow.blocked.getCount() == 0);
+        stats.set(stats(11, 2, 0));
+        service.onStatsChanged();
+        await(() -> fast.received.size() == 3);
+        stats.set(stats(11, 2, 3));
+        service.onStatsChanged();
+        await(() -> fast.received.size() == 4);
+        assertThat(slow.received).hasSize(1);
+
+        release.countDown();
+        await(() -> slow.received.size() == 3);
+        assertThat(slow.names()).containsExactly(DashboardStreamService.INIT, DashboardStreamService.STATS,
+                DashboardStreamService.STATS);
+        ObjectNode merged = (ObjectNode) slow.received.get(2).data;
+        assertThat(merged.get("pendingSuggestions").asInt()).isEqualTo(2);
+        assertThat(merged.get("totalSoutenances").asInt()).isEqualTo(3);
+        assertThat(merged.has("totalUsers")).isFalse();
+    }
+
+    @Test
+    void aSubscriberStuckOnAWriteIsDropped() {
+        service = start(100);
+        RecordingEmitter stuck = new RecordingEmitter(0);
+        service.register(stuck);
+
+        await(() -> service.getSubscriberCount() == 0);
+    }
+
+    private DashboardStreamService start(long stallTimeoutMillis) {
+        DashboardStreamService started = new DashboardStreamService(dashboardStatsService, hodDashboardService,
+                activityFeedService, new ObjectMapper());
+        ReflectionTestUtils.setField(started, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(started, "coalesceMillis", 200L);
+        ReflectionTestUtils.setField(started, "sendThreads", 2);
+        ReflectionTestUtils.setField(started, "heartbeatMillis", 50L);
+        ReflectionTestUtils.setField(started, "stallTimeoutMillis", stallTimeoutMillis);
+        ReflectionTestUtils.setField(started, "emitterTimeoutMillis", 0L);
+        ReflectionTestUtils.setField(started, "activityLimit", 50);
+        ReflectionTestUtils.invokeMethod(started, "start");
+        return started;
+    }
+
+    private static DashboardStatsDTO stats(int totalUsers, int pendingSuggestions, int totalSoutenances) {
+        return DashboardStatsDTO.builder()
+                .totalUsers(totalUsers)
+                .pendingSuggestions(pendingSuggestions)
+                .totalSoutenances(totalSoutenances)
+                .filieres(List.of())
+                .build();
+    }
+
+    private static ActivityDTO activity(long id) {
+        return ActivityDTO.builder().id(id).description("Activité " + id).type("user").build();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private record Received(String name, Object data) {
+    }
+
+    /**
+     * Keeps the named events it is sent (heartbeats are ignored); after blockAfter of them,
+     * every send waits for the test's release
+     */
+    private class RecordingEmitter extends SseEmitter {
+
+        final List<Received> received = new CopyOnWriteArrayList<>();
+        // Counted down once a send waits for the release
+        final CountDownLatch blocked = new CountDownLatch(1);
+        private final Integer blockAfter;
+        private final AtomicInteger sends = new AtomicInteger();
+
+        RecordingEmitter(Integer blockAfter) {
+            this.blockAfter = blockAfter;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String name = null;
+            Object data = null;
+            for (DataWithMediaType item : builder.build()) {
+                if (item.getData() instanceof String text) {
+                    if (text.startsWith("event:")) {
+                        name = text.substring("event:".length(), text.indexOf('\n'));
+                    }
+                } else {
+                    data = item.getData();
+                }
+            }
+            if (name == null) {
+                return;
+            }
+            if (blockAfter != null && sends.getAndIncrement() >= blockAfter) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            received.add(new Received(name, data));
+        }
+
+        List<String> names() {
+            List<String> names = new ArrayList<>();
+            for (Received event : received) {
+                names.add(event.name());
+            }
+            return names;
+        }
+    }
+}
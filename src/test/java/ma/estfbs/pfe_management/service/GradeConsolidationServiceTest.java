@@ -0,0 +1,123 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.ConsolidationResultDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.NoteSoutenance;
+import ma.estfbs.pfe_management.model.Pourcentage;
+import ma.estfbs.pfe_management.model.Rapport;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository;
+import ma.estfbs.pfe_management.repository.NoteFinaleRepository.StoredNote;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ GradeConsolidationService.class, NoteManagementService.class, GradeSheetAssembler.class, ReferenceDataService.class })
+class GradeConsolidationServiceTest {
+
+    @Autowired
+    private GradeConsolidationService gradeConsolidationService;
+
+    @Autowired
+    private NoteManagementService noteManagementService;
+
+    @Autowired
+    private NoteFinaleRepository noteFinaleRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void consolidationIsIdempotentAndOnlyRewritesChangedGrades() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        entityManager.persist(Pourcentage.builder()
+                .pourcentageRapport(30).pourcentageSoutenance(40).pourcentageEncadrant(30).build());
+
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT);
+
+        Utilisateur etudiant1 = fixtures.persistEtudiant(filiere);
+        Utilisateur etudiant2 = fixtures.persistEtudiant(filiere);
+        Utilisateur withoutRapport = fixtures.persistEtudiant(filiere);
+
+        Binome binome = fixtures.persistBinome(etudiant1, etudiant2, encadrant, fixtures.persistSujet(filiere));
+        Binome withoutRapportBinome = fixtures.persistBinome(withoutRapport, null, encadrant,
+                fixtures.persistSujet(filiere));
+        Utilisateur jury = fixtures.persistUser(Role.ENCADRANT);
+        for (Binome graded : List.of(binome, withoutRapportBinome)) {
+            Soutenance soutenance = fixtures.persistSoutenance(graded, LocalDate.now(), LocalTime.of(9, 0),
+                    fixtures.persistSalle(), encadrant, jury);
+            entityManager.persist(NoteSoutenance.builder().soutenance(soutenance).jury(encadrant).note(16).build());
+            entityManager.persist(NoteSoutenance.builder().soutenance(soutenance).jury(jury).note(16).build());
+        }
+        Rapport rapport = entityManager.persist(Rapport.builder()
+                .binome(binome).titre("Rapport").localisationRapport("/uploads/rapport.pdf").note(14).build());
+        entityManager.flush();
+
+        ConsolidationResultDTO first = gradeConsolidationService.consolidate();
+        assertThat(first.getProcessed()).isEqualTo(3);
+        assertThat(first.getInserted()).isEqualTo(2);
+        assertThat(first.getSkipped()).isEqualTo(1);
+
+        // No supervisor grade: (14 * 30 + 16 * 40) / 70 = 15.14
+        List<StoredNote> stored = noteFinaleRepository.findAllStoredNotes();
+        assertThat(stored).extracting(StoredNote::getEtudiantId)
+                .containsExactlyInAnyOrder(etudiant1.getId(), etudiant2.getId());
+        assertThat(stored).extracting(StoredNote::getNoteEncadrant).containsOnlyNulls();
+        assertThat(stored).extracting(StoredNote::getNoteFinale).containsOnly(15.14);
+
+        ConsolidationResultDTO second = gradeConsolidationService.consolidate();
+        assertThat(second.getInserted()).isZero();
+        assertThat(second.getUpdated()).isZero();
+        assertThat(second.getUnchanged()).isEqualTo(2);
+
+        rapport.setNote(18);
+        entityManager.flush();
+
+        ConsolidationResultDTO third = gradeConsolidationService.consolidate();
+        assertThat(third.getInserted()).isZero();
+        assertThat(third.getUpdated()).isEqualTo(2);
+        assertThat(noteFinaleRepository.findAllStoredNotes()).hasSize(2)
+                .extracting(StoredNote::getNoteFinale).containsOnly(16.86);
+
+        // The grade listing reads the consolidated value
+        assertThat(noteManagementService.getNotesByFiliere(filiere.getId()))
+                .extracting(NoteDTO::getNoteFinale)
+                .containsExactlyInAnyOrder(16.86, 16.86, null);
+
+        // Without its rapport, the binome loses its final grades
+        entityManager.remove(rapport);
+        entityManager.flush();
+
+        ConsolidationResultDTO fourth = gradeConsolidationService.consolidate();
+        assertThat(fourth.getDeleted()).isEqualTo(2);
+        assertThat(fourth.getSkipped()).isEqualTo(3);
+        assertThat(noteFinaleRepository.findAllStoredNotes()).isEmpty();
+    }
+}
@@ -0,0 +1,105 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.NoteSoutenance;
+import ma.estfbs.pfe_management.model.Pourcentage;
+import ma.estfbs.pfe_management.model.Rapport;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ GradeExportService.class, NoteManagementService.class, GradeSheetAssembler.class, ReferenceDataService.class })
+class GradeExportServiceTest {
+
+    @Autowired
+    private GradeExportService gradeExportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void exportsWeightedGradesForStudentsWithBinome() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Génie; Info").build());
+        Filiere other = entityManager.persist(Filiere.builder().nom("Physique").build());
+        entityManager.persist(Pourcentage.builder()
+                .pourcentageRapport(30).pourcentageSoutenance(40).pourcentageEncadrant(30).build());
+
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT);
+
+        Utilisateur etudiant1 = fixtures.persistEtudiant(filiere);
+        Utilisateur etudiant2 = fixtures.persistEtudiant(filiere);
+        fixtures.persistEtudiant(filiere); // no binome, not exported
+        fixtures.persistEtudiant(other);
+
+        Binome binome = fixtures.persistBinome(etudiant1, etudiant2, encadrant, fixtures.persistSujet(filiere));
+        Soutenance soutenance = fixtures.persistSoutenance(binome, LocalDate.now(), LocalTime.of(9, 0),
+                fixtures.persistSalle(), encadrant, fixtures.persistUser(Role.ENCADRANT));
+        entityManager.persist(NoteSoutenance.builder().soutenance(soutenance).jury(soutenance.getJury1()).note(16).build());
+        entityManager.persist(NoteSoutenance.builder().soutenance(soutenance).jury(soutenance.getJury2()).note(17).build());
+        persistRapport(binome, 10);
+        persistRapport(binome, 14);
+        entityManager.flush();
+        entityManager.clear();
+
+        String csv = export(null);
+        String[] lines = csv.split("\r\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("﻿CNE;Nom;Prénom;Filière");
+        // No supervisor grade: (14 * 30 + 16 * 40) / 70 = 15.14
+        assertThat(lines[1]).isEqualTo(etudiant1.getCne() + ";" + etudiant1.getNom() + ";" + etudiant1.getPrenom()
+                + ";\"Génie; Info\";14;16;;15,14");
+        assertThat(lines[2]).startsWith(etudiant2.getCne() + ";");
+
+        assertThat(export(other.getId()).split("\r\n")).hasSize(1);
+    }
+
+    @Test
+    void unknownFiliereIsRejectedBeforeExport() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+
+        gradeExportService.checkFiliere(filiere.getId());
+        assertThatThrownBy(() -> gradeExportService.checkFiliere(filiere.getId() + 1))
+                .hasMessage("Filière non trouvée avec l'id: " + (filiere.getId() + 1));
+    }
+
+    private String export(Long filiereId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gradeExportService.exportCsv(filiereId, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void persistRapport(Binome binome, int note) {
+        entityManager.persist(Rapport.builder()
+                .binome(binome).titre("Rapport").localisationRapport("/uploads/rapport.pdf").note(note).build());
+    }
+}
@@ -0,0 +1,196 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.EtudiantDTO;
+import ma.estfbs.pfe_management.dto.NoteManagementDTOs.NoteDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Etudiant;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.NoteSoutenance;
+import ma.estfbs.pfe_management.model.Rapport;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.BinomeRepository;
+import ma.estfbs.pfe_management.repository.EtudiantRepository;
+import ma.estfbs.pfe_management.repository.NoteSoutenanceRepository;
+import ma.estfbs.pfe_management.repository.RapportRepository;
+
+/**
+ * Regression test for the grade sheet: same output as the per-student lookups,
+ * with a statement count that does not depend on the number of students.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ NoteManagementService.class, GradeSheetAssembler.class, ReferenceDataService.class })
+class GradeSheetAssemblerTest {
+
+    @Autowired
+    private NoteManagementService noteManagementService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EtudiantRepository etudiantRepository;
+
+    @Autowired
+    private BinomeRepository binomeRepository;
+
+    @Autowired
+    private RapportRepository rapportRepository;
+
+    @Autowired
+    private NoteSoutenanceRepository noteSoutenanceRepository;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void gradeSheetMatchesPerStudentLookups() {
+        Filiere info = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        Filiere maths = entityManager.persist(Filiere.builder().nom("Mathématiques").build());
+        seed(info, 12);
+        seed(maths, 7);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<NoteDTO> expected = legacyGradeSheet(etudiantRepository.findAll());
+        assertThat(noteManagementService.getAllNotesWithFilieres().getNotes()).isEqualTo(expected);
+
+        List<NoteDTO> expectedMaths = legacyGradeSheet(etudiantRepository.findByFiliere(maths));
+        assertThat(noteManagementService.getNotesByFiliere(maths.getId())).isEqualTo(expectedMaths);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithCohortSize() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        seed(filiere, 10);
+        long smallCohort = countStatements(filiere);
+
+        seed(filiere, 200);
+        long largeCohort = countStatements(filiere);
+
+        assertThat(largeCohort).isEqualTo(smallCohort);
+    }
+
+    private long countStatements(Filiere filiere) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        noteManagementService.getAllNotesWithFilieres();
+        long allStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        noteManagementService.getNotesByFiliere(filiere.getId());
+        return allStatements + statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Per-student lookups, kept here as the reference output
+     */
+    private List<NoteDTO> legacyGradeSheet(List<Etudiant> etudiants) {
+        List<NoteDTO> notes = new ArrayList<>();
+        for (Etudiant etudiant : etudiants) {
+            Utilisateur utilisateur = etudiant.getUtilisateur();
+            List<Binome> binomes = binomeRepository.findByEtudiant1OrEtudiant2(utilisateur, utilisateur);
+            if (binomes.isEmpty()) {
+                continue;
+            }
+            Binome binome = binomes.get(0);
+
+            Rapport rapport = rapportRepository.findTopByBinomeOrderByIdDesc(binome);
+            Soutenance soutenance = binome.getSoutenance();
+            List<NoteSoutenance> noteSoutenances = soutenance != null
+                    ? noteSoutenanceRepository.findBySoutenance(soutenance) : List.of();
+            Integer noteSoutenance = noteSoutenances.isEmpty() ? null
+                    : (int) noteSoutenances.stream().mapToInt(NoteSoutenance::getNote).average().orElse(0);
+
+            notes.add(NoteDTO.builder()
+                    .id(utilisateur.getId())
+                    .etudiant(EtudiantDTO.builder()
+                            .id(utilisateur.getId())
+                            .nom(utilisateur.getNom())
+                            .prenom(utilisateur.getPrenom())
+                            .cne(utilisateur.getCne())
+                            .build())
+                    .noteRapport(rapport != null ? rapport.getNote() : null)
+                    .noteSoutenance(noteSoutenance)
+                    .noteEncadrant(null)
+                    .filiereId(etudiant.getFiliere().getId())
+                    .filiereName(etudiant.getFiliere().getNom())
+                    .build());
+        }
+        return notes;
+    }
+
+    /**
+     * Pairs, solo binomes, students without binome, several rapports per binome,
+     * and binomes with a graded soutenance, an ungraded one or none
+     */
+    private void seed(Filiere filiere, int students) {
+        Utilisateur encadrant1 = fixtures.persistUser(Role.ENCADRANT);
+        Utilisateur encadrant2 = fixtures.persistUser(Role.ENCADRANT);
+        Salle salle = fixtures.persistSalle();
+
+        List<Utilisateur> etudiants = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            etudiants.add(fixtures.persistEtudiant(filiere));
+        }
+
+        for (int i = 0; i + 1 < etudiants.size(); i += 3) {
+            boolean solo = i % 2 == 0;
+            Binome binome = fixtures.persistBinome(etudiants.get(i), solo ? null : etudiants.get(i + 1),
+                    i % 4 == 0 ? encadrant1 : encadrant2, fixtures.persistSujet(filiere));
+            if (i % 4 != 3) {
+                Soutenance soutenance = fixtures.persistSoutenance(binome, LocalDate.now().plusDays(i),
+                        LocalTime.of(9, 0), salle, encadrant1, encadrant2);
+                binome.setSoutenance(soutenance);
+                if (i % 4 != 2) {
+                    entityManager.persist(NoteSoutenance.builder()
+                            .soutenance(soutenance).jury(encadrant1).note(10 + i % 7).build());
+                    entityManager.persist(NoteSoutenance.builder()
+                            .soutenance(soutenance).jury(encadrant2).note(13).build());
+                }
+            }
+            for (int r = 0; r < i % 3 + (i % 5); r++) {
+                entityManager.persist(Rapport.builder()
+                        .binome(binome)
+                        .titre("Rapport " + r)
+                        .localisationRapport("/uploads/rapport.pdf")
+                        .note(8 + r)
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.DashboardStatsDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.NoteFinale;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+/**
+ * Measures how much the dashboard statistics read from the database.
+ * The statement count must stay the same whatever the number of students.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ HODDashboardService.class, ParallelQueryService.class })
+@Slf4j
+class HODDashboardServiceBenchmarkTest {
+
+    @Autowired
+    private HODDashboardService hodDashboardService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithCohortSize() {
+        seed(20);
+        long smallCohortStatements = measure(20).getPrepareStatementCount();
+
+        seed(400);
+        Statistics largeCohort = measure(420);
+
+        assertThat(largeCohort.getPrepareStatementCount()).isEqualTo(smallCohortStatements);
+        assertThat(largeCohort.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void aggregatesMatchSeededData() {
+        seed(10);
+        entityManager.flush();
+        entityManager.clear();
+
+        DashboardStatsDTO stats = hodDashboardService.getDashboardStats();
+
+        assertThat(stats.getTotalStudents()).isEqualTo(10);
+        assertThat(stats.getTotalSupervisors()).isEqualTo(1);
+        assertThat(stats.getTotalJuries()).isEqualTo(2);
+        assertThat(stats.getTotalUsers()).isEqualTo(13);
+        assertThat(stats.getTotalBinomes()).isEqualTo(5);
+        assertThat(stats.getBinomesWithSoutenance()).isEqualTo(5);
+        assertThat(stats.getTotalSoutenances()).isEqualTo(5);
+        assertThat(stats.getPlannedSoutenances() + stats.getCompletedSoutenances()).isEqualTo(5);
+        assertThat(stats.getHonorsCount() + stats.getGoodCount() + stats.getPassCount()).isEqualTo(10);
+        assertThat(stats.getTotalFilieres()).isEqualTo(1);
+        assertThat(stats.getFilieres().get(0).getEtudiantCount()).isEqualTo(10);
+    }
+
+    private Statistics measure(int expectedStudents) {
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        DashboardStatsDTO stats = hodDashboardService.getDashboardStats();
+
+        long rowsRead = 0;
+        for (String query : statistics.getQueries()) {
+            rowsRead += statistics.getQueryStatistics(query).getExecutionRowCount();
+        }
+        log.info("Dashboard stats for {} students: {} statements, {} rows read, {} entities loaded",
+                expectedStudents, statistics.getPrepareStatementCount(), rowsRead, statistics.getEntityLoadCount());
+
+        assertThat(stats.getTotalStudents()).isEqualTo(expectedStudents);
+        return statistics;
+    }
+
+    private void seed(int students) {
+        Filiere filiere = entityManager.getEntityManager()
+                .createQuery("SELECT f FROM Filiere f", Filiere.class)
+                .getResultStream().findFirst()
+                .orElseGet(() -> entityManager.persist(Filiere.builder().nom("Informatique").build()));
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT);
+        Utilisateur jury1 = fixtures.persistUser(Role.JURY);
+        Utilisateur jury2 = fixtures.persistUser(Role.JURY);
+        Salle salle = fixtures.persistSalle();
+
+        Utilisateur previous = null;
+        for (int i = 0; i < students; i++) {
+            Utilisateur etudiant = fixtures.persistEtudiant(filiere);
+            entityManager.persist(NoteFinale.builder()
+                    .etudiant(etudiant)
+                    .noteRapport(10 + i % 10)
+                    .noteSoutenance(10 + i % 10)
+                    .build());
+
+            if (previous == null) {
+                previous = etudiant;
+                continue;
+            }
+            Binome binome = fixtures.persistBinome(previous, etudiant, encadrant, fixtures.persistSujet(filiere));
+            fixtures.persistSoutenance(binome, LocalDate.now().plusDays(i % 3 - 1), LocalTime.of(9, 0), salle,
+                    jury1, jury2);
+            previous = null;
+        }
+    }
+}
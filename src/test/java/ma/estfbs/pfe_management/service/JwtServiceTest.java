@@ -0,0 +1,86 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+class JwtServiceTest {
+
+    private JwtService jwtService;
+    private Utilisateur utilisateur;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 100L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        utilisateur = Utilisateur.builder()
+                .id(42L)
+                .email("etudiant.efb@usms.ac.ma")
+                .dateNaissance(new Date())
+                .role(Role.ETUDIANT)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void claimsAreParsedOnceAndShared() {
+        String token = jwtService.generateToken(utilisateur);
+
+        Claims claims = jwtService.extractAllClaims(token);
+        assertThat(jwtService.extractAllClaims(token)).isSameAs(claims);
+        assertThat(jwtService.extractUserId(token)).isEqualTo(42L);
+        assertThat(jwtService.extractUserRole(token)).isEqualTo("ETUDIANT");
+        assertThat(jwtService.isTokenValid(token, utilisateur)).isTrue();
+    }
+
+    @Test
+    void requestHolderServesTheClaimsOfTheCurrentToken() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String token = jwtService.generateToken(utilisateur);
+        request.addHeader("Authorization", "Bearer " + token);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        Claims claims = jwtService.extractAllClaims(jwtService.getTokenFromRequest());
+        assertThat(jwtService.extractAllClaims(token)).isSameAs(claims);
+
+        // Another token in the same request is still verified on its own
+        String otherToken = jwtService.generateToken(Utilisateur.builder()
+                .id(7L).email("autre.efb@usms.ac.ma").role(Role.ENCADRANT).build());
+        assertThat(jwtService.extractUserId(otherToken)).isEqualTo(7L);
+    }
+
+    @Test
+    void invalidAndExpiredTokensAreRejected() {
+        String token = jwtService.generateToken(utilisateur);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtService.extractAllClaims(tampered)).isInstanceOf(SignatureException.class);
+
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1_000L);
+        String expired = jwtService.generateToken(utilisateur);
+        assertThatThrownBy(() -> jwtService.extractAllClaims(expired)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
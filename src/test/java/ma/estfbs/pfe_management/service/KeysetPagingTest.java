@@ -0,0 +1,226 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeDTO;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+/**
+ * Keyset-paginated listings: walking every page returns each row once, in order.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ CompteManagementService.class, SoutenanceManagementService.class, BinomeManagementService.class,
+        SoutenanceConflictService.class, ReferenceDataService.class, TokenRevocationService.class, PasswordHashingService.class,
+        ActivityFeedService.class })
+class KeysetPagingTest {
+
+    @Autowired
+    private CompteManagementService compteManagementService;
+
+    @Autowired
+    private SoutenanceManagementService soutenanceManagementService;
+
+    @Autowired
+    private BinomeManagementService binomeManagementService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+    }
+
+    @Test
+    void comptePagesCoverEveryAccountInNameOrder() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        for (int i = 0; i < 23; i++) {
+            // Few distinct names, so that the id has to break the ties
+            fixtures.persistEtudiant(fixtures.persistUser(Role.ETUDIANT, "Nom" + (i % 4), "Prenom" + (i % 2)), filiere);
+        }
+        fixtures.persistUser(Role.ENCADRANT, "Encadrant", "Un");
+        fixtures.persistUser(Role.CHEF_DE_DEPARTEMENT, "Chef", "Un");
+        entityManager.flush();
+        entityManager.clear();
+
+        List<CompteDTO> comptes = walk(cursor -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().cursor(cursor).size(5).sort("nom").direction("desc").build()));
+
+        assertThat(comptes).hasSize(24);
+        assertThat(comptes).extracting(CompteDTO::getRole).doesNotContain(Role.CHEF_DE_DEPARTEMENT);
+        assertThat(comptes).isSortedAccordingTo(Comparator.comparing(CompteDTO::getNom)
+                .thenComparing(CompteDTO::getPrenom)
+                .thenComparing(CompteDTO::getId)
+                .reversed());
+        assertThat(comptes).extracting(CompteDTO::getId).doesNotHaveDuplicates();
+
+        List<CompteDTO> search = walk(cursor -> compteManagementService.getComptesPage(Role.ETUDIANT, "nom3",
+                KeysetPageRequest.builder().cursor(cursor).size(2).build()));
+        assertThat(search).hasSize(5).allMatch(compte -> compte.getNom().equals("Nom3"));
+        assertThat(search.get(0).getFiliereName()).isEqualTo("Informatique");
+    }
+
+    @Test
+    void accountsWithoutANameArePagedInBothDirections() {
+        String[][] names = { { null, null }, { "Alami", null }, { null, "Sara" }, { "Alami", "Ali" },
+                { null, null }, { "Bennani", "Omar" }, { "Alami", null } };
+        for (String[] name : names) {
+            fixtures.persistUser(Role.ENCADRANT, name[0], name[1]);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // NULL first in ascending order, as in MySQL
+        Comparator<CompteDTO> byName = Comparator
+                .comparing(CompteDTO::getNom, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(CompteDTO::getPrenom, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(CompteDTO::getId);
+        List<CompteDTO> ascending = walk(cursor -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().cursor(cursor).size(2).sort("nom").build()));
+        List<CompteDTO> descending = walk(cursor -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().cursor(cursor).size(3).sort("nom").direction("desc").build()));
+
+        assertThat(ascending).hasSize(names.length).isSortedAccordingTo(byName);
+        assertThat(descending).hasSize(names.length).isSortedAccordingTo(byName.reversed());
+        assertThat(descending).extracting(CompteDTO::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void soutenancePagesAreChronologicalWithinTheDateRange() {
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        Salle salle = fixtures.persistSalle();
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT, "Encadrant", "Un");
+        Utilisateur jury = fixtures.persistUser(Role.JURY, "Jury", "Un");
+        Sujet sujet = fixtures.persistSujet(filiere);
+        LocalDate start = LocalDate.of(2025, 6, 2);
+        for (int i = 0; i < 17; i++) {
+            Utilisateur etudiant = fixtures.persistEtudiant(fixtures.persistUser(Role.ETUDIANT, "Nom" + i, "Prenom"),
+                    filiere);
+            Binome binome = fixtures.persistBinome(etudiant, null, encadrant, sujet);
+            fixtures.persistSoutenance(binome, start.plusDays(i % 5), LocalTime.of(9 + i % 2, 0), salle, jury, jury);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDate from = start.plusDays(1);
+        LocalDate to = start.plusDays(3);
+        List<SoutenanceDTO> soutenances = walk(cursor -> soutenanceManagementService.getSoutenancesPage(from, to,
+                KeysetPageRequest.builder().cursor(cursor).size(4).build()));
+
+        // Days 1 to 3 of the i % 5 cycle
+        assertThat(soutenances).hasSize(10);
+        assertThat(soutenances).allMatch(s -> !s.getDate().isBefore(from) && !s.getDate().isAfter(to));
+        assertThat(soutenances).isSortedAccordingTo(Comparator.comparing(SoutenanceDTO::getDate)
+                .thenComparing(SoutenanceDTO::getHeure)
+                .thenComparing(SoutenanceDTO::getId));
+        assertThat(soutenances).extracting(SoutenanceDTO::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void binomePagesFilterOnEitherStudentsFiliere() {
+        Filiere info = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        Filiere gestion = entityManager.persist(Filiere.builder().nom("Gestion").build());
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT, "Encadrant", "Un");
+        Sujet sujet = fixtures.persistSujet(info);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            Utilisateur first = fixtures.persistEtudiant(i % 3 == 0 ? info : gestion);
+            Utilisateur second = fixtures.persistEtudiant(i % 3 == 1 ? info : gestion);
+            Binome binome = fixtures.persistBinome(first, second, encadrant, sujet);
+            if (i % 3 != 2) {
+                expected.add(binome.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BinomeDTO> binomes = walk(cursor -> binomeManagementService.getBinomesPage(info.getId(),
+                KeysetPageRequest.builder().cursor(cursor).size(4).build()));
+
+        assertThat(binomes).extracting(BinomeDTO::getId).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSortAndUnknownSorts() {
+        fixtures.persistUser(Role.ENCADRANT, "Encadrant", "Un");
+        fixtures.persistUser(Role.ENCADRANT, "Encadrant", "Deux");
+        entityManager.flush();
+
+        KeysetPageDTO<CompteDTO> first = compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().size(1).sort("email").build());
+        assertThat(first.isHasNext()).isTrue();
+
+        assertThatThrownBy(() -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().cursor(first.getNextCursor()).size(1).sort("nom").build()))
+                .hasMessage("Curseur invalide pour ce tri");
+        assertThatThrownBy(() -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().cursor("pas-un-curseur").build()))
+                .hasMessageStartingWith("Curseur invalide");
+        assertThatThrownBy(() -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().sort("motDePasse").build()))
+                .hasMessageStartingWith("Tri non supporté");
+    }
+
+    @Test
+    void cursorKeepsKeyTypesAndSpecialCharacters() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("nom", "Aït-Ben & Co=1:2");
+        keys.put("date", LocalDate.of(2025, 6, 2));
+        keys.put("heure", LocalTime.of(9, 30));
+        keys.put("id", 42L);
+
+        keys.put("prenom", null);
+
+        String cursor = KeysetPaging.encode(keys);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(KeysetPaging.decode(cursor)).containsExactlyEntriesOf(keys);
+    }
+
+    /**
+     * Follow the cursors from the first page to the last one
+     */
+    private <T> List<T> walk(Function<String, KeysetPageDTO<T>> pageReader) {
+        List<T> items = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPageDTO<T> page = pageReader.apply(cursor);
+            items.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return items;
+    }
+}
@@ -0,0 +1,170 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.BinomeManagementDTOs.BinomeDTO;
+import ma.estfbs.pfe_management.dto.CompteManagementDTOs.CompteDTO;
+import ma.estfbs.pfe_management.dto.HODDashboardDTOs.UpcomingSoutenanceDTO;
+import ma.estfbs.pfe_management.dto.KeysetPageRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceDTO;
+import ma.estfbs.pfe_management.dto.SujetSuggestionDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.ProposerSujets;
+import ma.estfbs.pfe_management.model.ProposerSujets.Status;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+/**
+ * Account, binome, soutenance and suggestion listings: a fixed number of statements whatever
+ * the number of rows, filière of the student or binome included.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ BinomeManagementService.class, SoutenanceManagementService.class, SujetSuggestionService.class,
+        HODDashboardService.class, SoutenanceConflictService.class, ReferenceDataService.class,
+        ActivityFeedService.class, ParallelQueryService.class, CompteManagementService.class,
+        TokenRevocationService.class, PasswordHashingService.class })
+class ListingQueryCountTest {
+
+    private static final int BINOMES = 12;
+
+    @Autowired
+    private BinomeManagementService binomeManagementService;
+
+    @Autowired
+    private SoutenanceManagementService soutenanceManagementService;
+
+    @Autowired
+    private SujetSuggestionService sujetSuggestionService;
+
+    @Autowired
+    private HODDashboardService hodDashboardService;
+
+    @Autowired
+    private CompteManagementService compteManagementService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures fixtures = new TestFixtures(entityManager);
+        Filiere informatique = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        Filiere gestion = entityManager.persist(Filiere.builder().nom("Gestion").build());
+        Utilisateur encadrant = fixtures.persistUser(Role.ENCADRANT);
+        Utilisateur jury1 = fixtures.persistUser(Role.JURY);
+        Utilisateur jury2 = fixtures.persistUser(Role.JURY);
+        Salle salle = fixtures.persistSalle();
+
+        for (int i = 0; i < BINOMES; i++) {
+            Filiere filiere = i % 2 == 0 ? informatique : gestion;
+            Binome binome = fixtures.persistBinome(fixtures.persistEtudiant(filiere),
+                    i % 3 == 0 ? null : fixtures.persistEtudiant(filiere), encadrant, fixtures.persistSujet(filiere));
+            // One binome in three has no soutenance yet
+            if (i % 3 != 2) {
+                fixtures.persistSoutenance(binome, LocalDate.now().plusDays(1 + i % 5), LocalTime.of(8 + i, 0), salle,
+                        jury1, jury2);
+            }
+            entityManager.persist(ProposerSujets.builder()
+                    .titre("Proposition " + i).theme("Theme").description("Description")
+                    .filiere(filiere).etudiant(binome.getEtudiant1()).status(Status.EN_ATTENTE)
+                    .binomeProposerPar(binome).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void binomeListingsFetchTheFiliereWithTheBinomes() {
+        List<BinomeDTO> page = countStatements(1, () -> binomeManagementService.getBinomesPage(null,
+                KeysetPageRequest.builder().size(50).build()).getItems());
+
+        assertThat(page).hasSize(BINOMES);
+        assertThat(page).extracting(BinomeDTO::getFiliereName)
+                .containsOnly("Informatique", "Gestion")
+                .filteredOn("Gestion"::equals).hasSize(BINOMES / 2);
+        assertThat(page.get(0).getEtudiant2()).isNull();
+        assertThat(page.get(1).getEtudiant2()).isNotNull();
+    }
+
+    @Test
+    void compteListingsLoadTheFilieresOfAPageAtOnce() {
+        List<CompteDTO> etudiants = countStatements(2, () -> compteManagementService.getComptesPage(Role.ETUDIANT,
+                null, KeysetPageRequest.builder().size(50).build()).getItems());
+        List<CompteDTO> all = countStatements(2, () -> compteManagementService.getComptesPage(null, null,
+                KeysetPageRequest.builder().size(50).build()).getItems());
+        // No student on the page: no filière lookup
+        List<CompteDTO> jurys = countStatements(1, () -> compteManagementService.getComptesPage(Role.JURY, null,
+                KeysetPageRequest.builder().size(50).build()).getItems());
+
+        // 12 binomes, one in three solo
+        assertThat(etudiants).hasSize(20).extracting(CompteDTO::getFiliereName)
+                .containsOnly("Informatique", "Gestion");
+        assertThat(all).hasSize(23).filteredOn(compte -> compte.getRole() != Role.ETUDIANT)
+                .extracting(CompteDTO::getFiliereName).containsOnlyNulls();
+        assertThat(jurys).hasSize(2);
+    }
+
+    @Test
+    void soutenanceListingsFetchTheBinomeAndItsFiliere() {
+        List<SoutenanceDTO> all = countStatements(1, soutenanceManagementService::getAllSoutenances);
+        List<SoutenanceDTO> page = countStatements(1, () -> soutenanceManagementService.getSoutenancesPage(null,
+                null, KeysetPageRequest.builder().size(50).build()).getItems());
+        List<UpcomingSoutenanceDTO> upcoming = countStatements(1, hodDashboardService::getUpcomingSoutenances);
+
+        assertThat(all).hasSize(8);
+        assertThat(page).extracting(SoutenanceDTO::getId)
+                .containsExactlyElementsOf(all.stream().map(SoutenanceDTO::getId).toList());
+        assertThat(all).allSatisfy(soutenance -> assertThat(soutenance.getBinome().getFiliereName()).isNotNull());
+        assertThat(upcoming).hasSize(5)
+                .allSatisfy(soutenance -> assertThat(soutenance.getBinome().getFiliereName()).isNotNull());
+    }
+
+    @Test
+    void suggestionListingsFetchTheProposingBinome() {
+        List<SujetSuggestionDTO> all = countStatements(1, sujetSuggestionService::getAllSuggestions);
+        List<SujetSuggestionDTO> page = countStatements(1, () -> sujetSuggestionService.getSuggestionsPage(null,
+                null, KeysetPageRequest.builder().size(50).build()).getItems());
+
+        assertThat(all).hasSize(BINOMES);
+        assertThat(page).hasSize(BINOMES);
+        assertThat(all).extracting(suggestion -> suggestion.getBinome().getFiliereName())
+                .containsOnly("Informatique", "Gestion");
+    }
+
+    /**
+     * Run a listing on a cleared persistence context and check the number of statements it prepared
+     */
+    private <T> T countStatements(long expected, Supplier<T> listing) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        T result = listing.get();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        return result;
+    }
+}
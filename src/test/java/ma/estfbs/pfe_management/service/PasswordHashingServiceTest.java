@@ -0,0 +1,169 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ma.estfbs.pfe_management.dto.PasswordHashingStatsDTO;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (service != null) {
+            ReflectionTestUtils.invokeMethod(service, "stop");
+        }
+    }
+
+    @Test
+    void hashesWithTheConfiguredCostAndFlagsWeakerHashes() {
+        service = start(5, 2, 8);
+
+        String hash = service.encode("secret");
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(service.matches("secret", hash)).isTrue();
+        assertThat(service.matches("other", hash)).isFalse();
+        assertThat(service.upgradeEncoding(hash)).isFalse();
+        assertThat(service.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+
+        // The pool counts a task once its thread is done with it, which can be after the caller got the result
+        await(() -> service.getStats().getActiveCount() == 0);
+        PasswordHashingStatsDTO stats = service.getStats();
+        assertThat(stats.getCost()).isEqualTo(5);
+        assertThat(stats.getCompletedCount()).isEqualTo(3);
+        assertThat(stats.getQueueSize()).isZero();
+    }
+
+    @Test
+    void bulkHashingLeavesRoomInTheQueueForLogins() throws Exception {
+        service = start(4, 1, 8);
+        ThreadPoolExecutor hashers = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "hashers");
+        CountDownLatch started = new CountDownLatch(1);
+        hashers.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await();
+
+        CompletableFuture<List<String>> bulk = CompletableFuture.supplyAsync(
+                () -> service.encodeAll(List.of("a", "b", "c", "d", "e", "f", "g", "h", "i", "j")));
+        // A quarter of the queue: the import waits with 2 passwords queued
+        await(() -> hashers.getQueue().size() == 2);
+        Thread.sleep(100);
+        assertThat(hashers.getQueue()).hasSize(2);
+        assertThat(bulk).isNotDone();
+
+        CompletableFuture<String> login = CompletableFuture.supplyAsync(() -> service.encode("secret"));
+        await(() -> hashers.getQueue().size() == 3);
+        release.countDown();
+
+        assertThat(bulk.get(10, TimeUnit.SECONDS)).hasSize(10);
+        assertThat(service.matches("secret", login.get(10, TimeUnit.SECONDS))).isTrue();
+        await(() -> service.getStats().getActiveCount() == 0);
+        PasswordHashingStatsDTO stats = service.getStats();
+        assertThat(stats.getRejectedCount()).isZero();
+        assertThat(stats.getQueueSize()).isZero();
+        // The blocking task, the 10 bulk hashes, the login and the check
+        assertThat(stats.getCompletedCount()).isEqualTo(13);
+    }
+
+    @Test
+    void refusesRequestsOnceTheQueueIsFullButBulkWorkRunsInTheCaller() throws Exception {
+        service = start(4, 1, 1);
+        ThreadPoolExecutor hashers = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "hashers");
+        // Occupy the only thread and the only queue slot
+        CountDownLatch started = new CountDownLatch(1);
+        hashers.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await();
+        hashers.submit(() -> null);
+
+        assertThat(service.getStats().getQueueSize()).isEqualTo(1);
+        assertThatThrownBy(() -> service.encode("secret"))
+                .hasMessage("Trop de demandes en cours, veuillez réessayer dans un instant");
+        assertThat(service.getStats().getRejectedCount()).isEqualTo(1);
+
+        List<String> hashes = service.encodeAll(List.of("a", "b", "c"));
+        assertThat(hashes).hasSize(3);
+        assertThat(new BCryptPasswordEncoder().matches("b", hashes.get(1))).isTrue();
+    }
+
+    @Test
+    void calibrationStaysWithinTheAllowedCosts() {
+        PasswordHashingService calibrated = new PasswordHashingService();
+        ReflectionTestUtils.setField(calibrated, "targetMillis", 1L);
+        int cost = ReflectionTestUtils.invokeMethod(calibrated, "calibrateCost");
+        assertThat(cost).isEqualTo(10);
+    }
+
+    @Test
+    void aLoginWithAWeakerHashStoresItWithTheCurrentCost() {
+        service = start(5, 2, 8);
+        Utilisateur utilisateur = Utilisateur.builder()
+                .email("etudiant.efb@usms.ac.ma")
+                .motDePasse(new BCryptPasswordEncoder(4).encode("secret"))
+                .role(Role.ETUDIANT)
+                .build();
+        AtomicReference<String> upgraded = new AtomicReference<>();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(username -> utilisateur);
+        provider.setPasswordEncoder(service);
+        provider.setUserDetailsPasswordService((user, newPassword) -> {
+            upgraded.set(newPassword);
+            return user;
+        });
+        provider.authenticate(new UsernamePasswordAuthenticationToken("etudiant.efb@usms.ac.ma", "secret"));
+
+        assertThat(upgraded.get()).startsWith("$2a$05$");
+        assertThat(service.matches("secret", upgraded.get())).isTrue();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private PasswordHashingService start(int cost, int threads, int queueCapacity) {
+        PasswordHashingService started = new PasswordHashingService();
+        ReflectionTestUtils.setField(started, "configuredCost", cost);
+        ReflectionTestUtils.setField(started, "hashThreads", threads);
+        ReflectionTestUtils.setField(started, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.invokeMethod(started, "start");
+        return started;
+    }
+}
@@ -0,0 +1,110 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.config.CacheConfig;
+import ma.estfbs.pfe_management.dto.CacheStatsDTO;
+import ma.estfbs.pfe_management.dto.FiliereDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SalleDTO;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Pourcentage;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.repository.FiliereRepository;
+import ma.estfbs.pfe_management.repository.PourcentageRepository;
+import ma.estfbs.pfe_management.repository.SalleRepository;
+
+/**
+ * Runs without a test transaction so that cache evictions, which wait for the
+ * commit, actually happen.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ CacheConfig.class, ReferenceDataService.class, CacheStatsService.class })
+class ReferenceDataServiceTest {
+
+    @Autowired
+    private ReferenceDataService referenceDataService;
+
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    @Autowired
+    private FiliereRepository filiereRepository;
+
+    @Autowired
+    private SalleRepository salleRepository;
+
+    @Autowired
+    private PourcentageRepository pourcentageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        filiereRepository.deleteAll();
+        salleRepository.deleteAll();
+        pourcentageRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        filiereRepository.save(Filiere.builder().nom("Informatique").build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(referenceDataService.getFilieres()).extracting(FiliereDTO::getNom).containsExactly("Informatique");
+            referenceDataService.getCurrentPourcentages();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(cacheStatsService.getCacheStats())
+                .filteredOn(stats -> stats.getName().equals(CacheConfig.FILIERES))
+                .singleElement()
+                .satisfies(stats -> {
+                    assertThat(stats.getMissCount()).isEqualTo(1);
+                    assertThat(stats.getHitCount()).isEqualTo(4);
+                });
+    }
+
+    @Test
+    void writesEvictTheCache() {
+        Filiere filiere = filiereRepository.save(Filiere.builder().nom("Informatique").build());
+        Salle salle = salleRepository.save(Salle.builder().nom("A1").build());
+        assertThat(referenceDataService.getFilieres()).hasSize(1);
+        assertThat(referenceDataService.getSalles()).extracting(SalleDTO::getNom).containsExactly("A1");
+        assertThat(referenceDataService.getCurrentPourcentages().getPourcentageRapport()).isEqualTo(40);
+
+        filiereRepository.save(Filiere.builder().nom("Mathématiques").build());
+        salle.setNom("B2");
+        salleRepository.save(salle);
+        pourcentageRepository.save(Pourcentage.builder()
+                .pourcentageRapport(30).pourcentageSoutenance(40).pourcentageEncadrant(30).build());
+
+        assertThat(referenceDataService.getFilieres()).extracting(FiliereDTO::getNom)
+                .containsExactlyInAnyOrder("Informatique", "Mathématiques");
+        assertThat(referenceDataService.getSalles()).extracting(SalleDTO::getNom).containsExactly("B2");
+        assertThat(referenceDataService.getCurrentPourcentages().getPourcentageRapport()).isEqualTo(30);
+
+        filiereRepository.delete(filiere);
+        assertThat(referenceDataService.getFilieres()).extracting(FiliereDTO::getNom).containsExactly("Mathématiques");
+        assertThat(cacheStatsService.getCacheStats()).extracting(CacheStatsDTO::getName)
+                .containsExactlyInAnyOrder(CacheConfig.FILIERES, CacheConfig.SALLES, CacheConfig.POURCENTAGE);
+    }
+}
@@ -0,0 +1,223 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceAddRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceUpdateRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationError;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationResponse;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.NoteSoutenance;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Conflict;
+import ma.estfbs.pfe_management.service.SoutenanceConflictIndex.Resource;
+
+/**
+ * Scheduling conflicts: overlapping slots on a salle or a jury member, whatever their start times.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ SoutenanceManagementService.class, SoutenanceConflictService.class, ReferenceDataService.class,
+        ActivityFeedService.class })
+class SoutenanceConflictServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private SoutenanceManagementService soutenanceManagementService;
+
+    @Autowired
+    private SoutenanceConflictService soutenanceConflictService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Filiere filiere;
+    private Utilisateur encadrant;
+    private Sujet sujet;
+    private Salle salleA;
+    private Salle salleB;
+    private Utilisateur juryA;
+    private Utilisateur juryB;
+    private Utilisateur juryC;
+    private Utilisateur juryD;
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        encadrant = fixtures.persistUser(Role.ENCADRANT);
+        sujet = fixtures.persistSujet(filiere);
+        salleA = entityManager.persist(Salle.builder().nom("Salle A").build());
+        salleB = entityManager.persist(Salle.builder().nom("Salle B").build());
+        juryA = fixtures.persistUser(Role.JURY);
+        juryB = fixtures.persistUser(Role.JURY);
+        juryC = fixtures.persistUser(Role.JURY);
+        juryD = fixtures.persistUser(Role.JURY);
+    }
+
+    @Test
+    void overlapStartingThirtyMinutesLaterIsReportedForEveryResource() {
+        // 09:00 to 10:00 (default duration), salle A, jurys A and B
+        persistSoutenance(LocalTime.of(9, 0), null, salleA, juryA, juryB);
+        entityManager.flush();
+
+        ValidationResponse response = soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("09:30", 60, salleA, juryB, juryA), null);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrors()).extracting(ValidationError::getField)
+                .containsExactly("salleId", "jury1Id", "jury2Id");
+        assertThat(response.getErrors().get(0).getMessage()).contains("09:00 à 10:00");
+    }
+
+    @Test
+    void backToBackSlotsAndOtherResourcesAreFree() {
+        persistSoutenance(LocalTime.of(9, 0), 90, salleA, juryA, juryB);
+        entityManager.flush();
+
+        // Starts when the first one ends
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("10:30", 60, salleA, juryA, juryB), null).isValid()).isTrue();
+        // Ends when the first one starts
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("08:00", 60, salleA, juryA, juryB), null).isValid()).isTrue();
+        // Same time, nothing in common
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("09:00", 60, salleB, juryC, juryD), null).isValid()).isTrue();
+        // Jury member from the other side of the pair
+        ValidationResponse response = soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("10:00", 60, salleB, juryC, juryB), null);
+        assertThat(response.getErrors()).extracting(ValidationError::getField).containsExactly("jury2Id");
+    }
+
+    @Test
+    void movingASoutenanceIgnoresItsOwnSlot() {
+        Soutenance soutenance = persistSoutenance(LocalTime.of(9, 0), 60, salleA, juryA, juryB);
+        persistSoutenance(LocalTime.of(11, 0), 60, salleA, juryC, juryD);
+        entityManager.flush();
+
+        SoutenanceUpdateRequest request = SoutenanceUpdateRequest.builder()
+                .id(soutenance.getId())
+                .date(DAY)
+                .heure("09:45")
+                .duree(60)
+                .salleId(salleA.getId())
+                .binomeId(soutenance.getBinome().getId())
+                .jury1Id(juryA.getId())
+                .jury2Id(juryB.getId())
+                .build();
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(request, soutenance.getId()).isValid())
+                .isTrue();
+
+        request.setHeure("10:30");
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(request, soutenance.getId()).getErrors())
+                .extracting(ValidationError::getField).containsExactly("salleId");
+    }
+
+    @Test
+    void rejectsDurationsOutOfRangeOrPastMidnight() {
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("09:00", 5, salleA, juryA, juryB), null).getErrors())
+                .extracting(ValidationError::getField).containsExactly("duree");
+        assertThat(soutenanceManagementService.validateSoutenanceRequest(
+                addRequest("23:30", 60, salleA, juryA, juryB), null).getErrors())
+                .extracting(ValidationError::getField).containsExactly("duree");
+    }
+
+    @Test
+    void aGradedSoutenanceIsNotDeleted() {
+        Soutenance graded = persistSoutenance(LocalTime.of(9, 0), 60, salleA, juryA, juryB);
+        Soutenance ungraded = persistSoutenance(LocalTime.of(11, 0), 60, salleA, juryA, juryB);
+        entityManager.persist(NoteSoutenance.builder().soutenance(graded).jury(juryA).note(15).build());
+        entityManager.flush();
+
+        assertThatThrownBy(() -> soutenanceManagementService.deleteSoutenance(graded.getId()))
+                .hasMessage("Impossible de supprimer cette soutenance car elle a déjà été notée par le jury");
+        soutenanceManagementService.deleteSoutenance(ungraded.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(Soutenance.class, graded.getId())).isNotNull();
+        assertThat(entityManager.find(Soutenance.class, ungraded.getId())).isNull();
+    }
+
+    @Test
+    void indexFindsALongSlotStartingBeforeShorterOnes() {
+        SoutenanceConflictIndex index = new SoutenanceConflictIndex();
+        // Existing overlapping data: a long slot, then a short one inside it
+        index.add(1L, DAY, LocalTime.of(8, 0), 240, 10L, 20L, 21L);
+        index.add(2L, DAY, LocalTime.of(9, 0), 30, 10L, 22L, 23L);
+        index.add(3L, DAY.plusDays(1), LocalTime.of(10, 0), 60, 10L, 20L, 21L);
+
+        List<Conflict> conflicts = index.findConflicts(null, DAY, LocalTime.of(10, 0), 60, 10L, 20L, 30L);
+
+        assertThat(conflicts).extracting(Conflict::resource, Conflict::soutenanceId)
+                .containsExactly(tuple(Resource.SALLE, 1L), tuple(Resource.JURY, 1L));
+        assertThat(index.isFree(DAY, LocalTime.of(12, 0), 60, 10L, 20L, 21L)).isTrue();
+    }
+
+    @Test
+    void loadedIndexCoversOnlyTheDateWindow() {
+        persistSoutenance(LocalTime.of(9, 0), 60, salleA, juryA, juryB);
+        entityManager.flush();
+
+        assertThat(soutenanceConflictService.loadIndex(DAY, DAY)
+                .isFree(DAY, LocalTime.of(9, 30), 30, salleA.getId(), juryC.getId(), juryD.getId())).isFalse();
+        assertThat(soutenanceConflictService.loadIndex(DAY.plusDays(1), DAY.plusDays(2))
+                .isFree(DAY, LocalTime.of(9, 30), 30, salleA.getId(), juryC.getId(), juryD.getId())).isTrue();
+    }
+
+    private SoutenanceAddRequest addRequest(String heure, Integer duree, Salle salle, Utilisateur jury1,
+            Utilisateur jury2) {
+        return SoutenanceAddRequest.builder()
+                .date(DAY)
+                .heure(heure)
+                .duree(duree)
+                .salleId(salle.getId())
+                .binomeId(persistBinome().getId())
+                .jury1Id(jury1.getId())
+                .jury2Id(jury2.getId())
+                .build();
+    }
+
+    private Soutenance persistSoutenance(LocalTime heure, Integer duree, Salle salle, Utilisateur jury1,
+            Utilisateur jury2) {
+        return entityManager.persist(Soutenance.builder()
+                .date(DAY)
+                .heure(heure)
+                .duree(duree)
+                .salle(salle)
+                .binome(persistBinome())
+                .jury1(jury1)
+                .jury2(jury2)
+                .build());
+    }
+
+    private Binome persistBinome() {
+        return fixtures.persistBinome(fixtures.persistUser(Role.ETUDIANT), null, encadrant, sujet);
+    }
+}
@@ -0,0 +1,166 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ImportReportDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ImportRowErrorDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.SoutenanceAddRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.ValidationError;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository;
+
+/**
+ * Spreadsheet import: a fixed number of queries per batch, and a per-row report.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ SoutenanceImportService.class, SoutenanceManagementService.class, SoutenanceConflictService.class,
+        SoutenanceBatchWriter.class, ReferenceDataService.class, ActivityFeedService.class })
+class SoutenanceImportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    @Autowired
+    private SoutenanceImportService soutenanceImportService;
+
+    @Autowired
+    private SoutenanceRepository soutenanceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Utilisateur encadrant;
+    private Sujet sujet;
+    private List<Salle> salles = new ArrayList<>();
+    private List<Utilisateur> jurys = new ArrayList<>();
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        encadrant = fixtures.persistUser(Role.ENCADRANT);
+        sujet = fixtures.persistSujet(filiere);
+        for (int i = 0; i < 10; i++) {
+            salles.add(entityManager.persist(Salle.builder().nom("Salle " + i).build()));
+        }
+        for (int i = 0; i < 20; i++) {
+            jurys.add(fixtures.persistUser(Role.JURY));
+        }
+    }
+
+    @Test
+    void validatesAWholeBatchWithAFixedNumberOfQueriesThenInsertsIt() {
+        // 10 days x 3 hours x 10 salles, each salle with its own jury pair
+        List<SoutenanceAddRequest> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int k = i % 30;
+            rows.add(row(DAY.plusDays(i / 30), String.format("%02d:00", 8 + k / 10), persistBinome(),
+                    salles.get(k % 10), jurys.get(2 * (k % 10)), jurys.get(2 * (k % 10) + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ImportReportDTO report = soutenanceImportService.validateImport(rows);
+
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(report.getValid()).isEqualTo(300);
+        // Binomes, jury members, salles and the existing schedule
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+        assertThat(soutenanceRepository.count()).isZero();
+
+        ImportReportDTO imported = soutenanceImportService.importSoutenances(rows);
+
+        assertThat(imported.getInserted()).isEqualTo(300);
+        assertThat(soutenanceRepository.count()).isEqualTo(300);
+    }
+
+    @Test
+    void reportsEveryInvalidRowAndInsertsNothing() {
+        Binome scheduled = persistBinome();
+        entityManager.persist(Soutenance.builder()
+                .date(DAY).heure(LocalTime.of(14, 0)).salle(salles.get(1)).binome(scheduled)
+                .jury1(jurys.get(4)).jury2(jurys.get(5)).build());
+        Binome binome = persistBinome();
+        entityManager.flush();
+
+        List<SoutenanceAddRequest> rows = List.of(
+                row(DAY, "09:00", binome, salles.get(0), jurys.get(0), jurys.get(1)),
+                // Same salle, 30 minutes into row 1
+                row(DAY, "09:30", persistBinome(), salles.get(0), jurys.get(2), jurys.get(3)),
+                // Same binome as row 1
+                row(DAY, "11:00", binome, salles.get(2), jurys.get(6), jurys.get(7)),
+                // Overlaps the existing soutenance on its jury
+                row(DAY, "14:30", persistBinome(), salles.get(3), jurys.get(8), jurys.get(5)),
+                row(DAY, "16:00", scheduled, salles.get(4), jurys.get(10), jurys.get(11)),
+                SoutenanceAddRequest.builder().date(DAY).heure("9h").salleId(-1L).binomeId(binome.getId())
+                        .jury1Id(jurys.get(0).getId()).jury2Id(jurys.get(0).getId()).build(),
+                row(DAY, "17:00", persistBinome(), salles.get(5), jurys.get(12), jurys.get(13)));
+        entityManager.flush();
+
+        ImportReportDTO report = soutenanceImportService.importSoutenances(rows);
+
+        assertThat(report.getTotal()).isEqualTo(7);
+        assertThat(report.getValid()).isEqualTo(2);
+        assertThat(report.getInserted()).isZero();
+        assertThat(report.getErrors()).extracting(ImportRowErrorDTO::getLigne).containsExactly(2, 3, 4, 5, 6);
+        assertThat(messages(report, 0)).containsExactly("Cette salle est déjà réservée par la ligne 1 (09:00 à 10:00)");
+        assertThat(messages(report, 1)).containsExactly("Ce binôme est déjà programmé à la ligne 1");
+        assertThat(report.getErrors().get(2).getErrors()).extracting(ValidationError::getField)
+                .containsExactly("jury2Id");
+        assertThat(messages(report, 3)).containsExactly("Ce binôme a déjà une soutenance programmée");
+        assertThat(report.getErrors().get(4).getErrors()).extracting(ValidationError::getField)
+                .containsExactlyInAnyOrder("heure", "jury2Id", "binomeId", "salleId");
+        assertThat(soutenanceRepository.count()).isEqualTo(1);
+    }
+
+    private List<String> messages(ImportReportDTO report, int index) {
+        return report.getErrors().get(index).getErrors().stream().map(ValidationError::getMessage).toList();
+    }
+
+    private SoutenanceAddRequest row(LocalDate date, String heure, Binome binome, Salle salle, Utilisateur jury1,
+            Utilisateur jury2) {
+        return SoutenanceAddRequest.builder()
+                .date(date)
+                .heure(heure)
+                .salleId(salle.getId())
+                .binomeId(binome.getId())
+                .jury1Id(jury1.getId())
+                .jury2Id(jury2.getId())
+                .build();
+    }
+
+    private Binome persistBinome() {
+        return fixtures.persistBinome(fixtures.persistUser(Role.ETUDIANT), null, encadrant, sujet);
+    }
+}
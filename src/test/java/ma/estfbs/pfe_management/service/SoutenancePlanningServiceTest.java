@@ -0,0 +1,192 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlannedSoutenanceDTO;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningRequest;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningStatus;
+import ma.estfbs.pfe_management.dto.SoutenanceManagementDTOs.PlanningStatusDTO;
+import ma.estfbs.pfe_management.model.Binome;
+import ma.estfbs.pfe_management.model.Filiere;
+import ma.estfbs.pfe_management.model.Salle;
+import ma.estfbs.pfe_management.model.Soutenance;
+import ma.estfbs.pfe_management.model.Sujet;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.SoutenanceRepository;
+
+/**
+ * Automatic planning: conflict-free, balanced, and only applied if the schedule still allows it.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ SoutenancePlanningService.class, SoutenanceConflictService.class, SoutenanceBatchWriter.class,
+        ReferenceDataService.class, ActivityFeedService.class })
+class SoutenancePlanningServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @Autowired
+    private SoutenancePlanningService soutenancePlanningService;
+
+    @Autowired
+    private SoutenanceConflictService soutenanceConflictService;
+
+    @Autowired
+    private SoutenanceRepository soutenanceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Utilisateur encadrant;
+    private Sujet sujet;
+    private List<Salle> salles = new ArrayList<>();
+    private List<Utilisateur> jurys = new ArrayList<>();
+    private List<Binome> binomes = new ArrayList<>();
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(entityManager);
+        Filiere filiere = entityManager.persist(Filiere.builder().nom("Informatique").build());
+        encadrant = fixtures.persistUser(Role.ENCADRANT);
+        sujet = fixtures.persistSujet(filiere);
+        for (int i = 0; i < 3; i++) {
+            salles.add(entityManager.persist(Salle.builder().nom("Salle " + i).build()));
+        }
+        for (int i = 0; i < 6; i++) {
+            jurys.add(fixtures.persistUser(Role.JURY));
+        }
+        for (int i = 0; i < 41; i++) {
+            binomes.add(persistBinome());
+        }
+    }
+
+    @Test
+    void plansEveryBinomeWithoutConflictsAndWithEvenJuryLoad() {
+        // Already planned: first slot of Monday, salle 0, jurys 0 and 1
+        entityManager.persist(Soutenance.builder()
+                .date(MONDAY).heure(LocalTime.of(8, 30)).salle(salles.get(0)).binome(binomes.get(0))
+                .jury1(jurys.get(0)).jury2(jurys.get(1)).build());
+        entityManager.flush();
+
+        Map<Long, List<LocalDate>> indisponibilites = new HashMap<>();
+        indisponibilites.put(jurys.get(5).getId(), List.of(MONDAY));
+        PlanningStatusDTO status = await(soutenancePlanningService.startPlanning(PlanningRequest.builder()
+                .from(MONDAY)
+                .to(MONDAY.plusDays(4))
+                .juryIndisponibilites(indisponibilites)
+                .build()));
+
+        assertThat(status.getStatus()).isEqualTo(PlanningStatus.TERMINE);
+        assertThat(status.getProgress()).isEqualTo(100);
+        assertThat(status.getPlanned()).isEqualTo(40);
+        assertThat(status.getUnplannedBinomeIds()).isEmpty();
+        // 82 jury seats over 6 members, existing soutenance included
+        assertThat(status.getMaxJuryLoad() - status.getMinJuryLoad()).isLessThanOrEqualTo(1);
+        assertThat(status.getSoutenances())
+                .noneMatch(s -> s.getDate().equals(MONDAY) && (s.getJury1Id().equals(jurys.get(5).getId())
+                        || s.getJury2Id().equals(jurys.get(5).getId())))
+                .allMatch(s -> !s.getDate().getDayOfWeek().equals(DayOfWeek.SATURDAY))
+                .extracting(PlannedSoutenanceDTO::getBinomeId)
+                .doesNotContain(binomes.get(0).getId())
+                .doesNotHaveDuplicates();
+
+        // Placed one by one into the existing schedule, no planned soutenance conflicts with another
+        SoutenanceConflictIndex index = soutenanceConflictService.loadIndex(MONDAY, MONDAY.plusDays(4));
+        for (PlannedSoutenanceDTO planned : status.getSoutenances()) {
+            assertThat(index.isFree(planned.getDate(), planned.getHeure(), planned.getDuree(),
+                    planned.getSalleId(), planned.getJury1Id(), planned.getJury2Id())).isTrue();
+            index.add(-planned.getBinomeId(), planned.getDate(), planned.getHeure(), planned.getDuree(),
+                    planned.getSalleId(), planned.getJury1Id(), planned.getJury2Id());
+        }
+
+        PlanningStatusDTO applied = soutenancePlanningService.applyPlanning(status.getId());
+
+        assertThat(applied.getStatus()).isEqualTo(PlanningStatus.APPLIQUE);
+        assertThat(soutenanceRepository.count()).isEqualTo(41);
+        // The existing soutenance predates durations, the planned ones carry theirs
+        assertThat(soutenanceRepository.findScheduledSlots(MONDAY, MONDAY.plusDays(4)))
+                .filteredOn(slot -> slot.getDuree() != null)
+                .hasSize(40);
+        assertThatThrownBy(() -> soutenancePlanningService.applyPlanning(status.getId()))
+                .hasMessage("Cette planification a déjà été appliquée");
+    }
+
+    @Test
+    void refusesToApplyAPlanningOverruledByTheCurrentSchedule() {
+        entityManager.flush();
+        PlanningStatusDTO status = await(soutenancePlanningService.startPlanning(PlanningRequest.builder()
+                .from(MONDAY)
+                .to(MONDAY.plusDays(4))
+                .build()));
+        assertThat(status.getPlanned()).isEqualTo(41);
+
+        // Scheduled by hand in the meantime
+        PlannedSoutenanceDTO first = status.getSoutenances().get(0);
+        entityManager.persist(Soutenance.builder()
+                .date(first.getDate()).heure(first.getHeure()).salle(entityManager.find(Salle.class, first.getSalleId()))
+                .binome(persistBinome()).jury1(jurys.get(0)).jury2(jurys.get(1)).build());
+        entityManager.flush();
+
+        assertThatThrownBy(() -> soutenancePlanningService.applyPlanning(status.getId()))
+                .hasMessageStartingWith("Le planning n'est plus valide");
+        assertThat(soutenanceRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        assertThatThrownBy(() -> soutenancePlanningService.startPlanning(PlanningRequest.builder()
+                .from(MONDAY.plusDays(2)).to(MONDAY).build()))
+                .hasMessage("La date de fin doit être postérieure à la date de début");
+        assertThatThrownBy(() -> soutenancePlanningService.startPlanning(PlanningRequest.builder()
+                .from(MONDAY).to(MONDAY).juryIds(List.of(jurys.get(0).getId(), encadrant.getId())).build()))
+                .hasMessage("Membre du jury non trouvé avec l'id: " + encadrant.getId());
+        assertThatThrownBy(() -> soutenancePlanningService.startPlanning(PlanningRequest.builder()
+                .from(MONDAY.plusDays(5)).to(MONDAY.plusDays(6)).build()))
+                .hasMessage("Aucun créneau disponible sur cette période");
+    }
+
+    /**
+     * Poll the planning until it is no longer running
+     */
+    private PlanningStatusDTO await(PlanningStatusDTO started) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        PlanningStatusDTO status = started;
+        while (status.getStatus() == PlanningStatus.EN_COURS && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            status = soutenancePlanningService.getPlanning(started.getId());
+        }
+        return status;
+    }
+
+    private Binome persistBinome() {
+        return fixtures.persistBinome(fixtures.persistUser(Role.ETUDIANT), null, encadrant, sujet);
+    }
+}
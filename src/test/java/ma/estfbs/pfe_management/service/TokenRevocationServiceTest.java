@@ -0,0 +1,152 @@
+package ma.estfbs.pfe_management.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManagerFactory;
+import ma.estfbs.pfe_management.TestFixtures;
+import ma.estfbs.pfe_management.model.Utilisateur;
+import ma.estfbs.pfe_management.model.Utilisateur.Role;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository;
+import ma.estfbs.pfe_management.repository.UtilisateurRepository.TokenVersion;
+
+/**
+ * Runs without a test transaction: local changes are applied once they commit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TokenRevocationService.class)
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int sequence;
+
+    @AfterEach
+    void cleanUp() {
+        utilisateurRepository.deleteAll();
+    }
+
+    @Test
+    void checksAreServedFromMemoryUntilTheNextRefresh() {
+        Utilisateur utilisateur = persistUser();
+        Utilisateur other = persistUser();
+        tokenRevocationService.refresh();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        for (int i = 0; i < 100; i++) {
+            assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), 0)).isTrue();
+        }
+        assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), null)).isTrue();
+        assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), 1)).isFalse();
+        assertThat(tokenRevocationService.isCurrent(-1L, 0)).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        // Changed behind the application's back: visible after the refresh
+        other.setTokenVersion(3);
+        utilisateurRepository.save(other);
+        assertThat(tokenRevocationService.isCurrent(other.getId(), 0)).isTrue();
+        tokenRevocationService.refresh();
+        assertThat(tokenRevocationService.isCurrent(other.getId(), 0)).isFalse();
+        assertThat(tokenRevocationService.isCurrent(other.getId(), 3)).isTrue();
+    }
+
+    @Test
+    void localChangesApplyWithoutWaitingForTheRefresh() {
+        Utilisateur utilisateur = persistUser();
+        tokenRevocationService.refresh();
+
+        // Password reset: version written, then recorded
+        utilisateur.setTokenVersion(1);
+        utilisateurRepository.save(utilisateur);
+        tokenRevocationService.recordVersion(utilisateur.getId(), 1);
+        assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), 0)).isFalse();
+        assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), 1)).isTrue();
+
+        // New account created after the last refresh
+        Utilisateur created = persistUser();
+        tokenRevocationService.recordVersion(created.getId(), 0);
+        assertThat(tokenRevocationService.isCurrent(created.getId(), 0)).isTrue();
+
+        tokenRevocationService.refresh();
+        assertThat(tokenRevocationService.isCurrent(utilisateur.getId(), 1)).isTrue();
+        assertThat(tokenRevocationService.isCurrent(created.getId(), 0)).isTrue();
+
+        utilisateurRepository.delete(created);
+        tokenRevocationService.forget(created.getId());
+        assertThat(tokenRevocationService.isCurrent(created.getId(), 0)).isFalse();
+    }
+
+    @Test
+    void concurrentFirstChecksShareOneLoad() {
+        UtilisateurRepository slowRepository = mock(UtilisateurRepository.class);
+        when(slowRepository.findAllTokenVersions()).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return List.of(new TokenVersion() {
+                public Long getId() {
+                    return 1L;
+                }
+
+                public int getTokenVersion() {
+                    return 0;
+                }
+            });
+        });
+        TokenRevocationService fresh = new TokenRevocationService(slowRepository);
+
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            checks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return fresh.isCurrent(1L, 0);
+            }, requests));
+        }
+        start.countDown();
+
+        assertThat(checks).allSatisfy(check -> assertThat(check.join()).isTrue());
+        requests.shutdown();
+        verify(slowRepository, times(1)).findAllTokenVersions();
+    }
+
+    private Utilisateur persistUser() {
+        return utilisateurRepository.save(TestFixtures.utilisateur(Role.ENCADRANT, ++sequence).build());
+    }
+}